@@ -0,0 +1,26 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.security.SecureRandom;
+
+// The previous RandomShortUrlGenerator, kept as the baseline for ShortUrlGeneratorBenchmark.
+class PerCharacterShortUrlGenerator implements ShortUrlGenerator {
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final int urlLength;
+
+    PerCharacterShortUrlGenerator(int urlLength) {
+        this.urlLength = urlLength;
+    }
+
+    @Override
+    public String generate() {
+        StringBuilder sb = new StringBuilder(urlLength);
+        for (int i = 0; i < urlLength; i++) {
+            int randomIndex = random.nextInt(ALPHANUMERIC_CHARS.length());
+            char randomChar = ALPHANUMERIC_CHARS.charAt(randomIndex);
+            sb.append(randomChar);
+        }
+        return sb.toString();
+    }
+}
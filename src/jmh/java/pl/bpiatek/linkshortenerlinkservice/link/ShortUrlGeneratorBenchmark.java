@@ -0,0 +1,62 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Run with: ./mvnw -Pjmh test-compile exec:exec -Djmh.includes=ShortUrlGeneratorBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortUrlGeneratorBenchmark {
+
+    @Param({"7", "10"})
+    private int length;
+
+    private ShortUrlGenerator perCharacter;
+    private ShortUrlGenerator striped;
+
+    @Setup
+    public void setUp() {
+        perCharacter = new PerCharacterShortUrlGenerator(length);
+        striped = new RandomShortUrlGenerator(length);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String perCharacterSingleThread() {
+        return perCharacter.generate();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String stripedSingleThread() {
+        return striped.generate();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String perCharacterContended() {
+        return perCharacter.generate();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String stripedContended() {
+        return striped.generate();
+    }
+}
@@ -0,0 +1,50 @@
+package pl.bpiatek.linkshortenerlinkservice.url;
+
+import org.apache.commons.validator.routines.UrlValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of validating and sanitizing a long url.
+// Run with: ./mvnw -Pjmh test-compile exec:exec -Djmh.includes=UrlScannerBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlScannerBenchmark {
+
+    private static final UrlValidator urlValidator = new UrlValidator(new String[]{"http", "https", "ftp"});
+
+    @Param({"https://www.youtube.com/watch?v=E2btdGWn2RE", "www.example.com/some/longer/path?query=value"})
+    private String url;
+
+    private final UrlScanner urlScanner = new UrlScanner(10_000);
+
+    @Benchmark
+    public String commonsValidatorAndRegex() {
+        // What UrlValidatorConstraint and UrlSanitizer did before.
+        if (!urlValidator.isValid(url) && !urlValidator.isValid("https://" + url)) {
+            return null;
+        }
+        return url.matches("^(http|https)://.*") ? url : "https://" + url;
+    }
+
+    @Benchmark
+    public String urlScanner() {
+        if (urlScanner.scan(url).isEmpty()) {
+            return null;
+        }
+        return urlScanner.canonicalize(url);
+    }
+}
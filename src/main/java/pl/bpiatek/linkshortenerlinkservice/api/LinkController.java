@@ -1,6 +1,9 @@
 package pl.bpiatek.linkshortenerlinkservice.api;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,13 +14,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinksBatchRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinksBatchResponse;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkDto;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkExportFormat;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkListRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkPageResponse;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.UpdateLinkRequest;
 import pl.bpiatek.linkshortenerlinkservice.link.LinkFacade;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
 @RestController
 @RequestMapping("/links")
 class LinkController {
@@ -32,11 +46,39 @@ class LinkController {
     ResponseEntity<CreateLinkResponse> createLink(
             @RequestHeader("X-User-Id") String userId,
             @Valid @RequestBody CreateLinkRequest request) {
-        var response = linkFacade.createLink(userId, request.longUrl(), request.shortUrl(), request.isActive(), request.title());
+        var response = linkFacade.createLink(userId, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    ResponseEntity<CreateLinksBatchResponse> createLinks(
+            @RequestHeader("X-User-Id") String userId,
+            @Valid @RequestBody CreateLinksBatchRequest request) {
+        var response = linkFacade.createLinks(userId, request.links());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    ResponseEntity<LinkImportResponse> importLinks(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        var response = linkFacade.importLinks(userId, contentType, body);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/import/file")
+    ResponseEntity<LinkImportResponse> importLinksFromFile(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam("name") String fileName) {
+        var response = linkFacade.importLinksFromFile(userId, fileName);
+
+        return ResponseEntity.ok(response);
+    }
+
     @PatchMapping("/{linkId}")
     ResponseEntity<LinkDto> updateLink(
             @RequestHeader("X-User-Id") String userId,
@@ -47,6 +89,32 @@ class LinkController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping
+    ResponseEntity<LinkPageResponse> listLinks(
+            @RequestHeader("X-User-Id") String userId,
+            @Valid LinkListRequest request) {
+        var response = linkFacade.listLinks(userId, request);
+
+        return ResponseEntity.ok(response);
+    }
+
+    // Written straight to the response on the request thread rather than as a StreamingResponseBody,
+    // so long exports are not cut off by the async request timeout.
+    @GetMapping("/export")
+    void exportLinks(
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(defaultValue = "NDJSON") LinkExportFormat format,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(format.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("links." + format.fileExtension())
+                .build()
+                .toString());
+
+        linkFacade.exportLinks(userId, format, response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
     ResponseEntity<LinkDto> getLink(
             @RequestHeader("X-User-Id") String userId,
@@ -0,0 +1,26 @@
+package pl.bpiatek.linkshortenerlinkservice.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.ResolvedLinkDto;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkFacade;
+
+// Internal endpoint for the redirect tier; it is not tied to a user.
+@RestController
+@RequestMapping("/resolve")
+class ResolveController {
+
+    private final LinkFacade linkFacade;
+
+    ResolveController(LinkFacade linkFacade) {
+        this.linkFacade = linkFacade;
+    }
+
+    @GetMapping("/{shortUrl}")
+    ResponseEntity<ResolvedLinkDto> resolve(@PathVariable String shortUrl) {
+        return ResponseEntity.ok(linkFacade.resolve(shortUrl));
+    }
+}
@@ -2,11 +2,15 @@ package pl.bpiatek.linkshortenerlinkservice.api;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import org.apache.commons.validator.routines.UrlValidator;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
 
 class UrlValidatorConstraint implements ConstraintValidator<ValidUrl, String> {
 
-    private static final UrlValidator validator = new UrlValidator(new String[]{"http", "https", "ftp"});
+    private final UrlScanner urlScanner;
+
+    UrlValidatorConstraint(UrlScanner urlScanner) {
+        this.urlScanner = urlScanner;
+    }
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext constraintValidatorContext) {
@@ -14,10 +18,6 @@ class UrlValidatorConstraint implements ConstraintValidator<ValidUrl, String> {
             return true;
         }
 
-        if (validator.isValid(value)) {
-            return true;
-        }
-
-        return validator.isValid("https://" + value);
+        return urlScanner.scan(value).isPresent();
     }
 }
@@ -0,0 +1,17 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+public record CreateLinkBatchItemResult(
+        int index,
+        boolean created,
+        String shortUrl,
+        String longUrl,
+        String error) {
+
+    public static CreateLinkBatchItemResult created(int index, CreateLinkResponse link) {
+        return new CreateLinkBatchItemResult(index, true, link.shortUrl(), link.longUrl(), null);
+    }
+
+    public static CreateLinkBatchItemResult failed(int index, String error) {
+        return new CreateLinkBatchItemResult(index, false, null, null, error);
+    }
+}
@@ -11,13 +11,24 @@ public record CreateLinkRequest(
         @Size(max = 1024, message = "The destination URL cannot exceed 1024 characters.")
         String longUrl,
         @Pattern(regexp = "^$|^[a-zA-Z0-9-_]+$", message = "Short URL can only contain alphanumeric characters, hyphens, and underscores.")
+        @Size(max = 64, message = "The short URL cannot exceed 64 characters.")
         String shortUrl,
         Boolean isActive,
         @Size(max = 255, message = "The title cannot exceed 255 characters.")
-        String title) {
+        String title,
+        Boolean deduplicate) {
+
+        public CreateLinkRequest(String longUrl, String shortUrl, Boolean isActive, String title) {
+                this(longUrl, shortUrl, isActive, title, false);
+        }
 
         @Override
         public Boolean isActive() {
                 return this.isActive == null || isActive;
         }
+
+        @Override
+        public Boolean deduplicate() {
+                return this.deduplicate != null && deduplicate;
+        }
 }
@@ -0,0 +1,14 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Items are validated one by one while the batch is processed, so a single invalid item
+// fails on its own instead of rejecting the whole request.
+public record CreateLinksBatchRequest(
+        @NotEmpty(message = "The batch must contain at least one link.")
+        @Size(max = 5000, message = "The batch cannot contain more than 5000 links.")
+        List<CreateLinkRequest> links) {
+}
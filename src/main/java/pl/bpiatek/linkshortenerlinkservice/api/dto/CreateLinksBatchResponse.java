@@ -0,0 +1,14 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import java.util.List;
+
+public record CreateLinksBatchResponse(
+        int created,
+        int failed,
+        List<CreateLinkBatchItemResult> results) {
+
+    public static CreateLinksBatchResponse of(List<CreateLinkBatchItemResult> results) {
+        var created = (int) results.stream().filter(CreateLinkBatchItemResult::created).count();
+        return new CreateLinksBatchResponse(created, results.size() - created, results);
+    }
+}
@@ -0,0 +1,6 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+public record LinkImportError(
+        long line,
+        String message) {
+}
@@ -0,0 +1,12 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import java.util.List;
+
+// errors holds only the first rejected or conflicting rows, the counters cover the whole input.
+public record LinkImportResponse(
+        long read,
+        long imported,
+        long rejected,
+        long conflicted,
+        List<LinkImportError> errors) {
+}
@@ -0,0 +1,34 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+
+public record LinkListRequest(
+        String cursor,
+
+        @Min(value = 1, message = "The page size must be at least 1.")
+        @Max(value = 100, message = "The page size cannot exceed 100.")
+        Integer limit,
+
+        Boolean isActive,
+
+        Boolean isCustom,
+
+        @DateTimeFormat(iso = DATE_TIME)
+        Instant createdFrom,
+
+        @DateTimeFormat(iso = DATE_TIME)
+        Instant createdTo) {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    @Override
+    public Integer limit() {
+        return limit == null ? DEFAULT_LIMIT : limit;
+    }
+}
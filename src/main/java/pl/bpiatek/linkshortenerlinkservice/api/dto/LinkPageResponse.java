@@ -0,0 +1,7 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import java.util.List;
+
+// nextCursor is null on the last page.
+public record LinkPageResponse(List<LinkSummaryDto> links, String nextCursor) {
+}
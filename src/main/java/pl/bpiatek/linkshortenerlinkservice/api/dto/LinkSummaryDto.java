@@ -0,0 +1,14 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import java.time.Instant;
+
+public record LinkSummaryDto(
+        String id,
+        String shortUrl,
+        String longUrl,
+        String title,
+        boolean isActive,
+        boolean isCustom,
+        Instant createdAt,
+        Instant expiresAt) {
+}
@@ -0,0 +1,6 @@
+package pl.bpiatek.linkshortenerlinkservice.api.dto;
+
+import java.time.Instant;
+
+public record ResolvedLinkDto(String shortUrl, String longUrl, Instant expiresAt) {
+}
@@ -0,0 +1,64 @@
+package pl.bpiatek.linkshortenerlinkservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// Only active when replicas are configured; otherwise Boot's single pool is used as before.
+@Configuration
+@ConditionalOnProperty("datasource.replica.urls")
+class DataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties properties,
+                                                      Clock clock,
+                                                      MeterRegistry meterRegistry,
+                                                      @Value("${datasource.replica.urls}") List<String> urls,
+                                                      @Value("${datasource.replica.username:}") String username,
+                                                      @Value("${datasource.replica.password:}") String password,
+                                                      @Value("${datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+                                                      @Value("${datasource.replica.max-lag:PT5S}") Duration maxLag,
+                                                      @Value("${datasource.replica.pin-window:PT10S}") Duration pinWindow) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        for (int i = 0; i < urls.size(); i++) {
+            var replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isBlank() ? properties.determineUsername() : username);
+            replica.setPassword(password.isBlank() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, clock, meterRegistry, maxLag, pinWindow);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
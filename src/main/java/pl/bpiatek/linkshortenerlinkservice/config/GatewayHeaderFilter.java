@@ -17,7 +17,8 @@ class GatewayHeaderFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        if (request.getRequestURI().startsWith("/actuator")) {
+        // /resolve serves the redirect tier, which calls on behalf of anonymous visitors.
+        if (request.getRequestURI().startsWith("/actuator") || request.getRequestURI().startsWith("/resolve/")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -1,21 +1,31 @@
 package pl.bpiatek.linkshortenerlinkservice.config;
 
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.protobuf.KafkaProtobufDeserializer;
+import io.confluent.kafka.serializers.protobuf.KafkaProtobufDeserializerConfig;
 import io.confluent.kafka.serializers.protobuf.KafkaProtobufSerializer;
 import io.confluent.kafka.serializers.protobuf.KafkaProtobufSerializerConfig;
 import io.micrometer.observation.ObservationRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
 
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableKafka
@@ -35,6 +45,10 @@ class KafkaConfig {
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaProtobufSerializer.class);
         props.putIfAbsent(AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS, false);
         props.putIfAbsent(AbstractKafkaSchemaSerDeConfig.USE_LATEST_VERSION, true);
+        // Sends no longer wait for each other, so give the producer a moment to fill a batch.
+        props.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 5);
+        // Without a broker a send waits this long for metadata before failing and tripping the circuit breaker.
+        props.putIfAbsent(ProducerConfig.MAX_BLOCK_MS_CONFIG, 5000);
 
         var registryUrl = kafkaProperties.getProperties().get("schema.registry.url");
         if (registryUrl != null) {
@@ -53,4 +67,30 @@ class KafkaConfig {
 
         return template;
     }
+
+    // Every instance gets its own throwaway group, so each one sees every lifecycle event.
+    // It starts from the latest offset and never commits, because the cache it feeds starts empty.
+    @Bean
+    ConcurrentKafkaListenerContainerFactory<String, LinkLifecycleEvent> linkCacheInvalidationContainerFactory(
+            @Value("${spring.application.name}") String applicationName) {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties(null);
+
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, applicationName + "-cache-invalidation-" + UUID.randomUUID());
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, KafkaProtobufDeserializer.class);
+        props.putIfAbsent(KafkaProtobufDeserializerConfig.SPECIFIC_PROTOBUF_VALUE_TYPE, LinkLifecycleEvent.class.getName());
+
+        var registryUrl = kafkaProperties.getProperties().get("schema.registry.url");
+        if (registryUrl != null) {
+            props.put(KafkaProtobufDeserializerConfig.SCHEMA_REGISTRY_URL_CONFIG, registryUrl);
+        }
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, LinkLifecycleEvent>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        return factory;
+    }
 }
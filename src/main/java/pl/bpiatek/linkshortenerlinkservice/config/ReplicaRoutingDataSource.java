@@ -0,0 +1,213 @@
+package pl.bpiatek.linkshortenerlinkservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a healthy replica and everything else to the primary. Must sit
+// behind a LazyConnectionDataSourceProxy, otherwise the connection is taken before the transaction
+// is marked read-only. A user who has just written is kept on the primary for pinWindow, so they
+// read their own writes whatever the replication lag.
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 2;
+
+    // Replay lag is only meaningful while WAL is pending; an idle primary would otherwise look like lag.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT)
+            END""";
+
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final Cache<String, Boolean> pinnedUsers;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+
+    ReplicaRoutingDataSource(DataSource primary,
+                             Map<String, DataSource> replicas,
+                             Clock clock,
+                             MeterRegistry meterRegistry,
+                             Duration maxLag,
+                             Duration pinWindow) {
+        this.maxLagMillis = maxLag.toMillis();
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.pinnedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(pinWindow)
+                .maximumSize(100_000)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.primaryRoutes = Counter.builder("datasource.routing")
+                .description("Number of connections routed to each kind of database")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        this.replicaRoutes = Counter.builder("datasource.routing")
+                .description("Number of connections routed to each kind of database")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        for (var replica : this.replicas) {
+            TimeGauge.builder("datasource.replica.lag", replica, TimeUnit.MILLISECONDS, r -> r.lagMillis)
+                    .description("Replication lag measured by the last health check")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica currently receives read-only transactions")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var userId = currentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            pin(userId);
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+
+        if (userId == null || pinnedUsers.getIfPresent(userId) == null) {
+            var replica = nextHealthyReplica();
+            if (replica != null) {
+                replicaRoutes.increment();
+                return replica.name;
+            }
+        }
+
+        primaryRoutes.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval-ms:1000}")
+    void checkReplicas() {
+        for (var replica : replicas) {
+            try {
+                var lag = measureLag(replica.dataSource);
+                replica.lagMillis = lag;
+                replica.update(lag <= maxLagMillis, "lag of " + lag + " ms");
+            } catch (SQLException | RuntimeException e) {
+                replica.update(false, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // Pinned once the write commits; outside a transaction the statement has already taken effect.
+    private void pin(String userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pinnedUsers.put(userId, Boolean.TRUE);
+                }
+            });
+        } else {
+            pinnedUsers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    private Replica nextHealthyReplica() {
+        var size = replicas.size();
+        var start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            var replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static long measureLag(DataSource dataSource) throws SQLException {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement()) {
+            statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            try (var resultSet = statement.executeQuery(LAG_SQL)) {
+                if (!resultSet.next()) {
+                    throw new SQLException("Replication lag query returned no rows");
+                }
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static String currentUserId() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            var userId = attributes.getRequest().getHeader(USER_ID_HEADER);
+            return userId == null || userId.isBlank() ? null : userId;
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // Unhealthy until the first check has measured it.
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void update(boolean nowHealthy, String reason) {
+            if (healthy != nowHealthy) {
+                if (nowHealthy) {
+                    log.info("Replica {} is back in rotation ({}).", name, reason);
+                } else {
+                    log.warn("Replica {} taken out of rotation: {}", name, reason);
+                }
+            }
+            healthy = nowHealthy;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package pl.bpiatek.linkshortenerlinkservice.exception;
+
+public class BlockedContentException extends RuntimeException {
+    public BlockedContentException() {
+        super("The link contains blocked content and cannot be created.");
+    }
+}
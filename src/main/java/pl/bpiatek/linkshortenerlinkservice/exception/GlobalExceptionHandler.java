@@ -10,6 +10,7 @@ import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.Clock;
 import java.util.stream.Collectors;
@@ -156,6 +157,25 @@ class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, BAD_REQUEST);
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleArgumentTypeMismatch(
+            MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
+
+        log.warn("Invalid value for parameter [{}]: {}", ex.getName(), ex.getValue());
+
+        var apiError = new ApiError(
+                clock.instant(),
+                "/errors/invalid-parameter",
+                "Invalid Parameter",
+                BAD_REQUEST.value(),
+                "Invalid value for parameter '" + ex.getName() + "'.",
+                request.getRequestURI(),
+                null
+        );
+
+        return new ResponseEntity<>(apiError, BAD_REQUEST);
+    }
+
     @ExceptionHandler(ReservedShortUrlException.class)
     public ResponseEntity<ApiError> handleReservedShortUrl(
             ReservedShortUrlException ex, HttpServletRequest request) {
@@ -175,6 +195,61 @@ class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, BAD_REQUEST);
     }
 
+    @ExceptionHandler(BlockedContentException.class)
+    public ResponseEntity<ApiError> handleBlockedContent(
+            BlockedContentException ex, HttpServletRequest request) {
+
+        var apiError = new ApiError(
+                clock.instant(),
+                "/errors/blocked-content",
+                "Blocked Content",
+                BAD_REQUEST.value(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+
+        return new ResponseEntity<>(apiError, BAD_REQUEST);
+    }
+
+    @ExceptionHandler(LinkImportException.class)
+    public ResponseEntity<ApiError> handleLinkImport(
+            LinkImportException ex, HttpServletRequest request) {
+
+        log.warn("Link import failed: {}", ex.getMessage());
+
+        var apiError = new ApiError(
+                clock.instant(),
+                "/errors/import-failed",
+                "Import Failed",
+                BAD_REQUEST.value(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+
+        return new ResponseEntity<>(apiError, BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiError> handleInvalidCursor(
+            InvalidCursorException ex, HttpServletRequest request) {
+
+        log.warn("Invalid pagination cursor: {}", ex.getMessage());
+
+        var apiError = new ApiError(
+                clock.instant(),
+                "/errors/invalid-cursor",
+                "Invalid Cursor",
+                BAD_REQUEST.value(),
+                ex.getMessage(),
+                request.getRequestURI(),
+                null
+        );
+
+        return new ResponseEntity<>(apiError, BAD_REQUEST);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGenericExceptions(
             Exception ex, HttpServletRequest request) {
@@ -0,0 +1,8 @@
+package pl.bpiatek.linkshortenerlinkservice.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
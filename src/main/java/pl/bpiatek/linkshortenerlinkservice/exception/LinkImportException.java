@@ -0,0 +1,11 @@
+package pl.bpiatek.linkshortenerlinkservice.exception;
+
+public class LinkImportException extends RuntimeException {
+    public LinkImportException(String message) {
+        super(message);
+    }
+
+    public LinkImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
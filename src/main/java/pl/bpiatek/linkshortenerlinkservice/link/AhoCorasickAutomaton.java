@@ -0,0 +1,154 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+// Case-insensitive multi-pattern matcher. States are numbered breadth-first with the children
+// of a state stored next to each other, sorted by label, like ReservedWordsTrie.
+class AhoCorasickAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NO_MATCH = -1;
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] failure;
+    // Index of a pattern ending at the state or at one of its failure states, or NO_MATCH.
+    private final int[] match;
+    private final List<String> patterns;
+
+    private AhoCorasickAutomaton(char[] labels, int[] firstChild, int[] childCount, int[] failure, int[] match, List<String> patterns) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.failure = failure;
+        this.match = match;
+        this.patterns = patterns;
+    }
+
+    static AhoCorasickAutomaton compile(Collection<String> patterns) {
+        var root = new BuildNode();
+        var distinctPatterns = new ArrayList<String>();
+        for (var pattern : patterns) {
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            var node = root;
+            for (int i = 0; i < pattern.length(); i++) {
+                node = node.children.computeIfAbsent(Character.toLowerCase(pattern.charAt(i)), label -> new BuildNode());
+            }
+            if (node.pattern == NO_MATCH) {
+                node.pattern = distinctPatterns.size();
+                distinctPatterns.add(pattern);
+            }
+        }
+        return build(root, List.copyOf(distinctPatterns));
+    }
+
+    // Returns the first blocked pattern found in the input, in a single pass, or null.
+    String findFirst(CharSequence input) {
+        if (patterns.isEmpty() || input == null) {
+            return null;
+        }
+
+        var state = ROOT;
+        for (int i = 0; i < input.length(); i++) {
+            var label = Character.toLowerCase(input.charAt(i));
+            var next = child(state, label);
+            while (next < 0 && state != ROOT) {
+                state = failure[state];
+                next = child(state, label);
+            }
+            state = next < 0 ? ROOT : next;
+
+            if (match[state] != NO_MATCH) {
+                return patterns.get(match[state]);
+            }
+        }
+        return null;
+    }
+
+    int patternCount() {
+        return patterns.size();
+    }
+
+    long memoryBytes() {
+        var states = (long) labels.length;
+        return states * (Character.BYTES + 4L * Integer.BYTES)
+                + patterns.stream().mapToLong(pattern -> 2L * pattern.length()).sum();
+    }
+
+    private int child(int state, char label) {
+        var from = firstChild[state];
+        var index = Arrays.binarySearch(labels, from, from + childCount[state], label);
+        return index >= 0 ? index : -1;
+    }
+
+    private static AhoCorasickAutomaton build(BuildNode root, List<String> patterns) {
+        var stateCount = root.countNodes();
+        var labels = new char[stateCount];
+        var firstChild = new int[stateCount];
+        var childCount = new int[stateCount];
+        var failure = new int[stateCount];
+        var match = new int[stateCount];
+
+        var queue = new ArrayDeque<BuildNode>();
+        queue.add(root);
+        var state = 0;
+        var nextFree = 1;
+        while (!queue.isEmpty()) {
+            var node = queue.poll();
+            match[state] = node.pattern;
+            firstChild[state] = nextFree;
+            childCount[state] = node.children.size();
+            for (var child : node.children.entrySet()) {
+                labels[nextFree++] = child.getKey();
+                queue.add(child.getValue());
+            }
+            state++;
+        }
+
+        var automaton = new AhoCorasickAutomaton(labels, firstChild, childCount, failure, match, patterns);
+        // Breadth-first order guarantees the failure state of a parent is final before its children.
+        for (int parent = 0; parent < stateCount; parent++) {
+            for (int child = firstChild[parent]; child < firstChild[parent] + childCount[parent]; child++) {
+                if (parent == ROOT) {
+                    failure[child] = ROOT;
+                } else {
+                    var fallback = failure[parent];
+                    var next = automaton.child(fallback, labels[child]);
+                    while (next < 0 && fallback != ROOT) {
+                        fallback = failure[fallback];
+                        next = automaton.child(fallback, labels[child]);
+                    }
+                    failure[child] = next < 0 ? ROOT : next;
+                }
+
+                if (match[child] == NO_MATCH) {
+                    match[child] = match[failure[child]];
+                }
+            }
+        }
+        return automaton;
+    }
+
+    private static final class BuildNode {
+
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private int pattern = NO_MATCH;
+
+        private int countNodes() {
+            var count = 1;
+            for (var child : children.values()) {
+                count += child.countNodes();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final double falsePositiveRate;
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong setBits = new AtomicLong();
+
+    BloomFilter(long capacity, double falsePositiveRate) {
+        if (capacity < 1 || falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+            throw new IllegalArgumentException(
+                    "Invalid bloom filter parameters, capacity: " + capacity + ", false positive rate: " + falsePositiveRate);
+        }
+
+        var optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (optimalBits + 63) / 64)));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    // Kirsch-Mitzenmacher: the k probe positions are derived as hash1 + i * hash2.
+    boolean put(long hash1, long hash2) {
+        var changed = false;
+        var combined = hash1;
+        for (int i = 0; i < hashCount; i++) {
+            changed |= setBit(Long.remainderUnsigned(combined, bitCount));
+            combined += hash2;
+        }
+
+        if (changed) {
+            entries.incrementAndGet();
+        }
+        return changed;
+    }
+
+    boolean mightContain(long hash1, long hash2) {
+        var combined = hash1;
+        for (int i = 0; i < hashCount; i++) {
+            var bit = Long.remainderUnsigned(combined, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += hash2;
+        }
+        return true;
+    }
+
+    boolean isFull() {
+        return entries.get() >= capacity;
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    long entries() {
+        return entries.get();
+    }
+
+    long memoryBytes() {
+        return words.length() * (long) Long.BYTES;
+    }
+
+    double estimatedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    private boolean setBit(long bit) {
+        var index = (int) (bit >>> 6);
+        var mask = 1L << bit;
+        while (true) {
+            var word = words.get(index);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, word, word | mask)) {
+                setBits.incrementAndGet();
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import pl.bpiatek.linkshortenerlinkservice.exception.BlockedContentException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+class ContentBlocklist {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentBlocklist.class);
+
+    private final Path file;
+    private final Timer buildTimer;
+
+    private volatile AhoCorasickAutomaton automaton = AhoCorasickAutomaton.compile(List.of());
+    private FileTime lastModified;
+
+    ContentBlocklist(Path file, MeterRegistry meterRegistry) {
+        this.file = file;
+
+        Gauge.builder("link.blocklist.patterns", this, blocklist -> blocklist.automaton.patternCount())
+                .description("Number of blocked substrings in the content blocklist")
+                .register(meterRegistry);
+        Gauge.builder("link.blocklist.memory", this, blocklist -> blocklist.automaton.memoryBytes())
+                .description("Approximate memory used by the content blocklist automaton")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.buildTimer = Timer.builder("link.blocklist.build")
+                .description("Time taken to build the content blocklist automaton")
+                .register(meterRegistry);
+
+        reloadIfChanged();
+    }
+
+    void screen(String shortUrl, String longUrl) {
+        var current = automaton;
+        var blocked = current.findFirst(shortUrl);
+        if (blocked == null) {
+            blocked = current.findFirst(longUrl);
+        }
+
+        if (blocked != null) {
+            log.warn("Link creation blocked, matched blocklist entry: {}", blocked);
+            throw new BlockedContentException();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${link.blocklist.reload-interval-ms:60000}")
+    public synchronized void reloadIfChanged() {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            var modified = Files.getLastModifiedTime(file);
+            if (modified.equals(lastModified)) {
+                return;
+            }
+
+            var patterns = Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+            automaton = buildTimer.record(() -> AhoCorasickAutomaton.compile(patterns));
+            lastModified = modified;
+            log.info("Loaded {} blocklist entries from {}.", automaton.patternCount(), file);
+        } catch (IOException e) {
+            log.error("Failed to load content blocklist from {}, keeping the previous one", file, e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkImportException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// RFC 4180 reader driven by the header row. Records longer than MAX_RECORD_LENGTH are consumed
+// but not kept, so memory stays bounded whatever the input looks like.
+class CsvLinkImportReader implements LinkImportReader {
+
+    static final int MAX_RECORD_LENGTH = 16 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long physicalLine = 1;
+
+    private boolean headerRead;
+    private int longUrlColumn = -1;
+    private int shortUrlColumn = -1;
+    private int titleColumn = -1;
+    private int isActiveColumn = -1;
+    private int expiresAtColumn = -1;
+
+    CsvLinkImportReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+
+        Record record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.isBlank());
+
+        if (record.error() != null) {
+            return ImportRow.unreadable(record.line(), record.error());
+        }
+
+        var isActive = field(record.fields(), isActiveColumn);
+        if (isActive != null && !"true".equalsIgnoreCase(isActive) && !"false".equalsIgnoreCase(isActive)) {
+            return ImportRow.unreadable(record.line(), "isActive must be true or false.");
+        }
+
+        Instant expiresAt;
+        try {
+            expiresAt = ImportRow.parseExpiresAt(field(record.fields(), expiresAtColumn));
+        } catch (DateTimeParseException e) {
+            return ImportRow.unreadable(record.line(), ImportRow.INVALID_EXPIRES_AT);
+        }
+
+        return new ImportRow(
+                record.line(),
+                field(record.fields(), longUrlColumn),
+                field(record.fields(), shortUrlColumn),
+                field(record.fields(), titleColumn),
+                isActive == null ? null : Boolean.valueOf(isActive),
+                expiresAt,
+                null);
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        var header = readRecord();
+        if (header == null || header.error() != null) {
+            throw new LinkImportException("The CSV input must start with a header row.");
+        }
+
+        var columns = header.fields();
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT)) {
+                case "longurl" -> longUrlColumn = i;
+                case "shorturl" -> shortUrlColumn = i;
+                case "title" -> titleColumn = i;
+                case "isactive" -> isActiveColumn = i;
+                case "expiresat" -> expiresAtColumn = i;
+                default -> {
+                    // Unknown columns are ignored.
+                }
+            }
+        }
+
+        if (longUrlColumn < 0) {
+            throw new LinkImportException("The CSV header must contain a long_url column.");
+        }
+    }
+
+    private Record readRecord() throws IOException {
+        var line = physicalLine;
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var length = 0;
+        var quoted = false;
+        var sawAny = false;
+
+        int c;
+        while ((c = read()) != -1) {
+            sawAny = true;
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        length = append(field, '"', length);
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        physicalLine++;
+                    }
+                    length = append(field, (char) c, length);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                physicalLine++;
+                break;
+            } else {
+                length = append(field, (char) c, length);
+            }
+        }
+
+        if (!sawAny) {
+            return null;
+        }
+        if (quoted) {
+            return new Record(line, List.of(), "Unterminated quoted field.");
+        }
+        if (length > MAX_RECORD_LENGTH) {
+            return new Record(line, List.of(), "Row exceeds " + MAX_RECORD_LENGTH + " characters.");
+        }
+
+        fields.add(field.toString());
+        return new Record(line, fields, null);
+    }
+
+    private static int append(StringBuilder field, char c, int length) {
+        if (length < MAX_RECORD_LENGTH) {
+            field.append(c);
+        }
+        return length + 1;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    // CSV has no null, an empty field means the value was not given.
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() && !fields.get(column).isEmpty() ? fields.get(column) : null;
+    }
+
+    private record Record(long line, List<String> fields, String error) {
+
+        boolean isBlank() {
+            return error == null && fields.size() == 1 && fields.getFirst().isBlank();
+        }
+    }
+}
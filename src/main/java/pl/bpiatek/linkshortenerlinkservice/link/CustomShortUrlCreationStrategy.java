@@ -1,7 +1,7 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkResponse;
 import pl.bpiatek.linkshortenerlinkservice.exception.ShortCodeAlreadyExistsException;
 
@@ -18,18 +18,16 @@ class CustomShortUrlCreationStrategy implements LinkCreationStrategy {
     }
 
     @Override
+    @Transactional
     public CreateLinkResponse createLink(String userId, String longUrl, String shortUrl, boolean isActive, String title, ApplicationEventPublisher eventPublisher) {
         reservedWordsValidator.validate(shortUrl);
-        try {
-            var linkToSave = linkMapper.toLink(userId, longUrl, shortUrl, isActive, true, title);
-            var savedLink = linkRepository.save(linkToSave);
+        var linkToSave = linkMapper.toLink(userId, longUrl, shortUrl, isActive, true, title);
+        var savedLink = linkRepository.tryInsert(linkToSave)
+                .orElseThrow(() -> new ShortCodeAlreadyExistsException(shortUrl));
 
-            eventPublisher.publishEvent(new LinkCreatedApplicationEvent(savedLink));
+        eventPublisher.publishEvent(new LinkCreatedApplicationEvent(savedLink));
 
-            return linkMapper.toCreateLinkResponse(savedLink);
-        } catch (DataIntegrityViolationException e) {
-            throw new ShortCodeAlreadyExistsException(shortUrl);
-        }
+        return linkMapper.toCreateLinkResponse(savedLink);
     }
 
     @Override
@@ -0,0 +1,11 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+// What StripedEventDispatcher does with an event whose stripe queue is full.
+enum DispatchRejectionPolicy {
+    // Waits up to the offer timeout for space, then drops the event. Keeps per-link order.
+    BLOCK,
+    // Sends on the publishing thread, ahead of whatever is queued for the link.
+    CALLER_RUNS,
+    // Drops the event straight away.
+    DISCARD
+}
@@ -0,0 +1,144 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Deactivates or deletes links once their expires_at has passed. A periodic scan reaps whatever
+// is already due and loads the links expiring within the next wheel revolution into the
+// ExpiryWheel, which fires them close to the second instead of up to a scan interval late.
+class ExpiredLinkReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredLinkReaper.class);
+
+    private final LinkRepository linkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transaction;
+    private final Clock clock;
+    private final ExpiryWheel wheel;
+    private final LinkExpiryAction action;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Counter scanCounter;
+    private final Counter wheelCounter;
+
+    ExpiredLinkReaper(LinkRepository linkRepository,
+                      ApplicationEventPublisher eventPublisher,
+                      TransactionOperations transaction,
+                      Clock clock,
+                      MeterRegistry meterRegistry,
+                      ExpiryWheel wheel,
+                      LinkExpiryAction action,
+                      boolean enabled,
+                      int batchSize) {
+        this.linkRepository = linkRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = transaction;
+        this.clock = clock;
+        this.wheel = wheel;
+        this.action = action;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+
+        this.scanCounter = reapedCounter(meterRegistry, "scan");
+        this.wheelCounter = reapedCounter(meterRegistry, "wheel");
+        Gauge.builder("link.expiry.wheel.size", wheel, ExpiryWheel::size)
+                .description("Number of links waiting in the expiry wheel")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${link.expiry.scan-interval-ms:60000}")
+    void scan() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            var now = clock.instant();
+            var reaped = 0;
+            int batch;
+            do {
+                batch = reap(() -> linkRepository.expireDue(now, action, batchSize));
+                reaped += batch;
+            } while (batch == batchSize && !Thread.currentThread().isInterrupted());
+            scanCounter.increment(reaped);
+
+            var upcoming = linkRepository.findExpiringBetween(now, now.plus(wheel.span()), batchSize);
+            upcoming.forEach(link -> wheel.schedule(link.id(), link.expiresAt()));
+
+            if (reaped > 0) {
+                log.info("Expired {} links ({}), {} more scheduled in the expiry wheel.", reaped, action, wheel.size());
+            }
+        } catch (Exception e) {
+            log.error("Error occurred while reaping expired links", e);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${link.expiry.tick-ms:1000}")
+    void tick() {
+        if (!enabled) {
+            return;
+        }
+        var due = wheel.advance(clock.instant());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            var now = clock.instant();
+            for (int from = 0; from < due.size(); from += batchSize) {
+                var ids = due.subList(from, Math.min(from + batchSize, due.size()));
+                wheelCounter.increment(reap(() -> linkRepository.expireDueByIds(ids, now, action)));
+            }
+        } catch (Exception e) {
+            // Whatever was missed is due by now and picked up by the next scan.
+            log.error("Error occurred while reaping links from the expiry wheel", e);
+        }
+    }
+
+    // Links created with an expiry inside the current revolution would otherwise wait for a scan.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onLinkCreated(LinkCreatedApplicationEvent event) {
+        scheduleIfExpiring(event.link());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onLinksCreated(LinksCreatedApplicationEvent event) {
+        event.links().forEach(this::scheduleIfExpiring);
+    }
+
+    private void scheduleIfExpiring(Link link) {
+        if (enabled && link.id() != null && link.expiresAt() != null) {
+            wheel.schedule(link.id(), link.expiresAt());
+        }
+    }
+
+    // Events are published inside the batch's transaction, so they go out only once it has committed.
+    private int reap(Supplier<List<Link>> query) {
+        var reaped = transaction.execute(status -> {
+            var links = query.get();
+            links.forEach(link -> eventPublisher.publishEvent(switch (action) {
+                case DEACTIVATE -> new LinkUpdatedApplicationEvent(link);
+                case DELETE -> new LinkDeletedApplicationEvent(link);
+            }));
+            return links.size();
+        });
+        return reaped == null ? 0 : reaped;
+    }
+
+    private static Counter reapedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("link.expiry.reaped")
+                .description("Number of expired links deactivated or deleted")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
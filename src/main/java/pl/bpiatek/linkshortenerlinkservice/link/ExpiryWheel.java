@@ -0,0 +1,84 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Hashed timing wheel for links expiring within one revolution (tick * slots). Scheduling and
+// firing are O(1) per link; anything further out is left to the reaper's periodic scan, so no
+// entry ever needs a remaining-rounds counter. Driven by advance() rather than its own thread.
+class ExpiryWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final int maxSize;
+    private final List<Long>[] slots;
+    private final Set<Long> scheduled = new HashSet<>();
+    private final List<Long> overdue = new ArrayList<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(Duration tick, int slotCount, int maxSize, Instant start) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two, was " + slotCount);
+        }
+        this.tickMillis = tick.toMillis();
+        this.mask = slotCount - 1;
+        this.maxSize = maxSize;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.currentTick = Math.floorDiv(start.toEpochMilli(), tickMillis);
+    }
+
+    Duration span() {
+        return Duration.ofMillis(tickMillis * slots.length);
+    }
+
+    // False when the link is already scheduled, too far out, or the wheel is full.
+    synchronized boolean schedule(long linkId, Instant expiresAt) {
+        if (scheduled.size() >= maxSize || scheduled.contains(linkId)) {
+            return false;
+        }
+        // Rounded up, so a link never fires before it has actually expired.
+        var tick = Math.ceilDiv(expiresAt.toEpochMilli(), tickMillis);
+        if (tick - currentTick >= slots.length) {
+            return false;
+        }
+
+        scheduled.add(linkId);
+        if (tick <= currentTick) {
+            overdue.add(linkId);
+        } else {
+            slots[(int) (tick & mask)].add(linkId);
+        }
+        return true;
+    }
+
+    // Returns every link whose tick has passed by now. After a pause longer than a revolution
+    // the whole wheel is due, which is still correct since nothing is scheduled beyond it.
+    synchronized List<Long> advance(Instant now) {
+        var targetTick = Math.floorDiv(now.toEpochMilli(), tickMillis);
+        var due = new ArrayList<>(overdue);
+        overdue.clear();
+
+        var ticks = Math.min(targetTick - currentTick, slots.length);
+        for (long i = 1; i <= ticks; i++) {
+            var slot = slots[(int) ((currentTick + i) & mask)];
+            due.addAll(slot);
+            slot.clear();
+        }
+        currentTick = Math.max(currentTick, targetTick);
+
+        due.forEach(scheduled::remove);
+        return due;
+    }
+
+    synchronized int size() {
+        return scheduled.size();
+    }
+}
@@ -0,0 +1,57 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+class FeistelPermutation {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long domainSize;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys;
+
+    FeistelPermutation(long domainSize, long[] roundKeys) {
+        if (domainSize < 2) {
+            throw new IllegalArgumentException("Domain size must be at least 2, was: " + domainSize);
+        }
+        if (roundKeys.length < 3) {
+            throw new IllegalArgumentException("At least 3 Feistel rounds are required, was: " + roundKeys.length);
+        }
+
+        int bits = 64 - Long.numberOfLeadingZeros(domainSize - 1);
+        this.domainSize = domainSize;
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        this.roundKeys = roundKeys.clone();
+    }
+
+    long permute(long value) {
+        if (value < 0 || value >= domainSize) {
+            throw new IllegalArgumentException("Value " + value + " is outside of the domain [0, " + domainSize + ")");
+        }
+
+        // The network permutes [0, 2^(2 * halfBits)); cycle-walking keeps the result inside the domain.
+        var result = value;
+        do {
+            result = encrypt(result);
+        } while (result >= domainSize);
+        return result;
+    }
+
+    private long encrypt(long value) {
+        var left = value >>> halfBits;
+        var right = value & halfMask;
+        for (var roundKey : roundKeys) {
+            var nextRight = left ^ (round(right, roundKey) & halfMask);
+            left = right;
+            right = nextRight;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private static long round(long half, long roundKey) {
+        var z = (half ^ roundKey) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
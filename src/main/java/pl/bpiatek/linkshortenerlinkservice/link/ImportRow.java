@@ -0,0 +1,19 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+// A raw row as read from the import source; error is set when the row could not be parsed.
+record ImportRow(long line, String longUrl, String shortUrl, String title, Boolean isActive, Instant expiresAt, String error) {
+
+    static final String INVALID_EXPIRES_AT = "expiresAt must be an ISO-8601 instant.";
+
+    static ImportRow unreadable(long line, String error) {
+        return new ImportRow(line, null, null, null, null, null, error);
+    }
+
+    // Returns null for a missing value and throws DateTimeParseException for a malformed one.
+    static Instant parseExpiresAt(String value) {
+        return value == null || value.isBlank() ? null : Instant.parse(value.trim());
+    }
+}
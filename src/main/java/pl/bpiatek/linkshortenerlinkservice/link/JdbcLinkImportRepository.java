@@ -0,0 +1,243 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+class JdbcLinkImportRepository implements LinkImportRepository {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String COPY_SQL = """
+            COPY link_import_staging (line, short_url, long_url, url_hash, title, is_active, is_custom, expires_at)
+            FROM STDIN WITH (FORMAT csv)""";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DataSource dataSource;
+
+    JdbcLinkImportRepository(NamedParameterJdbcTemplate namedJdbcTemplate, DataSource dataSource) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    // Temporary and dropped on commit, so concurrent imports never see each other's rows.
+    @Override
+    public void createStagingTable() {
+        namedJdbcTemplate.getJdbcTemplate().execute("""
+                CREATE TEMP TABLE link_import_staging (
+                    line        BIGINT PRIMARY KEY,
+                    short_url   CITEXT NOT NULL,
+                    long_url    TEXT NOT NULL,
+                    url_hash    BIGINT NOT NULL,
+                    title       VARCHAR(255),
+                    is_active   BOOLEAN NOT NULL,
+                    is_custom   BOOLEAN NOT NULL,
+                    expires_at  TIMESTAMPTZ
+                ) ON COMMIT DROP""");
+    }
+
+    @Override
+    public StagingWriter openStagingWriter() {
+        var connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            var copyIn = new CopyManager(connection.unwrap(BaseConnection.class)).copyIn(COPY_SQL);
+            return new CopyStagingWriter(connection, copyIn);
+        } catch (SQLException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw translate(e);
+        }
+    }
+
+    // The earliest line wins each short url; inserted lines leave the staging table, so whatever
+    // is left afterwards lost a conflict, either inside the input or against an existing link.
+    // Links keep the expiry they had in the source, or none at all.
+    @Override
+    public long mergeStaged(String userId, Instant importedAt) {
+        var sql = """
+            WITH candidates AS (
+                SELECT DISTINCT ON (s.short_url) s.line, s.short_url, s.long_url, s.url_hash, s.title, s.is_active, s.is_custom, s.expires_at
+                FROM link_import_staging s
+                ORDER BY s.short_url, s.line
+            ), inserted AS (
+                INSERT INTO links (user_id, short_url, long_url, url_hash, title, is_active, is_custom, created_at, updated_at, expires_at)
+                SELECT CAST(:userId AS VARCHAR), c.short_url, c.long_url, c.url_hash, c.title, c.is_active, c.is_custom,
+                       CAST(:importedAt AS TIMESTAMPTZ), CAST(:importedAt AS TIMESTAMPTZ), c.expires_at
+                FROM candidates c
+                ORDER BY c.line
+                ON CONFLICT (short_url) DO NOTHING
+                RETURNING short_url
+            )
+            DELETE FROM link_import_staging s
+            USING candidates c, inserted i
+            WHERE s.line = c.line AND c.short_url = i.short_url
+            """;
+
+        var params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("importedAt", Timestamp.from(importedAt));
+        return namedJdbcTemplate.update(sql, params);
+    }
+
+    @Override
+    public List<Long> findStagedRandomLines() {
+        var sql = "SELECT line FROM link_import_staging WHERE is_custom = false ORDER BY line";
+        return namedJdbcTemplate.queryForList(sql, Map.of(), Long.class);
+    }
+
+    @Override
+    public void reassignShortUrls(Map<Long, String> shortUrlsByLine) {
+        var sql = "UPDATE link_import_staging SET short_url = :shortUrl WHERE line = :line";
+        var batch = shortUrlsByLine.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("line", entry.getKey())
+                        .addValue("shortUrl", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        namedJdbcTemplate.batchUpdate(sql, batch);
+    }
+
+    @Override
+    public List<StagedConflict> findStagedConflicts(int limit) {
+        var sql = "SELECT line, short_url, is_custom FROM link_import_staging ORDER BY line LIMIT :limit";
+        return namedJdbcTemplate.query(sql, Map.of("limit", limit), (rs, rowNum) ->
+                new StagedConflict(rs.getLong("line"), rs.getString("short_url"), rs.getBoolean("is_custom")));
+    }
+
+    @Override
+    public long countStaged() {
+        var count = namedJdbcTemplate.queryForObject("SELECT count(*) FROM link_import_staging", Map.of(), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // PostgreSQL honours the fetch size only with auto-commit off, so call this inside a transaction.
+    @Override
+    public void forEachImported(String userId, Instant importedAt, int fetchSize, Consumer<Link> action) {
+        namedJdbcTemplate.getJdbcTemplate().query(connection -> {
+            var statement = connection.prepareStatement("""
+                    SELECT l.id, l.user_id, l.short_url, l.long_url, l.title, l.notes, l.is_active, l.is_custom, l.created_at, l.updated_at, l.expires_at
+                    FROM links l
+                    WHERE l.user_id = ? AND l.created_at = ?
+                    ORDER BY l.id""", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setString(1, userId);
+            statement.setTimestamp(2, Timestamp.from(importedAt));
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(JdbcLinkRepository.LINK_ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    private RuntimeException translate(SQLException e) {
+        var translated = namedJdbcTemplate.getJdbcTemplate().getExceptionTranslator().translate("COPY", COPY_SQL, e);
+        return translated != null ? translated : new IllegalStateException(e);
+    }
+
+    private final class CopyStagingWriter implements StagingWriter {
+
+        private final Connection connection;
+        private final CopyIn copyIn;
+        private final StringBuilder row = new StringBuilder(256);
+        private final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        private int size;
+        private boolean finished;
+
+        private CopyStagingWriter(Connection connection, CopyIn copyIn) {
+            this.connection = connection;
+            this.copyIn = copyIn;
+        }
+
+        @Override
+        public void write(StagedLink link) {
+            row.setLength(0);
+            row.append(link.line()).append(',');
+            appendQuoted(link.shortUrl()).append(',');
+            appendQuoted(link.longUrl()).append(',');
+            row.append(link.urlHash()).append(',');
+            appendQuoted(link.title()).append(',');
+            row.append(link.isActive() ? 't' : 'f').append(',');
+            row.append(link.isCustom() ? 't' : 'f').append(',');
+            if (link.expiresAt() != null) {
+                row.append(link.expiresAt());
+            }
+            row.append('\n');
+
+            var bytes = row.toString().getBytes(UTF_8);
+            if (size + bytes.length > buffer.length) {
+                flush();
+            }
+            if (bytes.length > buffer.length) {
+                writeToCopy(bytes, bytes.length);
+            } else {
+                System.arraycopy(bytes, 0, buffer, size, bytes.length);
+                size += bytes.length;
+            }
+        }
+
+        @Override
+        public long finish() {
+            flush();
+            try {
+                finished = true;
+                return copyIn.endCopy();
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (!finished && copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException e) {
+                throw translate(e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        }
+
+        // In CSV format an unquoted empty field is NULL, a quoted one is an empty string.
+        private StringBuilder appendQuoted(String value) {
+            if (value == null) {
+                return row;
+            }
+            row.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                var c = value.charAt(i);
+                if (c == '"') {
+                    row.append('"');
+                }
+                row.append(c);
+            }
+            return row.append('"');
+        }
+
+        private void flush() {
+            if (size > 0) {
+                writeToCopy(buffer, size);
+                size = 0;
+            }
+        }
+
+        private void writeToCopy(byte[] bytes, int length) {
+            try {
+                copyIn.writeToCopy(bytes, 0, length);
+            } catch (SQLException e) {
+                throw translate(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.SqlArrayValue;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+class JdbcLinkOutboxRepository implements LinkOutboxRepository {
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    JdbcLinkOutboxRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @Override
+    public void saveAll(List<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        var sql = """
+            INSERT INTO link_outbox (message_key, payload, created_at)
+            VALUES (:key, :payload, :createdAt)
+            """;
+
+        var params = messages.stream()
+                .map(message -> new MapSqlParameterSource()
+                        .addValue("key", message.key())
+                        .addValue("payload", message.payload())
+                        .addValue("createdAt", Timestamp.from(message.createdAt())))
+                .toArray(SqlParameterSource[]::new);
+
+        namedJdbcTemplate.batchUpdate(sql, params);
+    }
+
+    // Expiry is measured on the database clock, so instances with skewed clocks still agree on it.
+    @Override
+    public boolean tryAcquireRelayLease(String relayId, Duration lease) {
+        var sql = """
+            INSERT INTO link_outbox_relay_lease (id, relay_id, expires_at)
+            VALUES (1, :relayId, clock_timestamp() + make_interval(secs => :seconds))
+            ON CONFLICT (id) DO UPDATE SET relay_id = EXCLUDED.relay_id, expires_at = EXCLUDED.expires_at
+            WHERE link_outbox_relay_lease.relay_id = EXCLUDED.relay_id OR link_outbox_relay_lease.expires_at <= clock_timestamp()
+            RETURNING relay_id
+            """;
+
+        var params = new MapSqlParameterSource()
+                .addValue("relayId", relayId)
+                .addValue("seconds", lease.toMillis() / 1000.0);
+
+        return !namedJdbcTemplate.queryForList(sql, params, String.class).isEmpty();
+    }
+
+    @Override
+    public List<OutboxMessage> findOldest(int limit) {
+        var sql = """
+            SELECT id, message_key, payload, created_at
+            FROM link_outbox
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+        var params = new MapSqlParameterSource()
+                .addValue("limit", limit);
+
+        return namedJdbcTemplate.query(sql, params, (rs, rowNum) -> new OutboxMessage(
+                rs.getLong("id"),
+                rs.getString("message_key"),
+                rs.getBytes("payload"),
+                rs.getTimestamp("created_at").toInstant()));
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        var sql = "DELETE FROM link_outbox WHERE id = ANY(:ids)";
+
+        var params = new MapSqlParameterSource()
+                .addValue("ids", new SqlArrayValue("bigint", ids.toArray()));
+
+        return namedJdbcTemplate.update(sql, params);
+    }
+}
@@ -1,57 +1,136 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.SqlArrayValue;
 
+import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
-import static java.time.temporal.ChronoUnit.DAYS;
+import java.util.function.Consumer;
 
 class JdbcLinkRepository implements LinkRepository {
 
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
     private final NamedParameterJdbcTemplate namedJdbcTemplate;
     private final SimpleJdbcInsert linkInsert;
     private final Clock clock;
+    private final LinkExpiryPolicy expiryPolicy;
 
-    JdbcLinkRepository(NamedParameterJdbcTemplate namedJdbcTemplate, Clock clock) {
+    JdbcLinkRepository(NamedParameterJdbcTemplate namedJdbcTemplate, Clock clock, LinkExpiryPolicy expiryPolicy) {
         this.namedJdbcTemplate = namedJdbcTemplate;
         this.linkInsert = new SimpleJdbcInsert(namedJdbcTemplate.getJdbcTemplate())
                 .withTableName("links")
                 .usingGeneratedKeyColumns("id");
         this.clock = clock;
+        this.expiryPolicy = expiryPolicy;
     }
 
     @Override
     public Link save(Link link) {
-        var now = clock.instant();
-        var createdAt = providedDateOr(link.createdAt(), now);
-
-        var params = new HashMap<String, Object>();
-        params.put("user_id", link.userId());
-        params.put("short_url", link.shortUrl());
-        params.put("long_url", link.longUrl());
-        params.put("title", link.title());
-        params.put("notes", link.notes());
-        params.put("is_active", link.isActive());
-        params.put("is_custom", link.isCustom());
-        params.put("created_at", createdAt);
-        params.put("updated_at", providedDateOr(link.updatedAt(), now));
-        params.put("expires_at", providedDateOr(link.expiresAt(), now.plus(7, DAYS)));
+        var params = toInsertParams(link);
 
         var key = linkInsert.executeAndReturnKey(params);
         long generatedId = key.longValue();
 
+        var createdAt = (Timestamp) params.get("created_at");
         return link.withIdAndCreatedAt(generatedId, createdAt.toInstant());
     }
 
+    @Override
+    public Optional<Link> tryInsert(Link link) {
+        var sql = """
+            INSERT INTO links (user_id, short_url, long_url, url_hash, title, notes, is_active, is_custom, created_at, updated_at, expires_at)
+            VALUES (:user_id, :short_url, :long_url, :url_hash, :title, :notes, :is_active, :is_custom, :created_at, :updated_at, :expires_at)
+            ON CONFLICT (short_url) DO NOTHING
+            RETURNING id, created_at
+            """;
+
+        var result = namedJdbcTemplate.query(sql, toInsertParams(link), (rs, rowNum) ->
+                link.withIdAndCreatedAt(rs.getLong("id"), rs.getTimestamp("created_at").toInstant()));
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
+    }
+
+    @Override
+    public Optional<Link> tryInsertFirstFree(Link link, List<String> candidateShortUrls) {
+        var sql = """
+            INSERT INTO links (user_id, short_url, long_url, url_hash, title, notes, is_active, is_custom, created_at, updated_at, expires_at)
+            SELECT CAST(:user_id AS VARCHAR), c.short_url, CAST(:long_url AS TEXT), CAST(:url_hash AS BIGINT),
+                   CAST(:title AS VARCHAR), CAST(:notes AS TEXT),
+                   CAST(:is_active AS BOOLEAN), CAST(:is_custom AS BOOLEAN),
+                   CAST(:created_at AS TIMESTAMPTZ), CAST(:updated_at AS TIMESTAMPTZ), CAST(:expires_at AS TIMESTAMPTZ)
+            FROM unnest(CAST(ARRAY[:candidates] AS citext[])) WITH ORDINALITY AS c(short_url, position)
+            WHERE NOT EXISTS (SELECT 1 FROM links l WHERE l.short_url = c.short_url)
+            ORDER BY c.position
+            LIMIT 1
+            ON CONFLICT (short_url) DO NOTHING
+            RETURNING id, short_url, created_at
+            """;
+
+        var params = new MapSqlParameterSource(toInsertParams(link))
+                .addValue("candidates", candidateShortUrls);
+
+        var result = namedJdbcTemplate.query(sql, params, (rs, rowNum) -> link
+                .withShortUrl(rs.getString("short_url"))
+                .withIdAndCreatedAt(rs.getLong("id"), rs.getTimestamp("created_at").toInstant()));
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
+    }
+
+    // Every column is bound as a single array, so a chunk is one statement with a fixed number of
+    // parameters; RETURNING reports exactly which rows went in, which batched INSERTs cannot do.
+    // Instants travel as ISO-8601 text, the driver would render Timestamp elements without an offset.
+    @Override
+    public List<Link> insertAllIgnoringConflicts(List<Link> links) {
+        var sql = """
+            INSERT INTO links (user_id, short_url, long_url, url_hash, title, is_active, is_custom, created_at, updated_at, expires_at)
+            SELECT r.user_id, r.short_url, r.long_url, r.url_hash, r.title, r.is_active, r.is_custom,
+                   CAST(:now AS TIMESTAMPTZ), CAST(:now AS TIMESTAMPTZ), r.expires_at
+            FROM unnest(CAST(:user_ids AS VARCHAR[]), CAST(:short_urls AS TEXT[]), CAST(:long_urls AS TEXT[]),
+                        CAST(:url_hashes AS BIGINT[]), CAST(:titles AS VARCHAR[]), CAST(:is_active AS BOOLEAN[]),
+                        CAST(:is_custom AS BOOLEAN[]), CAST(CAST(:expires_at AS TEXT[]) AS TIMESTAMPTZ[]))
+                 AS r(user_id, short_url, long_url, url_hash, title, is_active, is_custom, expires_at)
+            ON CONFLICT (short_url) DO NOTHING
+            RETURNING id, short_url, created_at
+            """;
+
+        var now = clock.instant();
+        var inserted = new ArrayList<Link>(links.size());
+        for (int from = 0; from < links.size(); from += INSERT_CHUNK_SIZE) {
+            var chunk = links.subList(from, Math.min(from + INSERT_CHUNK_SIZE, links.size()));
+            var byShortUrl = new HashMap<String, Link>();
+            chunk.forEach(link -> byShortUrl.put(link.shortUrl(), link));
+
+            var params = new MapSqlParameterSource()
+                    .addValue("now", Timestamp.from(now))
+                    .addValue("user_ids", new SqlArrayValue("varchar", chunk.stream().map(Link::userId).toArray()))
+                    .addValue("short_urls", new SqlArrayValue("text", chunk.stream().map(Link::shortUrl).toArray()))
+                    .addValue("long_urls", new SqlArrayValue("text", chunk.stream().map(Link::longUrl).toArray()))
+                    .addValue("url_hashes", new SqlArrayValue("int8", chunk.stream().map(link -> urlHashOf(link.longUrl())).toArray()))
+                    .addValue("titles", new SqlArrayValue("varchar", chunk.stream().map(Link::title).toArray()))
+                    .addValue("is_active", new SqlArrayValue("bool", chunk.stream().map(Link::isActive).toArray()))
+                    .addValue("is_custom", new SqlArrayValue("bool", chunk.stream().map(Link::isCustom).toArray()))
+                    .addValue("expires_at", new SqlArrayValue("text",
+                            chunk.stream().map(link -> providedInstantOr(link.expiresAt(), expiryPolicy.expiresAt(now)))
+                                    .map(expiresAt -> expiresAt == null ? null : expiresAt.toString())
+                                    .toArray()));
+
+            inserted.addAll(namedJdbcTemplate.query(sql, params, (rs, rowNum) -> byShortUrl.get(rs.getString("short_url"))
+                    .withIdAndCreatedAt(rs.getLong("id"), rs.getTimestamp("created_at").toInstant())));
+        }
+        return inserted;
+    }
+
     @Override
     public Optional<Link> findByShortUrl(String shortUrl) {
         var sql = """
@@ -73,11 +152,89 @@ class JdbcLinkRepository implements LinkRepository {
         return namedJdbcTemplate.query(sql, Map.of("userId", userId), LINK_ROW_MAPPER);
     }
 
+    // Seeks past the cursor instead of using OFFSET, so every page is a range scan of
+    // idx_links_on_user_id_and_created_at_and_id and costs the same at any depth.
+    @Override
+    public List<LinkSummary> findPage(LinkListQuery query) {
+        var sql = new StringBuilder("""
+                SELECT l.id, l.short_url, l.long_url, l.title, l.is_active, l.is_custom, l.created_at, l.expires_at
+                FROM links l
+                WHERE l.user_id = :userId""");
+        var params = new MapSqlParameterSource("userId", query.userId());
+
+        if (query.isActive() != null) {
+            sql.append(" AND l.is_active = :isActive");
+            params.addValue("isActive", query.isActive());
+        }
+        if (query.isCustom() != null) {
+            sql.append(" AND l.is_custom = :isCustom");
+            params.addValue("isCustom", query.isCustom());
+        }
+        if (query.createdFrom() != null) {
+            sql.append(" AND l.created_at >= :createdFrom");
+            params.addValue("createdFrom", Timestamp.from(query.createdFrom()));
+        }
+        if (query.createdTo() != null) {
+            sql.append(" AND l.created_at < :createdTo");
+            params.addValue("createdTo", Timestamp.from(query.createdTo()));
+        }
+        if (query.after() != null) {
+            sql.append(" AND (l.created_at, l.id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", Timestamp.from(query.after().createdAt()));
+            params.addValue("afterId", query.after().id());
+        }
+        sql.append(" ORDER BY l.created_at DESC, l.id DESC LIMIT :limit");
+        params.addValue("limit", query.limit());
+
+        return namedJdbcTemplate.query(sql.toString(), params, LINK_SUMMARY_ROW_MAPPER);
+    }
+
+    // Streams through a server-side cursor, which PostgreSQL only opens with auto-commit off,
+    // so call this inside a transaction.
+    @Override
+    public void forEachByUserId(String userId, int fetchSize, Consumer<Link> action) {
+        namedJdbcTemplate.getJdbcTemplate().query(connection -> {
+            var statement = connection.prepareStatement("""
+                    SELECT l.id, l.user_id, l.short_url, l.long_url, l.title, l.notes, l.is_active, l.is_custom, l.created_at, l.updated_at, l.expires_at
+                    FROM links l
+                    WHERE l.user_id = ?
+                    ORDER BY l.created_at, l.id""", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setString(1, userId);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(LINK_ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    // Comparing long_url as well keeps a 64-bit hash collision from returning someone else's destination.
+    @Override
+    public Optional<Link> findActiveByUserIdAndLongUrl(String userId, String longUrl) {
+        var sql = """
+                SELECT l.id, l.user_id, l.short_url, l.long_url, l.title, l.notes, l.is_active, l.is_custom, l.created_at, l.updated_at, l.expires_at
+                FROM links l
+                WHERE l.user_id = :userId
+                  AND l.url_hash = :urlHash
+                  AND l.long_url = :longUrl
+                  AND l.is_active = true
+                  AND l.is_custom = false
+                  AND (l.expires_at IS NULL OR l.expires_at > :now)
+                ORDER BY l.id
+                LIMIT 1""";
+
+        var params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("urlHash", urlHashOf(longUrl))
+                .addValue("longUrl", longUrl)
+                .addValue("now", Timestamp.from(clock.instant()));
+        var result = namedJdbcTemplate.query(sql, params, LINK_ROW_MAPPER);
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
+    }
+
     @Override
     public void update(Link link) {
         var sql = """
             UPDATE links
             SET long_url = :longUrl,
+                url_hash = :urlHash,
                 title = :title,
                 is_active = :isActive,
                 updated_at = :updatedAt
@@ -87,6 +244,7 @@ class JdbcLinkRepository implements LinkRepository {
         var params = new MapSqlParameterSource()
                 .addValue("id", link.id())
                 .addValue("longUrl", link.longUrl())
+                .addValue("urlHash", urlHashOf(link.longUrl()))
                 .addValue("title", link.title())
                 .addValue("isActive", link.isActive())
                 .addValue("updatedAt", Timestamp.from(clock.instant()));
@@ -112,19 +270,128 @@ class JdbcLinkRepository implements LinkRepository {
         namedJdbcTemplate.update(sql, Map.of("id", id, "userId", userId));
     }
 
+    // One bounded batch, oldest first; SKIP LOCKED lets a concurrent sweep or a user's own edit
+    // proceed instead of queueing behind it. Served by the partial index from V9.
     @Override
-    public int deleteDeactivatedCustomLinksOlderThan(Instant cutoffDate) {
+    public List<Link> deleteDeactivatedCustomLinksOlderThan(Instant cutoffDate, int limit) {
         var sql = """
             DELETE FROM links
-            WHERE is_custom = true
-              AND is_active = false
-              AND updated_at < :cutoffDate
+            WHERE id IN (
+                SELECT id FROM links
+                WHERE is_custom = true
+                  AND is_active = false
+                  AND updated_at < :cutoffDate
+                ORDER BY updated_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, user_id, short_url, long_url, title, notes, is_active, is_custom, created_at, updated_at, expires_at
             """;
-        
+
+        var params = new MapSqlParameterSource()
+                .addValue("cutoffDate", Timestamp.from(cutoffDate))
+                .addValue("limit", limit);
+
+        return namedJdbcTemplate.query(sql, params, LINK_ROW_MAPPER);
+    }
+
+    // Oldest first in bounded batches; SKIP LOCKED lets several instances reap side by side.
+    @Override
+    public List<Link> expireDue(Instant now, LinkExpiryAction action, int limit) {
         var params = new MapSqlParameterSource()
-                .addValue("cutoffDate", Timestamp.from(cutoffDate));
-        
-        return namedJdbcTemplate.update(sql, params);
+                .addValue("now", Timestamp.from(now))
+                .addValue("limit", limit);
+        return namedJdbcTemplate.query(expireSql(action, false), params, LINK_ROW_MAPPER);
+    }
+
+    // expires_at is checked again, the links were picked some time before they fell due.
+    @Override
+    public List<Link> expireDueByIds(Collection<Long> ids, Instant now, LinkExpiryAction action) {
+        var params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.from(now))
+                .addValue("ids", new SqlArrayValue("bigint", ids.toArray()))
+                .addValue("limit", ids.size());
+        return namedJdbcTemplate.query(expireSql(action, true), params, LINK_ROW_MAPPER);
+    }
+
+    @Override
+    public List<ExpiringLink> findExpiringBetween(Instant from, Instant to, int limit) {
+        var sql = """
+            SELECT id, expires_at
+            FROM links
+            WHERE expires_at > :from AND expires_at <= :to
+            ORDER BY expires_at
+            LIMIT :limit
+            """;
+
+        var params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to))
+                .addValue("limit", limit);
+        return namedJdbcTemplate.query(sql, params, (rs, rowNum) ->
+                new ExpiringLink(rs.getLong("id"), rs.getTimestamp("expires_at").toInstant()));
+    }
+
+    private static String expireSql(LinkExpiryAction action, boolean byIds) {
+        var due = """
+                SELECT id FROM links
+                WHERE expires_at <= :now%s%s
+                ORDER BY expires_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED""".formatted(
+                action == LinkExpiryAction.DEACTIVATE ? " AND is_active" : "",
+                byIds ? " AND id = ANY(:ids)" : "");
+        var returning = "RETURNING id, user_id, short_url, long_url, title, notes, is_active, is_custom, created_at, updated_at, expires_at";
+
+        return switch (action) {
+            case DELETE -> "DELETE FROM links WHERE id IN (" + due + ")\n" + returning;
+            case DEACTIVATE -> "UPDATE links SET is_active = false, updated_at = :now WHERE id IN (" + due + ")\n" + returning;
+        };
+    }
+
+    // PostgreSQL honours the fetch size only with auto-commit off, so call this inside a transaction.
+    @Override
+    public void forEachShortUrl(int fetchSize, Consumer<String> action) {
+        namedJdbcTemplate.getJdbcTemplate().query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT short_url FROM links", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(rs.getString("short_url")));
+    }
+
+    @Override
+    public long estimateCount() {
+        var sql = "SELECT GREATEST(reltuples, 0)::BIGINT FROM pg_class WHERE oid = 'links'::regclass";
+        var result = namedJdbcTemplate.queryForObject(sql, Map.of(), Long.class);
+        return result == null ? 0 : result;
+    }
+
+    private Map<String, Object> toInsertParams(Link link) {
+        var now = clock.instant();
+
+        var params = new HashMap<String, Object>();
+        params.put("user_id", link.userId());
+        params.put("short_url", link.shortUrl());
+        params.put("long_url", link.longUrl());
+        params.put("url_hash", urlHashOf(link.longUrl()));
+        params.put("title", link.title());
+        params.put("notes", link.notes());
+        params.put("is_active", link.isActive());
+        params.put("is_custom", link.isCustom());
+        params.put("created_at", providedDateOr(link.createdAt(), now));
+        params.put("updated_at", providedDateOr(link.updatedAt(), now));
+        var expiresAt = providedInstantOr(link.expiresAt(), expiryPolicy.expiresAt(now));
+        params.put("expires_at", expiresAt == null ? null : Timestamp.from(expiresAt));
+        return params;
+    }
+
+    private static Long urlHashOf(String longUrl) {
+        return longUrl == null ? null : Xxh64.hash(longUrl);
+    }
+
+    private static Instant providedInstantOr(Instant provided, Instant or) {
+        return provided != null ? provided : or;
     }
 
     private Timestamp providedDateOr(Instant provided, Instant or) {
@@ -133,7 +400,18 @@ class JdbcLinkRepository implements LinkRepository {
                 : Timestamp.from(or);
     }
 
-    private static final RowMapper<Link> LINK_ROW_MAPPER = (rs, rowNum) -> new Link(
+    private static final RowMapper<LinkSummary> LINK_SUMMARY_ROW_MAPPER = (rs, rowNum) -> new LinkSummary(
+            rs.getLong("id"),
+            rs.getString("short_url"),
+            rs.getString("long_url"),
+            rs.getString("title"),
+            rs.getBoolean("is_active"),
+            rs.getBoolean("is_custom"),
+            rs.getTimestamp("created_at").toInstant(),
+            Optional.ofNullable(rs.getTimestamp("expires_at")).map(Timestamp::toInstant).orElse(null)
+    );
+
+    static final RowMapper<Link> LINK_ROW_MAPPER = (rs, rowNum) -> new Link(
             rs.getLong("id"),
             rs.getString("user_id"),
             rs.getString("short_url"),
@@ -0,0 +1,49 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+class JdbcShortUrlClaimRepository implements ShortUrlClaimRepository {
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    JdbcShortUrlClaimRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @Override
+    public List<String> claim(List<String> candidates, Instant claimedAt) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        var sql = """
+            INSERT INTO short_url_claims (short_url, claimed_at)
+            SELECT DISTINCT candidate, :claimedAt
+            FROM unnest(CAST(ARRAY[:candidates] AS citext[])) AS candidate
+            WHERE NOT EXISTS (SELECT 1 FROM links l WHERE l.short_url = candidate)
+            ON CONFLICT (short_url) DO NOTHING
+            RETURNING short_url
+            """;
+
+        var params = new MapSqlParameterSource()
+                .addValue("candidates", candidates)
+                .addValue("claimedAt", Timestamp.from(claimedAt));
+
+        return namedJdbcTemplate.queryForList(sql, params, String.class);
+    }
+
+    @Override
+    public int deleteClaimedBefore(Instant cutoffDate) {
+        var sql = "DELETE FROM short_url_claims WHERE claimed_at < :cutoffDate";
+
+        var params = new MapSqlParameterSource()
+                .addValue("cutoffDate", Timestamp.from(cutoffDate));
+
+        return namedJdbcTemplate.update(sql, params);
+    }
+}
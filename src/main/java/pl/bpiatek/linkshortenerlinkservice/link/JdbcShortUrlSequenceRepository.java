@@ -0,0 +1,21 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+class JdbcShortUrlSequenceRepository implements ShortUrlSequenceRepository {
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    JdbcShortUrlSequenceRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @Override
+    public List<Long> nextValues(int count) {
+        var sql = "SELECT nextval('short_url_seq') FROM generate_series(1, :count)";
+        return namedJdbcTemplate.queryForList(sql, Map.of("count", count), Long.class);
+    }
+}
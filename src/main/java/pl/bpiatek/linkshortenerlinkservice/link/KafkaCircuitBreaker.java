@@ -0,0 +1,83 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+// Opens after failureThreshold sends fail in a row and keeps lifecycle events away from Kafka for
+// openDuration. After that a single caller is let through as a probe: its success closes the
+// breaker again, its failure reopens it for another openDuration.
+class KafkaCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaCircuitBreaker.class);
+
+    enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probing;
+
+    KafkaCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock, MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+
+        Gauge.builder("kafka.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("State of the Kafka circuit breaker: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (probing) {
+                    yield false;
+                }
+                probing = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Kafka is reachable again, closing the circuit breaker.");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Opening the Kafka circuit breaker for {} after {} failed sends.", openDuration, consecutiveFailures);
+            state = State.OPEN;
+            openedAt = clock.instant();
+            probing = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
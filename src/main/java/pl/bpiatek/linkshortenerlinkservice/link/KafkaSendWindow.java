@@ -0,0 +1,71 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.exception.KafkaEventSendingException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Bounds how many lifecycle events are sent but not yet acknowledged. Callers get the send's future
+// back instead of waiting on it, so the producer can batch records; once the window is full a new
+// send waits for a permit, and gives up after permitTimeout rather than queueing without limit.
+class KafkaSendWindow {
+
+    private final KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+    private final Duration permitTimeout;
+
+    KafkaSendWindow(KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate,
+                    MeterRegistry meterRegistry,
+                    int maxInFlight,
+                    Duration permitTimeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxInFlight);
+        this.permitTimeout = permitTimeout;
+
+        Gauge.builder("kafka.producer.in.flight", permits, available -> maxInFlight - available.availablePermits())
+                .description("Number of lifecycle events sent but not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    CompletableFuture<SendResult<String, LinkLifecycleEvent>> send(ProducerRecord<String, LinkLifecycleEvent> producerRecord,
+                                                                   String eventType) {
+        try {
+            if (!permits.tryAcquire(permitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new KafkaEventSendingException(
+                        "No send permit for " + eventType + " event within " + permitTimeout + "."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new KafkaEventSendingException("Interrupted while sending " + eventType + " event."));
+        }
+
+        var startedAt = System.nanoTime();
+        CompletableFuture<SendResult<String, LinkLifecycleEvent>> send;
+        try {
+            send = kafkaTemplate.send(producerRecord);
+        } catch (RuntimeException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return send.whenComplete((result, failure) -> {
+            permits.release();
+            Timer.builder("kafka.producer.send.latency")
+                    .description("Time from handing a lifecycle event to the producer until it is acknowledged")
+                    .tag("event", eventType)
+                    .tag("outcome", failure == null ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        });
+    }
+}
@@ -0,0 +1,285 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Append-only store on local disk for lifecycle events that could not go to Kafka. Events live in
+// memory-mapped segment files of a fixed size, each starting with its write and read positions,
+// so a restarted instance replays exactly what it had not replayed yet. Writes reach the page
+// cache straight away and survive the process dying; they are flushed to the device on close.
+// The directory is locked while the spool is open, so two instances never share one.
+class LifecycleEventSpool implements AutoCloseable {
+
+    private static final String SUFFIX = ".spool";
+    private static final String LOCK_FILE = "spool.lock";
+    private static final int WRITE_POSITION = 0;
+    private static final int READ_POSITION = Integer.BYTES;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    // Length, spooled-at millis and key length come before the key and payload of every entry.
+    private static final int ENTRY_OVERHEAD = Integer.BYTES + Long.BYTES + Short.BYTES;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Clock clock;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final FileLock lock;
+    private long size;
+    private long nextSequence;
+
+    LifecycleEventSpool(Path directory, int segmentBytes, int maxSegments, Clock clock, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.clock = clock;
+
+        try {
+            Files.createDirectories(directory);
+            this.lock = lock(directory);
+            try (var files = Files.list(directory)) {
+                for (var path : files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                    var segment = Segment.open(path);
+                    segments.addLast(segment);
+                    size += segment.countPending();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the lifecycle event spool in " + directory, e);
+        }
+        this.nextSequence = segments.isEmpty() ? 0 : segments.getLast().sequence + 1;
+
+        Gauge.builder("link.events.spool.size", this, LifecycleEventSpool::size)
+                .description("Number of lifecycle events waiting in the local spool")
+                .register(meterRegistry);
+        TimeGauge.builder("link.events.spool.oldest.age", this, TimeUnit.MILLISECONDS, LifecycleEventSpool::oldestAgeMillis)
+                .description("Age of the oldest lifecycle event waiting in the local spool")
+                .register(meterRegistry);
+    }
+
+    // False when the event does not fit in the remaining spool space.
+    synchronized boolean append(String key, byte[] payload) {
+        var keyBytes = key.getBytes(UTF_8);
+        var entryBytes = ENTRY_OVERHEAD + keyBytes.length + payload.length;
+        if (entryBytes > segmentBytes - HEADER_BYTES) {
+            return false;
+        }
+
+        var segment = segments.peekLast();
+        if (segment == null || !segment.fits(entryBytes)) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            segment = createSegment();
+            segments.addLast(segment);
+        }
+        segment.append(clock.millis(), keyBytes, payload);
+        size++;
+        return true;
+    }
+
+    // The oldest events in the order they were appended, without removing them.
+    synchronized List<SpooledEvent> peek(int max) {
+        var events = new ArrayList<SpooledEvent>(Math.min(max, (int) Math.min(size, Integer.MAX_VALUE)));
+        for (var segment : segments) {
+            var position = segment.readPosition();
+            while (position < segment.writePosition() && events.size() < max) {
+                var event = segment.read(position);
+                events.add(event);
+                position = event.next();
+            }
+            if (events.size() == max) {
+                break;
+            }
+        }
+        return events;
+    }
+
+    // Removes a replayed prefix of what peek returned; segments with nothing left to replay are deleted.
+    synchronized void commit(List<SpooledEvent> replayed) {
+        if (replayed.isEmpty()) {
+            return;
+        }
+        var last = replayed.getLast();
+        while (!segments.isEmpty() && segments.getFirst().sequence < last.segment()) {
+            segments.removeFirst().delete();
+        }
+        var current = segments.peekFirst();
+        if (current != null && current.sequence == last.segment()) {
+            current.setReadPosition(last.next());
+            if (current.readPosition() == current.writePosition()) {
+                segments.removeFirst().delete();
+            }
+        }
+        size -= replayed.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized long oldestAgeMillis() {
+        for (var segment : segments) {
+            if (segment.readPosition() < segment.writePosition()) {
+                return Math.max(0, clock.millis() - segment.read(segment.readPosition()).spooledAt().toEpochMilli());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (var segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        lock.channel().close();
+    }
+
+    private static FileLock lock(Path directory) throws IOException {
+        var channel = FileChannel.open(directory.resolve(LOCK_FILE), CREATE, WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("The lifecycle event spool in " + directory + " is already in use");
+        }
+        return lock;
+    }
+
+    private Segment createSegment() {
+        var sequence = nextSequence++;
+        try {
+            return Segment.create(directory.resolve("%020d%s".formatted(sequence, SUFFIX)), sequence, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a lifecycle event spool segment in " + directory, e);
+        }
+    }
+
+    // segment and next locate the entry that follows, so a replayed prefix can be committed.
+    record SpooledEvent(String key, byte[] payload, Instant spooledAt, long segment, int next) {
+    }
+
+    private static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long sequence, int bytes) throws IOException {
+            var channel = FileChannel.open(path, CREATE_NEW, READ, WRITE);
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.putInt(READ_POSITION, HEADER_BYTES);
+            buffer.putInt(WRITE_POSITION, HEADER_BYTES);
+            return new Segment(sequence, path, channel, buffer);
+        }
+
+        static Segment open(Path path) throws IOException {
+            var fileName = path.getFileName().toString();
+            var sequence = Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+            var channel = FileChannel.open(path, READ, WRITE);
+            return new Segment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        int writePosition() {
+            return buffer.getInt(WRITE_POSITION);
+        }
+
+        int readPosition() {
+            return buffer.getInt(READ_POSITION);
+        }
+
+        void setReadPosition(int position) {
+            buffer.putInt(READ_POSITION, position);
+        }
+
+        boolean fits(int entryBytes) {
+            return writePosition() + entryBytes <= buffer.capacity();
+        }
+
+        void append(long spooledAt, byte[] key, byte[] payload) {
+            var position = writePosition();
+            var entryBytes = ENTRY_OVERHEAD + key.length + payload.length;
+            buffer.slice(position, entryBytes)
+                    .putInt(entryBytes - Integer.BYTES)
+                    .putLong(spooledAt)
+                    .putShort((short) key.length)
+                    .put(key)
+                    .put(payload);
+            // Moved only once the entry is complete, so a crash halfway through leaves it unseen.
+            buffer.putInt(WRITE_POSITION, position + entryBytes);
+        }
+
+        SpooledEvent read(int position) {
+            var length = buffer.getInt(position);
+            var spooledAt = buffer.getLong(position + Integer.BYTES);
+            var keyLength = buffer.getShort(position + Integer.BYTES + Long.BYTES);
+            var key = new byte[keyLength];
+            var payload = new byte[length - Long.BYTES - Short.BYTES - keyLength];
+            buffer.get(position + ENTRY_OVERHEAD, key);
+            buffer.get(position + ENTRY_OVERHEAD + keyLength, payload);
+            return new SpooledEvent(new String(key, UTF_8), payload, Instant.ofEpochMilli(spooledAt), sequence,
+                    position + Integer.BYTES + length);
+        }
+
+        long countPending() {
+            var pending = 0L;
+            for (var position = readPosition(); position < writePosition(); position += Integer.BYTES + buffer.getInt(position)) {
+                pending++;
+            }
+            return pending;
+        }
+
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+
+        void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete lifecycle event spool segment " + path, e);
+            }
+        }
+    }
+}
@@ -22,6 +22,13 @@ record Link(
         );
     }
 
+    Link withShortUrl(String shortUrl) {
+        return new Link(
+                this.id, this.userId, shortUrl, this.longUrl, this.title,
+                this.notes, this.isActive, this.isCustom, this.createdAt, this.updatedAt, this.expiresAt
+        );
+    }
+
     Link(String userId, String shortUrl, String longUrl, boolean isActive, boolean isCustom, String title) {
         this(null, userId, shortUrl, longUrl, title, null, isActive, isCustom, null, null, null);
     }
@@ -0,0 +1,225 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkBatchItemResult;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinksBatchResponse;
+import pl.bpiatek.linkshortenerlinkservice.exception.BlockedContentException;
+import pl.bpiatek.linkshortenerlinkservice.exception.ReservedShortUrlException;
+import pl.bpiatek.linkshortenerlinkservice.exception.ShortCodeAlreadyExistsException;
+import pl.bpiatek.linkshortenerlinkservice.exception.UnableToGenerateUniqueShortUrlException;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class LinkBatchCreator {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkBatchCreator.class);
+    private static final int MAX_FILTER_SKIPS = 10;
+
+    private final Validator validator;
+    private final UrlScanner urlScanner;
+    private final ContentBlocklist contentBlocklist;
+    private final ReservedWordsValidator reservedWordsValidator;
+    private final LinkRepository linkRepository;
+    private final LinkMapper linkMapper;
+    private final LinkDeduplicator linkDeduplicator;
+    private final ShortUrlGenerator shortUrlGenerator;
+    private final ShortUrlFilter shortUrlFilter;
+    private final ShortUrlCollisionTracker collisionTracker;
+    private final TransactionOperations transaction;
+    private final int maxGenerationAttempts;
+
+    LinkBatchCreator(Validator validator,
+                     UrlScanner urlScanner,
+                     ContentBlocklist contentBlocklist,
+                     ReservedWordsValidator reservedWordsValidator,
+                     LinkRepository linkRepository,
+                     LinkMapper linkMapper,
+                     LinkDeduplicator linkDeduplicator,
+                     ShortUrlGenerator shortUrlGenerator,
+                     ShortUrlFilter shortUrlFilter,
+                     ShortUrlCollisionTracker collisionTracker,
+                     TransactionOperations transaction,
+                     int maxGenerationAttempts) {
+        this.validator = validator;
+        this.urlScanner = urlScanner;
+        this.contentBlocklist = contentBlocklist;
+        this.reservedWordsValidator = reservedWordsValidator;
+        this.linkRepository = linkRepository;
+        this.linkMapper = linkMapper;
+        this.linkDeduplicator = linkDeduplicator;
+        this.shortUrlGenerator = shortUrlGenerator;
+        this.shortUrlFilter = shortUrlFilter;
+        this.collisionTracker = collisionTracker;
+        this.transaction = transaction;
+        this.maxGenerationAttempts = maxGenerationAttempts;
+    }
+
+    CreateLinksBatchResponse create(String userId, List<CreateLinkRequest> requests, ApplicationEventPublisher eventPublisher) {
+        // Validation and screening are CPU bound, so they run in parallel before a connection is taken.
+        var validated = IntStream.range(0, requests.size()).parallel()
+                .mapToObj(index -> validate(index, userId, requests.get(index)))
+                .toList();
+
+        var results = new CreateLinkBatchItemResult[requests.size()];
+        var accepted = new ArrayList<BatchItem>();
+        for (var item : validated) {
+            if (item.error() != null) {
+                results[item.index()] = CreateLinkBatchItemResult.failed(item.index(), item.error());
+            } else {
+                accepted.add(item);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            transaction.executeWithoutResult(status -> insert(accepted, results, eventPublisher));
+        }
+
+        var response = CreateLinksBatchResponse.of(Arrays.asList(results));
+        log.info("Created {} of {} links in batch for user: {}", response.created(), requests.size(), userId);
+        return response;
+    }
+
+    private BatchItem validate(int index, String userId, CreateLinkRequest request) {
+        if (request == null) {
+            return BatchItem.failed(index, "The link cannot be null.");
+        }
+
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return BatchItem.failed(index, violations.stream()
+                    .map(LinkBatchCreator::describe)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        try {
+            var longUrl = urlScanner.canonicalize(request.longUrl());
+            var isCustom = request.shortUrl() != null && !request.shortUrl().isBlank();
+            contentBlocklist.screen(request.shortUrl(), longUrl);
+            if (isCustom) {
+                reservedWordsValidator.validate(request.shortUrl());
+            }
+
+            var link = linkMapper.toLink(userId, longUrl, isCustom ? request.shortUrl() : null, request.isActive(), isCustom, request.title());
+            return new BatchItem(index, link, request.deduplicate(), null);
+        } catch (BlockedContentException | ReservedShortUrlException e) {
+            return BatchItem.failed(index, e.getMessage());
+        }
+    }
+
+    // One multi-row INSERT per round; custom codes that conflict fail, random ones get a fresh code
+    // and go into the next round.
+    private void insert(List<BatchItem> accepted, CreateLinkBatchItemResult[] results, ApplicationEventPublisher eventPublisher) {
+        var takenInBatch = new HashSet<String>();
+        var pending = new ArrayList<BatchItem>();
+        for (var item : accepted) {
+            if (item.link().isCustom() && !takenInBatch.add(normalized(item.link().shortUrl()))) {
+                results[item.index()] = alreadyExists(item);
+            } else if (item.link().isCustom() || !answeredWithExistingLink(item, results)) {
+                pending.add(item);
+            }
+        }
+        pending.replaceAll(item -> item.link().isCustom() ? item : item.withShortUrl(nextFreeShortUrl(takenInBatch)));
+
+        var created = new ArrayList<Link>();
+        for (int attempt = 0; attempt < maxGenerationAttempts && !pending.isEmpty(); attempt++) {
+            var inserted = linkRepository.insertAllIgnoringConflicts(pending.stream().map(BatchItem::link).toList()).stream()
+                    .collect(Collectors.toMap(Link::shortUrl, Function.identity()));
+
+            var retry = new ArrayList<BatchItem>();
+            var randomCandidates = 0;
+            for (var item : pending) {
+                var link = inserted.get(item.link().shortUrl());
+                randomCandidates += item.link().isCustom() ? 0 : 1;
+                if (link != null) {
+                    created.add(link);
+                    results[item.index()] = CreateLinkBatchItemResult.created(item.index(), linkMapper.toCreateLinkResponse(link));
+                } else if (item.link().isCustom()) {
+                    results[item.index()] = alreadyExists(item);
+                } else {
+                    retry.add(item.withShortUrl(nextFreeShortUrl(takenInBatch)));
+                }
+            }
+
+            if (randomCandidates > 0) {
+                collisionTracker.record(retry.size(), randomCandidates);
+            }
+            pending = retry;
+        }
+
+        for (var item : pending) {
+            var error = new UnableToGenerateUniqueShortUrlException(maxGenerationAttempts).getMessage();
+            results[item.index()] = CreateLinkBatchItemResult.failed(item.index(), error);
+        }
+
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new LinksCreatedApplicationEvent(List.copyOf(created)));
+        }
+    }
+
+    private boolean answeredWithExistingLink(BatchItem item, CreateLinkBatchItemResult[] results) {
+        if (!item.deduplicate() || !item.link().isActive()) {
+            return false;
+        }
+
+        var existing = linkDeduplicator.findExisting(item.link().userId(), item.link().longUrl());
+        existing.ifPresent(link -> results[item.index()] = CreateLinkBatchItemResult.created(item.index(), linkMapper.toCreateLinkResponse(link)));
+        return existing.isPresent();
+    }
+
+    // short_url is CITEXT, so codes differing only in case collide within the batch as well.
+    private String nextFreeShortUrl(Set<String> takenInBatch) {
+        String shortUrl;
+        do {
+            shortUrl = generateNotKnownTaken();
+        } while (!takenInBatch.add(normalized(shortUrl)));
+        return shortUrl;
+    }
+
+    private String generateNotKnownTaken() {
+        var shortUrl = shortUrlGenerator.generate();
+        for (int i = 0; i < MAX_FILTER_SKIPS && shortUrlFilter.isKnownTaken(shortUrl); i++) {
+            shortUrl = shortUrlGenerator.generate();
+        }
+        return shortUrl;
+    }
+
+    private static CreateLinkBatchItemResult alreadyExists(BatchItem item) {
+        var error = new ShortCodeAlreadyExistsException(item.link().shortUrl()).getMessage();
+        return CreateLinkBatchItemResult.failed(item.index(), error);
+    }
+
+    private static String normalized(String shortUrl) {
+        return shortUrl.toLowerCase(Locale.ROOT);
+    }
+
+    private static String describe(ConstraintViolation<CreateLinkRequest> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    private record BatchItem(int index, Link link, boolean deduplicate, String error) {
+
+        static BatchItem failed(int index, String error) {
+            return new BatchItem(index, null, false, error);
+        }
+
+        BatchItem withShortUrl(String shortUrl) {
+            return new BatchItem(index, link.withShortUrl(shortUrl), deduplicate, error);
+        }
+    }
+}
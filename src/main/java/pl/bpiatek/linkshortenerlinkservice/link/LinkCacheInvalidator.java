@@ -0,0 +1,111 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the resolve cache in step with link changes made on any replica. Every instance reads the
+// lifecycle topic in its own consumer group, so each one sees every change.
+class LinkCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkCacheInvalidator.class);
+
+    private final LinkResolver linkResolver;
+    private final Clock clock;
+    private final long maxLagMillis;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter evictionCounter;
+    private final Counter flushCounter;
+    private volatile long flushedAtMillis = Long.MIN_VALUE;
+
+    LinkCacheInvalidator(LinkResolver linkResolver, Clock clock, MeterRegistry meterRegistry, Duration maxLag) {
+        this.linkResolver = linkResolver;
+        this.clock = clock;
+        this.maxLagMillis = maxLag.toMillis();
+
+        TimeGauge.builder("link.cache.invalidation.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the last lifecycle event applied to the resolve cache")
+                .register(meterRegistry);
+        this.evictionCounter = Counter.builder("link.cache.invalidation.evictions")
+                .description("Number of resolve cache entries evicted because of a lifecycle event")
+                .register(meterRegistry);
+        this.flushCounter = Counter.builder("link.cache.invalidation.flushes")
+                .description("Number of times the resolve cache was emptied because invalidation fell behind")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(
+            id = "link-cache-invalidator",
+            idIsGroup = false,
+            topics = "${topic.link.lifecycle}",
+            containerFactory = "linkCacheInvalidationContainerFactory",
+            autoStartup = "${link.resolve.invalidation.enabled:true}"
+    )
+    void onLifecycleEvent(ConsumerRecord<String, LinkLifecycleEvent> record) {
+        var now = clock.millis();
+        lagMillis.set(Math.max(0, now - record.timestamp()));
+
+        // Anything older than the last flush is already gone from the cache.
+        if (record.timestamp() < flushedAtMillis) {
+            return;
+        }
+
+        // Far behind, every entry may be stale; emptying the cache is cheaper than catching up first.
+        if (now - record.timestamp() > maxLagMillis) {
+            linkResolver.evictAll();
+            flushedAtMillis = now;
+            flushCounter.increment();
+            log.warn("Resolve cache invalidation is {} ms behind, flushed the whole cache.", now - record.timestamp());
+            return;
+        }
+
+        var event = record.value();
+        if (event == null) {
+            return;
+        }
+        var shortUrl = switch (event.getEventPayloadCase()) {
+            // A new link may replace a cached "not found".
+            case LINK_CREATED -> event.getLinkCreated().getShortUrl();
+            case LINK_UPDATED -> event.getLinkUpdated().getShortUrl();
+            case LINK_DELETED -> event.getLinkDeleted().getShortUrl();
+            default -> null;
+        };
+        if (shortUrl != null && !shortUrl.isEmpty()) {
+            linkResolver.evict(shortUrl);
+            evictionCounter.increment();
+        }
+    }
+
+    // Changes made by this instance are evicted as soon as they commit, without waiting for the topic.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onLinkCreated(LinkCreatedApplicationEvent event) {
+        linkResolver.evict(event.link().shortUrl());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onLinksCreated(LinksCreatedApplicationEvent event) {
+        event.links().forEach(link -> linkResolver.evict(link.shortUrl()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onLinkUpdated(LinkUpdatedApplicationEvent event) {
+        linkResolver.evict(event.link().shortUrl());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void onLinkDeleted(LinkDeletedApplicationEvent event) {
+        linkResolver.evict(event.link().shortUrl());
+    }
+}
@@ -9,17 +9,17 @@ class LinkCleanupScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(LinkCleanupScheduler.class);
 
-    private final LinkManipulationService linkManipulationService;
+    private final VanityLinkSweeper vanityLinkSweeper;
 
-    LinkCleanupScheduler(LinkManipulationService linkManipulationService) {
-        this.linkManipulationService = linkManipulationService;
+    LinkCleanupScheduler(VanityLinkSweeper vanityLinkSweeper) {
+        this.vanityLinkSweeper = vanityLinkSweeper;
     }
 
     @Scheduled(cron = "${link.cleanup.cron:0 0 3 1 * ?}")
     public void cleanupDeactivatedVanityLinks() {
         log.info("Starting scheduled cleanup of deactivated vanity links.");
         try {
-            int deletedCount = linkManipulationService.releaseDeactivatedVanityLinks();
+            int deletedCount = vanityLinkSweeper.sweep();
             log.info("Finished cleanup. Released {} vanity links.", deletedCount);
         } catch (Exception e) {
             log.error("Error occurred during vanity link cleanup", e);
@@ -1,23 +1,47 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 @Configuration
 class LinkConfig {
 
     @Bean
-    LinkRepository linkRepository(NamedParameterJdbcTemplate namedJdbcTemplate, Clock clock) {
-        return new JdbcLinkRepository(namedJdbcTemplate, clock);
+    LinkExpiryPolicy linkExpiryPolicy(@Value("${link.expiry.default-ttl:#{null}}") Duration defaultTtl) {
+        return new LinkExpiryPolicy(defaultTtl);
+    }
+
+    @Bean
+    LinkRepository linkRepository(NamedParameterJdbcTemplate namedJdbcTemplate, Clock clock, LinkExpiryPolicy linkExpiryPolicy) {
+        return new JdbcLinkRepository(namedJdbcTemplate, clock, linkExpiryPolicy);
+    }
+
+    @Bean
+    ShortUrlClaimRepository shortUrlClaimRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        return new JdbcShortUrlClaimRepository(namedJdbcTemplate);
     }
 
     @Bean
@@ -26,8 +50,67 @@ class LinkConfig {
     }
 
     @Bean
-    ShortUrlGenerator shortUrlGenerator(@Value("${link.short.length}") int shortUrlLength) {
-        return new ShortUrlGenerator(shortUrlLength);
+    ShortUrlSequenceRepository shortUrlSequenceRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        return new JdbcShortUrlSequenceRepository(namedJdbcTemplate);
+    }
+
+    @Bean
+    ShortUrlLengthController shortUrlLengthController(ShortUrlCollisionTracker shortUrlCollisionTracker,
+                                                      LinkRepository linkRepository,
+                                                      MeterRegistry meterRegistry,
+                                                      @Value("${link.short.length}") int shortUrlLength,
+                                                      @Value("${link.short.length.max:10}") int maxShortUrlLength,
+                                                      @Value("${link.short.length.collision-threshold:0.05}") double collisionThreshold) {
+        return new ShortUrlLengthController(shortUrlCollisionTracker, linkRepository, meterRegistry,
+                shortUrlLength, maxShortUrlLength, collisionThreshold);
+    }
+
+    @Bean
+    ShortUrlGenerator shortUrlGenerator(@Value("${link.short.length}") int shortUrlLength,
+                                        ShortUrlLengthController shortUrlLengthController,
+                                        @Value("${link.short.generator:RANDOM}") ShortUrlGeneratorType generatorType,
+                                        ShortUrlSequenceRepository shortUrlSequenceRepository,
+                                        @Value("${link.short.sequence.block-size:100}") int sequenceBlockSize,
+                                        @Value("${link.short.sequence.secret:}") String sequenceSecret) {
+        return switch (generatorType) {
+            case RANDOM -> new RandomShortUrlGenerator(shortUrlLengthController::currentLength);
+            case SEQUENCE -> new SequenceShortUrlGenerator(shortUrlSequenceRepository, shortUrlLength, sequenceBlockSize, sequenceSecret);
+        };
+    }
+
+    @Bean
+    ShortUrlFilter shortUrlFilter(LinkRepository linkRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${link.short.filter.enabled:true}") boolean enabled,
+                                  @Value("${link.short.filter.expected-insertions:1000000}") long expectedInsertions,
+                                  @Value("${link.short.filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${link.short.filter.fetch-size:10000}") int fetchSize) {
+        var readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return new ShortUrlFilter(linkRepository, readOnlyTransaction, meterRegistry,
+                enabled, expectedInsertions, falsePositiveRate, fetchSize);
+    }
+
+    @Bean
+    ShortUrlPool shortUrlPool(ShortUrlClaimRepository shortUrlClaimRepository,
+                              ShortUrlGenerator shortUrlGenerator,
+                              ShortUrlFilter shortUrlFilter,
+                              ShortUrlCollisionTracker shortUrlCollisionTracker,
+                              Clock clock,
+                              MeterRegistry meterRegistry,
+                              @Value("${link.short.pool.enabled:true}") boolean enabled,
+                              @Value("${link.short.pool.capacity:1000}") int capacity,
+                              @Value("${link.short.pool.low-water-mark:250}") int lowWaterMark,
+                              @Value("${link.short.pool.claim-ttl:PT1H}") Duration claimTtl) {
+        var refillExecutor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("short-url-pool-refill").factory());
+        return new ShortUrlPool(shortUrlClaimRepository, shortUrlGenerator, shortUrlFilter, shortUrlCollisionTracker, clock, meterRegistry, refillExecutor,
+                enabled, capacity, lowWaterMark, claimTtl);
+    }
+
+    @Bean
+    ShortUrlCollisionTracker shortUrlCollisionTracker(@Value("${link.short.candidates.max:8}") int maxCandidates) {
+        return new ShortUrlCollisionTracker(maxCandidates);
     }
 
     @Bean
@@ -35,45 +118,156 @@ class LinkConfig {
         return new ReservedWordsValidator(reservedWords);
     }
 
+    @Bean
+    ReservedWordsReloader reservedWordsReloader(ReservedWordsValidator reservedWordsValidator, Environment environment) {
+        return new ReservedWordsReloader(reservedWordsValidator, environment);
+    }
+
+    @Bean
+    ContentBlocklist contentBlocklist(@Value("${link.blocklist.file:}") String blocklistFile, MeterRegistry meterRegistry) {
+        return new ContentBlocklist(blocklistFile.isBlank() ? null : Path.of(blocklistFile), meterRegistry);
+    }
+
     @Bean
     CustomShortUrlCreationStrategy customCodeCreationStrategy(LinkRepository linkRepository, LinkMapper linkMapper, ReservedWordsValidator reservedWordsValidator) {
         return new CustomShortUrlCreationStrategy(linkRepository, linkMapper, reservedWordsValidator);
     }
 
     @Bean
-    LinkCreatedKafkaProducer linkCreatedKafkaProducer(
-            @Value("${topic.link.lifecycle}") String topicName,
-            KafkaTemplate<String, LinkLifecycleEventProto.LinkLifecycleEvent> kafkaTemplate) {
-        return new LinkCreatedKafkaProducer(topicName, kafkaTemplate);
+    KafkaSendWindow kafkaSendWindow(KafkaTemplate<String, LinkLifecycleEventProto.LinkLifecycleEvent> kafkaTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${link.events.max-in-flight:1000}") int maxInFlight,
+                                    @Value("${link.events.send-permit-timeout:PT10S}") Duration permitTimeout) {
+        return new KafkaSendWindow(kafkaTemplate, meterRegistry, maxInFlight, permitTimeout);
+    }
+
+    @Bean
+    KafkaCircuitBreaker kafkaCircuitBreaker(Clock clock,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${link.events.circuit.failure-threshold:5}") int failureThreshold,
+                                            @Value("${link.events.circuit.open-duration:PT30S}") Duration openDuration) {
+        return new KafkaCircuitBreaker(failureThreshold, openDuration, clock, meterRegistry);
+    }
+
+    // Each instance needs a directory of its own, kept across restarts so a restarted instance
+    // replays what it spooled; there is deliberately no default.
+    @Bean
+    LifecycleEventSpool lifecycleEventSpool(Clock clock,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${link.events.spool.directory}") String directory,
+                                            @Value("${link.events.spool.segment-size:64MB}") DataSize segmentSize,
+                                            @Value("${link.events.spool.max-segments:16}") int maxSegments) {
+        return new LifecycleEventSpool(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), maxSegments, clock, meterRegistry);
+    }
+
+    @Bean
+    SpoolingEventSender spoolingEventSender(KafkaSendWindow kafkaSendWindow,
+                                            KafkaCircuitBreaker kafkaCircuitBreaker,
+                                            LifecycleEventSpool lifecycleEventSpool,
+                                            MeterRegistry meterRegistry) {
+        var followUpExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("link-event-follow-up-", 0).factory());
+        return new SpoolingEventSender(kafkaSendWindow, kafkaCircuitBreaker, lifecycleEventSpool, followUpExecutor, meterRegistry);
     }
 
     @Bean
-    LinkUpdatedKafkaProducer linkUpdatedKafkaProducer(
-            @Value("${topic.link.lifecycle}") String topicName,
-            KafkaTemplate<String, LinkLifecycleEventProto.LinkLifecycleEvent> kafkaTemplate) {
-        return  new LinkUpdatedKafkaProducer(topicName, kafkaTemplate);
+    SpoolReplayer spoolReplayer(LifecycleEventSpool lifecycleEventSpool,
+                                KafkaSendWindow kafkaSendWindow,
+                                KafkaCircuitBreaker kafkaCircuitBreaker,
+                                @Value("${topic.link.lifecycle}") String topicName,
+                                MeterRegistry meterRegistry,
+                                @Value("${link.events.spool.replay-batch-size:500}") int batchSize,
+                                @Value("${link.events.spool.send-timeout:PT30S}") Duration sendTimeout) {
+        return new SpoolReplayer(lifecycleEventSpool, kafkaSendWindow, kafkaCircuitBreaker, topicName, meterRegistry, batchSize, sendTimeout);
     }
 
     @Bean
-    LinkDeletedKafkaProducer linkDeletedKafkaProducer(
-            @Value("${topic.link.lifecycle}") String topicName,
-            KafkaTemplate<String, LinkLifecycleEventProto.LinkLifecycleEvent> kafkaTemplate,
-            Clock clock) {
-        return new LinkDeletedKafkaProducer(topicName, kafkaTemplate, clock);
+    LinkCreatedKafkaProducer linkCreatedKafkaProducer(@Value("${topic.link.lifecycle}") String topicName, SpoolingEventSender spoolingEventSender) {
+        return new LinkCreatedKafkaProducer(topicName, spoolingEventSender);
     }
 
     @Bean
+    LinkUpdatedKafkaProducer linkUpdatedKafkaProducer(@Value("${topic.link.lifecycle}") String topicName, SpoolingEventSender spoolingEventSender) {
+        return new LinkUpdatedKafkaProducer(topicName, spoolingEventSender);
+    }
+
+    @Bean
+    LinkDeletedKafkaProducer linkDeletedKafkaProducer(@Value("${topic.link.lifecycle}") String topicName,
+                                                      SpoolingEventSender spoolingEventSender,
+                                                      Clock clock) {
+        return new LinkDeletedKafkaProducer(topicName, spoolingEventSender, clock);
+    }
+
+    // Its close() drains queued sends, so the sender, the spool and the Kafka producer behind it
+    // must be destroyed after it.
+    @Bean
+    @DependsOn("spoolingEventSender")
+    @ConditionalOnProperty(name = "link.events.outbox.enabled", havingValue = "false")
+    StripedEventDispatcher linkEventDispatcher(MeterRegistry meterRegistry,
+                                               @Value("${link.events.dispatch.stripes:8}") int stripes,
+                                               @Value("${link.events.dispatch.queue-capacity:10000}") int queueCapacity,
+                                               @Value("${link.events.dispatch.rejection-policy:BLOCK}") DispatchRejectionPolicy rejectionPolicy,
+                                               @Value("${link.events.dispatch.offer-timeout:PT5S}") Duration offerTimeout,
+                                               @Value("${link.events.dispatch.drain-timeout:PT30S}") Duration drainTimeout) {
+        return new StripedEventDispatcher(stripes, queueCapacity, rejectionPolicy, offerTimeout, drainTimeout, meterRegistry);
+    }
+
+    // Sends straight from after-commit listeners; kept as a fallback for when the outbox is switched off.
+    @Bean
+    @ConditionalOnProperty(name = "link.events.outbox.enabled", havingValue = "false")
     LinkEventsPublisher linkCreatedPublisher(LinkCreatedKafkaProducer linkCreatedKafkaProducer,
                                              LinkUpdatedKafkaProducer linkUpdatedKafkaProducer,
-                                             LinkDeletedKafkaProducer linkDeletedKafkaProducer) {
-        return new LinkEventsPublisher(linkCreatedKafkaProducer, linkUpdatedKafkaProducer, linkDeletedKafkaProducer);
+                                             LinkDeletedKafkaProducer linkDeletedKafkaProducer,
+                                             StripedEventDispatcher linkEventDispatcher,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${link.events.coalesce.window:PT0S}") Duration coalesceWindow) {
+        var scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("link-update-coalescer").daemon().factory());
+        var updateCoalescer = new LinkUpdateCoalescer(coalesceWindow, scheduler, meterRegistry);
+        return new LinkEventsPublisher(linkCreatedKafkaProducer, linkUpdatedKafkaProducer, linkDeletedKafkaProducer, linkEventDispatcher,
+                updateCoalescer);
+    }
+
+    @Bean
+    LinkOutboxRepository linkOutboxRepository(NamedParameterJdbcTemplate namedJdbcTemplate) {
+        return new JdbcLinkOutboxRepository(namedJdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "link.events.outbox.enabled", havingValue = "true", matchIfMissing = true)
+    LinkOutboxWriter linkOutboxWriter(LinkOutboxRepository linkOutboxRepository, Clock clock) {
+        return new LinkOutboxWriter(linkOutboxRepository, clock);
+    }
+
+    // Runs even with the outbox switched off, since imports always record their events there.
+    @Bean
+    LinkOutboxRelay linkOutboxRelay(LinkOutboxRepository linkOutboxRepository,
+                                    KafkaSendWindow kafkaSendWindow,
+                                    @Value("${topic.link.lifecycle}") String topicName,
+                                    PlatformTransactionManager transactionManager,
+                                    Clock clock,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${link.events.outbox.batch-size:500}") int batchSize,
+                                    @Value("${link.events.outbox.send-timeout:PT30S}") Duration sendTimeout,
+                                    @Value("${link.events.coalesce.window:PT0S}") Duration coalesceWindow) {
+        return new LinkOutboxRelay(linkOutboxRepository, kafkaSendWindow, topicName, new TransactionTemplate(transactionManager),
+                clock, meterRegistry, batchSize, sendTimeout, coalesceWindow);
     }
 
     @Bean
     RandomShortUrlCreationStrategy randomCodeCreationStrategy(LinkRepository linkRepository,
                                                               LinkMapper linkMapper,
-                                                              ShortUrlGenerator shortUrlGenerator) {
-        return new RandomShortUrlCreationStrategy(linkRepository, linkMapper, shortUrlGenerator);
+                                                              ShortUrlGenerator shortUrlGenerator,
+                                                              ShortUrlPool shortUrlPool,
+                                                              ShortUrlCollisionTracker shortUrlCollisionTracker,
+                                                              ShortUrlFilter shortUrlFilter,
+                                                              LinkDeduplicator linkDeduplicator,
+                                                              @Value("${link.short.max-attempts:5}") int maxGenerationAttempts) {
+        return new RandomShortUrlCreationStrategy(linkRepository, linkMapper, shortUrlGenerator, shortUrlPool,
+                shortUrlCollisionTracker, shortUrlFilter, linkDeduplicator, maxGenerationAttempts);
+    }
+
+    @Bean
+    LinkDeduplicator linkDeduplicator(LinkRepository linkRepository, MeterRegistry meterRegistry) {
+        return new LinkDeduplicator(linkRepository, meterRegistry);
     }
 
     @Bean
@@ -81,8 +275,9 @@ class LinkConfig {
                                                     ApplicationEventPublisher eventPublisher,
                                                     Clock clock,
                                                     LinkMapper linkMapper,
-                                                    @Value("${link.delete.deactivated.custom.older.than.days}") Integer days) {
-        return new LinkManipulationService(linkRepository, eventPublisher, clock, linkMapper, days);
+                                                    UrlScanner urlScanner,
+                                                    ContentBlocklist contentBlocklist) {
+        return new LinkManipulationService(linkRepository, eventPublisher, clock, linkMapper, urlScanner, contentBlocklist);
     }
 
     @Bean
@@ -94,12 +289,127 @@ class LinkConfig {
     LinkFacade linkFacade(List<LinkCreationStrategy> strategyList,
                           ApplicationEventPublisher eventPublisher,
                           LinkManipulationService linkManipulationService,
-                          LinkRetriever linkRetriever) {
-        return new LinkFacade(strategyList, eventPublisher, linkManipulationService, linkRetriever);
+                          LinkRetriever linkRetriever,
+                          ContentBlocklist contentBlocklist,
+                          UrlScanner urlScanner,
+                          LinkBatchCreator linkBatchCreator,
+                          LinkImporter linkImporter,
+                          LinkExporter linkExporter,
+                          LinkResolver linkResolver) {
+        return new LinkFacade(strategyList, eventPublisher, linkManipulationService, linkRetriever, contentBlocklist, urlScanner,
+                linkBatchCreator, linkImporter, linkExporter, linkResolver);
+    }
+
+    @Bean
+    LinkBatchCreator linkBatchCreator(Validator validator,
+                                      UrlScanner urlScanner,
+                                      ContentBlocklist contentBlocklist,
+                                      ReservedWordsValidator reservedWordsValidator,
+                                      LinkRepository linkRepository,
+                                      LinkMapper linkMapper,
+                                      LinkDeduplicator linkDeduplicator,
+                                      ShortUrlGenerator shortUrlGenerator,
+                                      ShortUrlFilter shortUrlFilter,
+                                      ShortUrlCollisionTracker shortUrlCollisionTracker,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${link.short.max-attempts:5}") int maxGenerationAttempts) {
+        return new LinkBatchCreator(validator, urlScanner, contentBlocklist, reservedWordsValidator, linkRepository, linkMapper,
+                linkDeduplicator, shortUrlGenerator, shortUrlFilter, shortUrlCollisionTracker,
+                new TransactionTemplate(transactionManager), maxGenerationAttempts);
+    }
+
+    @Bean
+    LinkImportRepository linkImportRepository(NamedParameterJdbcTemplate namedJdbcTemplate, DataSource dataSource) {
+        return new JdbcLinkImportRepository(namedJdbcTemplate, dataSource);
+    }
+
+    @Bean
+    LinkImporter linkImporter(LinkImportRepository linkImportRepository,
+                              Validator validator,
+                              UrlScanner urlScanner,
+                              ContentBlocklist contentBlocklist,
+                              ReservedWordsValidator reservedWordsValidator,
+                              ShortUrlGenerator shortUrlGenerator,
+                              ShortUrlFilter shortUrlFilter,
+                              LinkOutboxRepository linkOutboxRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              Clock clock,
+                              MeterRegistry meterRegistry,
+                              @Value("${link.import.directory:}") String importDirectory,
+                              @Value("${link.import.parallelism:4}") int parallelism,
+                              @Value("${link.import.chunk-size:1000}") int chunkSize,
+                              @Value("${link.short.max-attempts:5}") int maxGenerationAttempts) {
+        var validationExecutor = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("link-import-", 0).daemon().factory());
+        return new LinkImporter(linkImportRepository, validator, urlScanner, contentBlocklist, reservedWordsValidator, shortUrlGenerator,
+                shortUrlFilter, linkOutboxRepository, objectMapper, new TransactionTemplate(transactionManager),
+                clock, meterRegistry, validationExecutor, importDirectory.isBlank() ? null : Path.of(importDirectory),
+                parallelism, chunkSize, maxGenerationAttempts);
+    }
+
+    @Bean
+    LinkExporter linkExporter(LinkRepository linkRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${link.export.fetch-size:1000}") int fetchSize,
+                              @Value("${link.export.flush-every:500}") int flushEvery) {
+        var readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return new LinkExporter(linkRepository, objectMapper, readOnlyTransaction, meterRegistry, fetchSize, flushEvery);
+    }
+
+    @Bean
+    LinkResolver linkResolver(LinkRepository linkRepository,
+                              Clock clock,
+                              MeterRegistry meterRegistry,
+                              @Value("${link.resolve.cache.max-weight:64MB}") DataSize maxWeight,
+                              @Value("${link.resolve.cache.ttl:PT10M}") Duration ttl,
+                              @Value("${link.resolve.cache.negative-ttl:PT10S}") Duration negativeTtl) {
+        var loadExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("link-resolve-", 0).factory());
+        return new LinkResolver(linkRepository, clock, meterRegistry, loadExecutor, maxWeight.toBytes(), ttl, negativeTtl);
+    }
+
+    @Bean
+    LinkCacheInvalidator linkCacheInvalidator(LinkResolver linkResolver,
+                                              Clock clock,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${link.resolve.invalidation.max-lag:PT30S}") Duration maxLag) {
+        return new LinkCacheInvalidator(linkResolver, clock, meterRegistry, maxLag);
+    }
+
+    @Bean
+    VanityLinkSweeper vanityLinkSweeper(LinkRepository linkRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        Clock clock,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${link.delete.deactivated.custom.older.than.days}") int days,
+                                        @Value("${link.cleanup.batch-size:500}") int batchSize,
+                                        @Value("${link.cleanup.rows-per-second:2000}") int rowsPerSecond) {
+        return new VanityLinkSweeper(linkRepository, eventPublisher, new TransactionTemplate(transactionManager), clock,
+                meterRegistry, days, batchSize, rowsPerSecond);
+    }
+
+    @Bean
+    ExpiredLinkReaper expiredLinkReaper(LinkRepository linkRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        Clock clock,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${link.expiry.reaper.enabled:false}") boolean enabled,
+                                        @Value("${link.expiry.action:DEACTIVATE}") LinkExpiryAction action,
+                                        @Value("${link.expiry.batch-size:500}") int batchSize,
+                                        @Value("${link.expiry.tick-ms:1000}") long tickMillis,
+                                        @Value("${link.expiry.wheel.slots:4096}") int slots,
+                                        @Value("${link.expiry.wheel.max-size:100000}") int maxWheelSize) {
+        var wheel = new ExpiryWheel(Duration.ofMillis(tickMillis), slots, maxWheelSize, clock.instant());
+        return new ExpiredLinkReaper(linkRepository, eventPublisher, new TransactionTemplate(transactionManager), clock,
+                meterRegistry, wheel, action, enabled, batchSize);
     }
 
     @Bean
-    LinkCleanupScheduler linkCleanupScheduler(LinkManipulationService linkManipulationService) {
-        return new LinkCleanupScheduler(linkManipulationService);
+    LinkCleanupScheduler linkCleanupScheduler(VanityLinkSweeper vanityLinkSweeper) {
+        return new LinkCleanupScheduler(vanityLinkSweeper);
     }
 }
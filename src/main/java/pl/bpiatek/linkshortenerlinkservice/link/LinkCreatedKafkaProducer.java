@@ -5,11 +5,13 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkCreated;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
 import pl.bpiatek.linkshortenerlinkservice.exception.KafkaEventSendingException;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -19,17 +21,71 @@ class LinkCreatedKafkaProducer {
     private static final Logger log = LoggerFactory.getLogger(LinkCreatedKafkaProducer.class);
 
     private static final String SOURCE_HEADER_VALUE = "link-service";
+    private static final String EVENT_TYPE = "LinkCreated";
 
     private final String topicName;
-    private final KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate;
+    private final SpoolingEventSender eventSender;
 
-    public LinkCreatedKafkaProducer(String topicName,
-                                    KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public LinkCreatedKafkaProducer(String topicName, SpoolingEventSender eventSender) {
+        this.eventSender = eventSender;
         this.topicName = topicName;
     }
 
-    void sendLinkCreatedEvent(Link link) {
+    CompletableFuture<SendResult<String, LinkLifecycleEvent>> sendLinkCreatedEvent(Link link) {
+        return eventSender.send(toProducerRecord(link), EVENT_TYPE).whenComplete((result, failure) -> {
+            if (failure == null && result == null) {
+                log.warn("Kafka is unavailable, spooled LinkCreated event for link ID: {}", link.id());
+            } else if (failure == null) {
+                log.info("Successfully published LinkCreated event for link ID: {} to partition: {} offset: {}",
+                        link.id(),
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset());
+            } else {
+                log.error("Failed to publish LinkCreated event for link ID: {}. Reason: {}",
+                        link.id(),
+                        failure.getMessage(),
+                        failure);
+            }
+        });
+    }
+
+    // All records are handed to the producer before any acknowledgement is awaited,
+    // so the batch goes out in a few pipelined requests instead of one round trip per link.
+    // Unlike a single send this waits for the outcome, since the importer reports it.
+    void sendLinkCreatedEvents(List<Link> links) {
+        var sends = links.stream()
+                .map(link -> eventSender.send(toProducerRecord(link), EVENT_TYPE))
+                .toList();
+
+        var failed = 0;
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get();
+            } catch (ExecutionException e) {
+                failed++;
+                log.error("Failed to publish LinkCreated event for link ID: {}. Reason: {}",
+                        links.get(i).id(),
+                        e.getMessage(),
+                        e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while sending LinkCreated events.", e);
+            }
+        }
+
+        if (failed > 0) {
+            throw new KafkaEventSendingException("Failed to send " + failed + " of " + links.size() + " LinkCreated events.");
+        }
+        log.info("Successfully published {} LinkCreated events.", links.size());
+    }
+
+    private ProducerRecord<String, LinkLifecycleEvent> toProducerRecord(Link link) {
+        var producerRecord = new ProducerRecord<>(topicName, String.valueOf(link.id()), toEvent(link));
+        producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
+        return producerRecord;
+    }
+
+    static LinkLifecycleEvent toEvent(Link link) {
         var createdPayload = LinkCreated.newBuilder()
                 .setLinkId(String.valueOf(link.id()))
                 .setUserId(link.userId())
@@ -42,28 +98,8 @@ class LinkCreatedKafkaProducer {
                 .setTitle(link.title() == null ? "" : link.title())
                 .build();
 
-        var eventToSend = LinkLifecycleEvent.newBuilder()
+        return LinkLifecycleEvent.newBuilder()
                 .setLinkCreated(createdPayload)
                 .build();
-
-        var producerRecord = new ProducerRecord<>(topicName, String.valueOf(link.id()), eventToSend);
-        producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
-
-        try {
-            var result = kafkaTemplate.send(producerRecord).get();
-            log.info("Successfully published LinkCreated event for link ID: {} to partition: {} offset: {}",
-                    link.id(),
-                    result.getRecordMetadata().partition(),
-                    result.getRecordMetadata().offset());
-        } catch (ExecutionException e) {
-            log.error("Failed to publish LinkCreated event for link ID: {}. Reason: {}",
-                    link.id(),
-                    e.getMessage(),
-                    e);
-            throw new KafkaEventSendingException("Failed to send PasswordReset event.");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Interrupted while sending PasswordReset event.", e);
-        }
     }
-}
\ No newline at end of file
+}
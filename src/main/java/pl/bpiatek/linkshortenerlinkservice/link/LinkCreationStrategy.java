@@ -12,5 +12,16 @@ interface LinkCreationStrategy {
             String title,
             ApplicationEventPublisher applicationEventPublisher);
 
+    default CreateLinkResponse createLink(
+            String userId,
+            String longUrl,
+            String shortUrl,
+            boolean isActive,
+            String title,
+            boolean deduplicate,
+            ApplicationEventPublisher applicationEventPublisher) {
+        return createLink(userId, longUrl, shortUrl, isActive, title, applicationEventPublisher);
+    }
+
     CreationStrategyType getType();
 }
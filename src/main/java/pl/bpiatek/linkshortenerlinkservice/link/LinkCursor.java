@@ -0,0 +1,49 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import pl.bpiatek.linkshortenerlinkservice.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+// Position of the last link on a page, in the (created_at DESC, id DESC) order of the listing.
+// Clients get it as an opaque url-safe token.
+record LinkCursor(Instant createdAt, long id) {
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    static LinkCursor of(LinkSummary link) {
+        return new LinkCursor(link.createdAt(), link.id());
+    }
+
+    String encode() {
+        var bytes = ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .putLong(createdAt.getEpochSecond())
+                .putInt(createdAt.getNano())
+                .putLong(id)
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static LinkCursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("The cursor is malformed.");
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new InvalidCursorException("The cursor is malformed.");
+        }
+
+        var buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        try {
+            return new LinkCursor(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()), buffer.getLong());
+        } catch (DateTimeException e) {
+            throw new InvalidCursorException("The cursor is malformed.");
+        }
+    }
+}
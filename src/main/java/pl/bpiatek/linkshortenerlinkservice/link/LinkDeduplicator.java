@@ -0,0 +1,32 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+
+class LinkDeduplicator {
+
+    private final LinkRepository linkRepository;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    LinkDeduplicator(LinkRepository linkRepository, MeterRegistry meterRegistry) {
+        this.linkRepository = linkRepository;
+        this.hitCounter = Counter.builder("link.deduplication")
+                .description("Number of deduplicated creates answered with an existing link")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("link.deduplication")
+                .description("Number of deduplicated creates that had to insert a new link")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    // Expects the canonical long url, otherwise equivalent destinations hash differently.
+    Optional<Link> findExisting(String userId, String longUrl) {
+        var existing = linkRepository.findActiveByUserIdAndLongUrl(userId, longUrl);
+        (existing.isPresent() ? hitCounter : missCounter).increment();
+        return existing;
+    }
+}
@@ -5,11 +5,13 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkDeleted;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
 
 import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -18,47 +20,52 @@ class LinkDeletedKafkaProducer {
     private static final Logger log = LoggerFactory.getLogger(LinkDeletedKafkaProducer.class);
 
     private static final String SOURCE_HEADER_VALUE = "link-service";
+    private static final String EVENT_TYPE = "LinkDeleted";
 
     private final String topicName;
-    private final KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate;
+    private final SpoolingEventSender eventSender;
     private final Clock clock;
 
-    public LinkDeletedKafkaProducer(String topicName,
-                                    KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate, Clock clock) {
-        this.kafkaTemplate = kafkaTemplate;
+    public LinkDeletedKafkaProducer(String topicName, SpoolingEventSender eventSender, Clock clock) {
+        this.eventSender = eventSender;
         this.topicName = topicName;
         this.clock = clock;
     }
 
-    void sendLinkDeletedEvent(Link link) {
+    CompletableFuture<SendResult<String, LinkLifecycleEvent>> sendLinkDeletedEvent(Link link) {
+        var producerRecord = new ProducerRecord<>(topicName, String.valueOf(link.id()), toEvent(link, clock.instant()));
+        producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
+
+        return eventSender.send(producerRecord, EVENT_TYPE).whenComplete((result, failure) -> {
+            if (failure == null && result == null) {
+                log.warn("Kafka is unavailable, spooled LinkDeleted event for link ID: {}", link.id());
+            } else if (failure == null) {
+                log.info("Successfully published LinkDeleted event for link ID: {} to partition: {} offset: {}",
+                        link.id(),
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset());
+            } else {
+                log.error("Failed to publish LinkDeleted event for link ID: {}, shortURL: {}, reason: {}",
+                        link.id(),
+                        link.shortUrl(),
+                        failure.getMessage(),
+                        failure);
+            }
+        });
+    }
+
+    static LinkLifecycleEvent toEvent(Link link, Instant deletedAt) {
         var deletedPayload = LinkDeleted.newBuilder()
                 .setLinkId(String.valueOf(link.id()))
                 .setUserId(link.userId())
                 .setShortUrl(link.shortUrl())
                 .setDeletedAt(Timestamp.newBuilder()
-                        .setSeconds(clock.instant().getEpochSecond())
-                        .setNanos(clock.instant().getNano()).build())
+                        .setSeconds(deletedAt.getEpochSecond())
+                        .setNanos(deletedAt.getNano()).build())
                 .build();
 
-        var eventToSend = LinkLifecycleEvent.newBuilder()
+        return LinkLifecycleEvent.newBuilder()
                 .setLinkDeleted(deletedPayload)
                 .build();
-
-        var producerRecord = new ProducerRecord<>(topicName, String.valueOf(link.id()), eventToSend);
-        producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
-
-        try {
-            var result = kafkaTemplate.send(producerRecord).get();
-            log.info("Successfully published LinkDeleted event for link ID: {} to partition: {} offset: {}",
-                    link.id(),
-                    result.getRecordMetadata().partition(),
-                    result.getRecordMetadata().offset());
-        } catch (Exception e) {
-            log.error("Failed to publish LinkDeleted event for link ID: {}, shortURL: {}, reason: {}",
-                    link.id(),
-                    link.shortUrl(),
-                    e.getMessage(),
-                    e);
-        }
     }
 }
@@ -1,36 +1,55 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
-class LinkEventsPublisher {
+class LinkEventsPublisher implements AutoCloseable {
 
     private final LinkCreatedKafkaProducer linkCreatedKafkaProducer;
     private final LinkUpdatedKafkaProducer linkUpdatedKafkaProducer;
     private final LinkDeletedKafkaProducer linkDeletedKafkaProducer;
+    private final StripedEventDispatcher dispatcher;
+    private final LinkUpdateCoalescer updateCoalescer;
 
-    LinkEventsPublisher(LinkCreatedKafkaProducer linkCreatedKafkaProducer, LinkUpdatedKafkaProducer linkUpdatedKafkaProducer, LinkDeletedKafkaProducer linkDeletedKafkaProducer) {
+    LinkEventsPublisher(LinkCreatedKafkaProducer linkCreatedKafkaProducer,
+                        LinkUpdatedKafkaProducer linkUpdatedKafkaProducer,
+                        LinkDeletedKafkaProducer linkDeletedKafkaProducer,
+                        StripedEventDispatcher dispatcher,
+                        LinkUpdateCoalescer updateCoalescer) {
         this.linkCreatedKafkaProducer = linkCreatedKafkaProducer;
         this.linkUpdatedKafkaProducer = linkUpdatedKafkaProducer;
         this.linkDeletedKafkaProducer = linkDeletedKafkaProducer;
+        this.dispatcher = dispatcher;
+        this.updateCoalescer = updateCoalescer;
     }
 
-    @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     void handleLinkCreatedEvent(LinkCreatedApplicationEvent event) {
-        linkCreatedKafkaProducer.sendLinkCreatedEvent(event.link());
+        var link = event.link();
+        dispatcher.dispatch(link.id(), () -> linkCreatedKafkaProducer.sendLinkCreatedEvent(link));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void handleLinksCreatedEvent(LinksCreatedApplicationEvent event) {
+        event.links().forEach(link -> dispatcher.dispatch(link.id(), () -> linkCreatedKafkaProducer.sendLinkCreatedEvent(link)));
     }
 
-    @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     void handleLinkUpdatedEvent(LinkUpdatedApplicationEvent event) {
-        linkUpdatedKafkaProducer.sendLinkUpdatedEvent(event.link());
+        updateCoalescer.submit(event.link(),
+                latest -> dispatcher.dispatch(latest.id(), () -> linkUpdatedKafkaProducer.sendLinkUpdatedEvent(latest)));
     }
 
-    @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     void handleLinkDeletedEvent(LinkDeletedApplicationEvent event) {
-        linkDeletedKafkaProducer.sendLinkDeletedEvent(event.link());
+        var link = event.link();
+        updateCoalescer.bypass(link.id(),
+                () -> dispatcher.dispatch(link.id(), () -> linkDeletedKafkaProducer.sendLinkDeletedEvent(link)));
+    }
+
+    // Closed before the dispatcher it depends on, so updates still in the window get dispatched.
+    @Override
+    public void close() {
+        updateCoalescer.close();
     }
 }
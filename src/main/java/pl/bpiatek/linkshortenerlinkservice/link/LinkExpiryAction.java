@@ -0,0 +1,6 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+enum LinkExpiryAction {
+    DEACTIVATE,
+    DELETE
+}
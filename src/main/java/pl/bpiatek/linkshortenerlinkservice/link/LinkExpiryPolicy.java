@@ -0,0 +1,23 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Applies to links created without an explicit expiry. Without a default TTL such links never expire.
+record LinkExpiryPolicy(Duration defaultTtl) {
+
+    LinkExpiryPolicy {
+        if (defaultTtl != null && (defaultTtl.isNegative() || defaultTtl.isZero())) {
+            throw new IllegalArgumentException("link.expiry.default-ttl must be positive, was " + defaultTtl);
+        }
+    }
+
+    static LinkExpiryPolicy neverExpires() {
+        return new LinkExpiryPolicy(null);
+    }
+
+    // Null when links do not expire by default.
+    Instant expiresAt(Instant createdAt) {
+        return defaultTtl == null ? null : createdAt.plus(defaultTtl);
+    }
+}
@@ -0,0 +1,196 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+class LinkExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkExporter.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String CSV_HEADER = "id,short_url,long_url,title,notes,is_active,is_custom,created_at,updated_at,expires_at\n";
+
+    private final LinkRepository linkRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations readOnlyTransaction;
+    private final int fetchSize;
+    private final int flushEvery;
+    private final Counter exportedCounter;
+    private final Counter abortedCounter;
+
+    LinkExporter(LinkRepository linkRepository,
+                 ObjectMapper objectMapper,
+                 TransactionOperations readOnlyTransaction,
+                 MeterRegistry meterRegistry,
+                 int fetchSize,
+                 int flushEvery) {
+        this.linkRepository = linkRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.fetchSize = fetchSize;
+        this.flushEvery = flushEvery;
+        this.exportedCounter = Counter.builder("link.export.rows")
+                .description("Number of links written by exports")
+                .register(meterRegistry);
+        this.abortedCounter = Counter.builder("link.export.aborted")
+                .description("Number of exports cut short because the client went away")
+                .register(meterRegistry);
+    }
+
+    // Rows go to the client as the cursor yields them, so memory use does not depend on how many
+    // links the user has. A failed write throws out of the row callback, which closes the cursor
+    // and rolls the read-only transaction back.
+    void export(String userId, LinkExportFormat format, OutputStream out) {
+        var exported = new long[1];
+        try {
+            var writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8), BUFFER_SIZE);
+            var rowWriter = format == LinkExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer, objectMapper);
+
+            readOnlyTransaction.executeWithoutResult(status -> linkRepository.forEachByUserId(userId, fetchSize, link -> {
+                try {
+                    rowWriter.write(link);
+                    if (++exported[0] % flushEvery == 0) {
+                        rowWriter.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            rowWriter.flush();
+            log.info("Exported {} links as {} for user: {}", exported[0], format, userId);
+        } catch (IOException | UncheckedIOException e) {
+            abortedCounter.increment();
+            log.info("Export for user: {} aborted after {} links: {}", userId, exported[0], e.getMessage());
+        } finally {
+            exportedCounter.increment(exported[0]);
+        }
+    }
+
+    private interface RowWriter {
+
+        void write(Link link) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(Link link) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", String.valueOf(link.id()));
+            generator.writeStringField("shortUrl", link.shortUrl());
+            generator.writeStringField("longUrl", link.longUrl());
+            generator.writeStringField("title", link.title());
+            generator.writeStringField("notes", link.notes());
+            generator.writeBooleanField("isActive", link.isActive());
+            generator.writeBooleanField("isCustom", link.isCustom());
+            generator.writeStringField("createdAt", toText(link.createdAt()));
+            generator.writeStringField("updatedAt", toText(link.updatedAt()));
+            generator.writeStringField("expiresAt", toText(link.expiresAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    // Column names match what the CSV import reads, so an export can be imported again.
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(Link link) throws IOException {
+            writer.write(String.valueOf(link.id()));
+            writer.write(',');
+            writeField(link.shortUrl());
+            writer.write(',');
+            writeField(link.longUrl());
+            writer.write(',');
+            writeField(link.title());
+            writer.write(',');
+            writeField(link.notes());
+            writer.write(',');
+            writer.write(String.valueOf(link.isActive()));
+            writer.write(',');
+            writer.write(String.valueOf(link.isCustom()));
+            writer.write(',');
+            writeField(toText(link.createdAt()));
+            writer.write(',');
+            writeField(toText(link.updatedAt()));
+            writer.write(',');
+            writeField(toText(link.expiresAt()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!needsQuoting(value)) {
+                writer.write(value);
+                return;
+            }
+
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                var c = value.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+
+        private static boolean needsQuoting(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                var c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static String toText(Instant instant) {
+        return instant == null ? null : instant.toString();
+    }
+}
@@ -4,17 +4,25 @@ package pl.bpiatek.linkshortenerlinkservice.link;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.transaction.annotation.Transactional;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinksBatchResponse;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkDto;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkExportFormat;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkListRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkPageResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.ResolvedLinkDto;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.UpdateLinkRequest;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static pl.bpiatek.linkshortenerlinkservice.link.UrlSanitizer.prependProtocolIfMissing;
 
 public class LinkFacade {
 
@@ -24,22 +32,46 @@ public class LinkFacade {
     private final ApplicationEventPublisher eventPublisher;
     private final LinkManipulationService linkManipulationService;
     private final LinkRetriever linkRetriever;
+    private final ContentBlocklist contentBlocklist;
+    private final UrlScanner urlScanner;
+    private final LinkBatchCreator linkBatchCreator;
+    private final LinkImporter linkImporter;
+    private final LinkExporter linkExporter;
+    private final LinkResolver linkResolver;
 
     LinkFacade(
             List<LinkCreationStrategy> strategiesLIst,
             ApplicationEventPublisher eventPublisher,
             LinkManipulationService linkManipulationService,
-            LinkRetriever linkRetriever) {
+            LinkRetriever linkRetriever,
+            ContentBlocklist contentBlocklist,
+            UrlScanner urlScanner,
+            LinkBatchCreator linkBatchCreator,
+            LinkImporter linkImporter,
+            LinkExporter linkExporter,
+            LinkResolver linkResolver) {
         this.strategies = strategiesLIst.stream()
                 .collect(Collectors.toUnmodifiableMap(LinkCreationStrategy::getType, Function.identity()));
         this.eventPublisher = eventPublisher;
         this.linkManipulationService = linkManipulationService;
         this.linkRetriever = linkRetriever;
+        this.contentBlocklist = contentBlocklist;
+        this.urlScanner = urlScanner;
+        this.linkBatchCreator = linkBatchCreator;
+        this.linkImporter = linkImporter;
+        this.linkExporter = linkExporter;
+        this.linkResolver = linkResolver;
     }
 
-    @Transactional
     public CreateLinkResponse createLink(String userId, String longUrl, String shortUrl, Boolean isActive, String title) {
-        var cleanUrl = prependProtocolIfMissing(longUrl);
+        return createLink(userId, longUrl, shortUrl, isActive, title, false);
+    }
+
+    // Not transactional: screening rejects blocked content before a connection is taken,
+    // each strategy opens its own transaction.
+    public CreateLinkResponse createLink(String userId, String longUrl, String shortUrl, Boolean isActive, String title, boolean deduplicate) {
+        var cleanUrl = urlScanner.canonicalize(longUrl);
+        contentBlocklist.screen(shortUrl, cleanUrl);
 
         var strategyType = getStrategyType(shortUrl);
         log.info("Selected link creation strategy: {}", strategyType);
@@ -47,7 +79,27 @@ public class LinkFacade {
         if (chosenStrategy == null) {
             throw new IllegalStateException("No LinkCreationStrategy bean found for type: " + strategyType);
         }
-        return chosenStrategy.createLink(userId, cleanUrl, shortUrl, isActive, title, eventPublisher);
+        return chosenStrategy.createLink(userId, cleanUrl, shortUrl, isActive, title, deduplicate, eventPublisher);
+    }
+
+    public CreateLinksBatchResponse createLinks(String userId, List<CreateLinkRequest> requests) {
+        log.info("Creating batch of {} links", requests.size());
+        return linkBatchCreator.create(userId, requests, eventPublisher);
+    }
+
+    public LinkImportResponse importLinks(String userId, String contentType, InputStream body) {
+        log.info("Importing links from a {} upload", contentType);
+        return linkImporter.importStream(userId, contentType, body);
+    }
+
+    public LinkImportResponse importLinksFromFile(String userId, String fileName) {
+        log.info("Importing links from file: {}", fileName);
+        return linkImporter.importFile(userId, fileName);
+    }
+
+    public void exportLinks(String userId, LinkExportFormat format, OutputStream out) {
+        log.info("Exporting links as {}", format);
+        linkExporter.export(userId, format, out);
     }
 
     public LinkDto updateLink(String userId, Long linkId, UpdateLinkRequest request) {
@@ -59,6 +111,14 @@ public class LinkFacade {
         return linkRetriever.getLink(userId, linkId);
     }
 
+    public ResolvedLinkDto resolve(String shortUrl) {
+        return linkResolver.resolve(shortUrl);
+    }
+
+    public LinkPageResponse listLinks(String userId, LinkListRequest request) {
+        return linkRetriever.listLinks(userId, request);
+    }
+
     public void deleteLink(String userId, Long linkId) {
         log.info("Deleting link with ID: {}", linkId);
         linkManipulationService.deleteLink(userId, linkId);
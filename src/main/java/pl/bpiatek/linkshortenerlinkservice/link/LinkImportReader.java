@@ -0,0 +1,36 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkImportException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+interface LinkImportReader {
+
+    // Returns null once the input is exhausted.
+    ImportRow next() throws IOException;
+
+    static LinkImportReader forContentType(String contentType, Reader reader, ObjectMapper objectMapper) {
+        var mediaType = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (mediaType.startsWith("text/csv")) {
+            return new CsvLinkImportReader(reader);
+        }
+        if (mediaType.startsWith("application/x-ndjson")) {
+            return new NdjsonLinkImportReader(reader, objectMapper);
+        }
+        throw new LinkImportException("Unsupported import format: " + contentType);
+    }
+
+    static LinkImportReader forFileName(String fileName, Reader reader, ObjectMapper objectMapper) {
+        var name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return new CsvLinkImportReader(reader);
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return new NdjsonLinkImportReader(reader, objectMapper);
+        }
+        throw new LinkImportException("Unsupported import file, expected .csv, .ndjson or .jsonl: " + fileName);
+    }
+}
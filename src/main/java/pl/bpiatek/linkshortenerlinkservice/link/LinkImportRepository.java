@@ -0,0 +1,44 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// All methods work on a per-transaction staging table or read back what was merged from it,
+// so they must be called inside the import's transaction.
+interface LinkImportRepository {
+
+    void createStagingTable();
+
+    StagingWriter openStagingWriter();
+
+    long mergeStaged(String userId, Instant importedAt);
+
+    List<Long> findStagedRandomLines();
+
+    void reassignShortUrls(Map<Long, String> shortUrlsByLine);
+
+    List<StagedConflict> findStagedConflicts(int limit);
+
+    long countStaged();
+
+    void forEachImported(String userId, Instant importedAt, int fetchSize, Consumer<Link> action);
+
+    interface StagingWriter extends AutoCloseable {
+
+        void write(StagedLink link);
+
+        long finish();
+
+        @Override
+        void close();
+    }
+
+    record StagedLink(long line, String shortUrl, String longUrl, long urlHash, String title, boolean isActive, boolean isCustom,
+                      Instant expiresAt) {
+    }
+
+    record StagedConflict(long line, String shortUrl, boolean isCustom) {
+    }
+}
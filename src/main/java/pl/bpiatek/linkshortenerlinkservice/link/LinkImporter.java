@@ -0,0 +1,419 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportError;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportResponse;
+import pl.bpiatek.linkshortenerlinkservice.exception.BlockedContentException;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkImportException;
+import pl.bpiatek.linkshortenerlinkservice.exception.ReservedShortUrlException;
+import pl.bpiatek.linkshortenerlinkservice.exception.ShortCodeAlreadyExistsException;
+import pl.bpiatek.linkshortenerlinkservice.exception.UnableToGenerateUniqueShortUrlException;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkImportRepository.StagedLink;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkImportRepository.StagingWriter;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkOutboxRepository.OutboxMessage;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.temporal.ChronoUnit.MICROS;
+
+class LinkImporter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkImporter.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_FILTER_SKIPS = 10;
+    private static final int EVENT_CHUNK_SIZE = 1000;
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+
+    private final LinkImportRepository importRepository;
+    private final Validator validator;
+    private final UrlScanner urlScanner;
+    private final ContentBlocklist contentBlocklist;
+    private final ReservedWordsValidator reservedWordsValidator;
+    private final ShortUrlGenerator shortUrlGenerator;
+    private final ShortUrlFilter shortUrlFilter;
+    private final LinkOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations transaction;
+    private final Clock clock;
+    private final Executor validationExecutor;
+    private final Path importDirectory;
+    private final int maxChunksInFlight;
+    private final int chunkSize;
+    private final int maxGenerationAttempts;
+
+    private final AtomicInteger activeImports = new AtomicInteger();
+    private final AtomicLong rowsInProgress = new AtomicLong();
+    private final Counter readCounter;
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+    private final Counter conflictedCounter;
+    private final Timer importTimer;
+
+    LinkImporter(LinkImportRepository importRepository,
+                 Validator validator,
+                 UrlScanner urlScanner,
+                 ContentBlocklist contentBlocklist,
+                 ReservedWordsValidator reservedWordsValidator,
+                 ShortUrlGenerator shortUrlGenerator,
+                 ShortUrlFilter shortUrlFilter,
+                 LinkOutboxRepository outboxRepository,
+                 ObjectMapper objectMapper,
+                 TransactionOperations transaction,
+                 Clock clock,
+                 MeterRegistry meterRegistry,
+                 Executor validationExecutor,
+                 Path importDirectory,
+                 int parallelism,
+                 int chunkSize,
+                 int maxGenerationAttempts) {
+        this.importRepository = importRepository;
+        this.validator = validator;
+        this.urlScanner = urlScanner;
+        this.contentBlocklist = contentBlocklist;
+        this.reservedWordsValidator = reservedWordsValidator;
+        this.shortUrlGenerator = shortUrlGenerator;
+        this.shortUrlFilter = shortUrlFilter;
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.transaction = transaction;
+        this.clock = clock;
+        this.validationExecutor = validationExecutor;
+        this.importDirectory = importDirectory == null ? null : importDirectory.toAbsolutePath().normalize();
+        // Reading stops while this many chunks wait for validation or for the COPY,
+        // which is what keeps memory flat however large the input is.
+        this.maxChunksInFlight = parallelism * 2;
+        this.chunkSize = chunkSize;
+        this.maxGenerationAttempts = maxGenerationAttempts;
+
+        Gauge.builder("link.import.active", activeImports, AtomicInteger::get)
+                .description("Number of link imports currently running")
+                .register(meterRegistry);
+        Gauge.builder("link.import.progress", rowsInProgress, AtomicLong::get)
+                .description("Rows read so far by the link imports that are still running")
+                .register(meterRegistry);
+        this.readCounter = rowsCounter(meterRegistry, "read", "Number of rows read by link imports");
+        this.importedCounter = rowsCounter(meterRegistry, "imported", "Number of rows imported as new links");
+        this.rejectedCounter = rowsCounter(meterRegistry, "rejected", "Number of import rows rejected by validation");
+        this.conflictedCounter = rowsCounter(meterRegistry, "conflicted", "Number of valid import rows left out because of a short url conflict");
+        this.importTimer = Timer.builder("link.import.duration")
+                .description("Time taken to stage and merge a whole link import")
+                .register(meterRegistry);
+    }
+
+    // The body is spooled to a temp file first, so the transaction only starts once the upload
+    // is complete and a slow client never holds a pooled connection.
+    LinkImportResponse importStream(String userId, String contentType, InputStream body) {
+        var spooled = spool(body);
+        try (var fileReader = Files.newBufferedReader(spooled, UTF_8)) {
+            return run(userId, LinkImportReader.forContentType(contentType, fileReader, objectMapper));
+        } catch (IOException e) {
+            throw new LinkImportException("Failed to read the import input: " + e.getMessage(), e);
+        } finally {
+            deleteSpooled(spooled);
+        }
+    }
+
+    LinkImportResponse importFile(String userId, String fileName) {
+        var file = resolveImportFile(fileName);
+        try (var fileReader = Files.newBufferedReader(file, UTF_8)) {
+            return run(userId, LinkImportReader.forFileName(fileName, fileReader, objectMapper));
+        } catch (IOException e) {
+            throw new LinkImportException("Could not read import file: " + fileName, e);
+        }
+    }
+
+    private static Path spool(InputStream body) {
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("link-import-", ".upload");
+            Files.copy(body, spooled, StandardCopyOption.REPLACE_EXISTING);
+            return spooled;
+        } catch (IOException e) {
+            deleteSpooled(spooled);
+            throw new LinkImportException("Failed to read the import input: " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteSpooled(Path spooled) {
+        if (spooled == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled import input: {}", spooled, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (validationExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private LinkImportResponse run(String userId, LinkImportReader reader) {
+        var progress = new ImportProgress(clock.instant());
+        var importedAt = clock.instant().truncatedTo(MICROS);
+        activeImports.incrementAndGet();
+        var sample = Timer.start();
+        try {
+            var imported = transaction.execute(status -> stageAndMerge(userId, reader, importedAt, progress));
+            progress.imported = imported == null ? 0 : imported;
+            importedCounter.increment(progress.imported);
+            rejectedCounter.increment(progress.rejected);
+            conflictedCounter.increment(progress.conflicted);
+        } catch (UncheckedIOException e) {
+            throw new LinkImportException("Failed to read the import input: " + e.getCause().getMessage(), e);
+        } finally {
+            sample.stop(importTimer);
+            rowsInProgress.addAndGet(-progress.read);
+            activeImports.decrementAndGet();
+        }
+
+        log.info("Imported {} of {} links for user: {} ({} rejected, {} conflicted) in {} ms.",
+                progress.imported, progress.read, userId, progress.rejected, progress.conflicted, progress.elapsed(clock.instant()).toMillis());
+        return new LinkImportResponse(progress.read, progress.imported, progress.rejected, progress.conflicted, List.copyOf(progress.errors));
+    }
+
+    private long stageAndMerge(String userId, LinkImportReader reader, Instant importedAt, ImportProgress progress) {
+        importRepository.createStagingTable();
+        try (var writer = importRepository.openStagingWriter()) {
+            // Chunks are validated in parallel but written in input order, so the earliest
+            // line always wins a short url conflict.
+            var inFlight = new ArrayDeque<CompletableFuture<List<ValidatedRow>>>();
+            List<ImportRow> chunk;
+            while (!(chunk = readChunk(reader, progress)).isEmpty()) {
+                var rows = chunk;
+                inFlight.add(CompletableFuture.supplyAsync(() -> validate(rows), validationExecutor));
+                if (inFlight.size() >= maxChunksInFlight) {
+                    stage(inFlight.poll(), writer, progress);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                stage(inFlight.poll(), writer, progress);
+            }
+            writer.finish();
+        }
+
+        var imported = importRepository.mergeStaged(userId, importedAt);
+        for (int attempt = 1; attempt < maxGenerationAttempts; attempt++) {
+            var randomLines = importRepository.findStagedRandomLines();
+            if (randomLines.isEmpty()) {
+                break;
+            }
+            importRepository.reassignShortUrls(randomLines.stream()
+                    .collect(Collectors.toMap(Function.identity(), line -> generateNotKnownTaken())));
+            imported += importRepository.mergeStaged(userId, importedAt);
+        }
+        if (imported > 0) {
+            recordImported(userId, importedAt);
+        }
+
+        progress.conflicted = importRepository.countStaged();
+        if (progress.conflicted > 0) {
+            importRepository.findStagedConflicts(MAX_REPORTED_ERRORS).forEach(conflict -> progress.error(conflict.line(), conflict.isCustom()
+                    ? new ShortCodeAlreadyExistsException(conflict.shortUrl()).getMessage()
+                    : new UnableToGenerateUniqueShortUrlException(maxGenerationAttempts).getMessage()));
+        }
+        return imported;
+    }
+
+    private List<ImportRow> readChunk(LinkImportReader reader, ImportProgress progress) {
+        var chunk = new ArrayList<ImportRow>(chunkSize);
+        try {
+            ImportRow row;
+            while (chunk.size() < chunkSize && (row = reader.next()) != null) {
+                chunk.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        progress.read += chunk.size();
+        rowsInProgress.addAndGet(chunk.size());
+        readCounter.increment(chunk.size());
+        if (progress.read / PROGRESS_LOG_INTERVAL != (progress.read - chunk.size()) / PROGRESS_LOG_INTERVAL) {
+            var seconds = Math.max(progress.elapsed(clock.instant()).toMillis(), 1) / 1000.0;
+            log.info("Link import progress: {} rows read, {} rejected, {} rows/s.",
+                    progress.read, progress.rejected, String.format("%.0f", progress.read / seconds));
+        }
+        return chunk;
+    }
+
+    private void stage(CompletableFuture<List<ValidatedRow>> validation, StagingWriter writer, ImportProgress progress) {
+        List<ValidatedRow> rows;
+        try {
+            rows = validation.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        for (var row : rows) {
+            if (row.error() != null) {
+                progress.rejected++;
+                progress.error(row.line(), row.error());
+            } else {
+                writer.write(row.link());
+            }
+        }
+    }
+
+    private List<ValidatedRow> validate(List<ImportRow> rows) {
+        var validated = new ArrayList<ValidatedRow>(rows.size());
+        for (var row : rows) {
+            validated.add(validate(row));
+        }
+        return validated;
+    }
+
+    private ValidatedRow validate(ImportRow row) {
+        if (row.error() != null) {
+            return ValidatedRow.rejected(row.line(), row.error());
+        }
+
+        var violations = validator.validate(new CreateLinkRequest(row.longUrl(), row.shortUrl(), row.isActive(), row.title()));
+        if (!violations.isEmpty()) {
+            return ValidatedRow.rejected(row.line(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        var shortUrl = row.shortUrl();
+        var isCustom = shortUrl != null && !shortUrl.isBlank();
+        var scanned = urlScanner.scan(row.longUrl());
+        if (scanned.isEmpty()) {
+            return ValidatedRow.rejected(row.line(), "A valid URL format is required.");
+        }
+
+        var canonical = scanned.get().canonical();
+        try {
+            contentBlocklist.screen(shortUrl, canonical);
+            if (isCustom) {
+                reservedWordsValidator.validate(shortUrl);
+            }
+        } catch (BlockedContentException | ReservedShortUrlException e) {
+            return ValidatedRow.rejected(row.line(), e.getMessage());
+        }
+
+        var link = new StagedLink(row.line(), isCustom ? shortUrl : generateNotKnownTaken(), canonical, Xxh64.hash(canonical),
+                row.title(), row.isActive() == null || row.isActive(), isCustom, row.expiresAt());
+        return new ValidatedRow(row.line(), link, null);
+    }
+
+    // Imported links go through the same channels as created ones: the short url filter learns
+    // their codes, and their LinkCreated events go into the outbox in bursts of EVENT_CHUNK_SIZE,
+    // within the import's transaction so the events commit together with the links.
+    private void recordImported(String userId, Instant importedAt) {
+        var chunk = new ArrayList<Link>(EVENT_CHUNK_SIZE);
+        importRepository.forEachImported(userId, importedAt, EVENT_CHUNK_SIZE, link -> {
+            chunk.add(link);
+            if (chunk.size() == EVENT_CHUNK_SIZE) {
+                record(chunk);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            record(chunk);
+        }
+    }
+
+    private void record(List<Link> links) {
+        shortUrlFilter.onLinksCreated(new LinksCreatedApplicationEvent(List.copyOf(links)));
+        var now = clock.instant();
+        outboxRepository.saveAll(links.stream()
+                .map(link -> new OutboxMessage(String.valueOf(link.id()), LinkCreatedKafkaProducer.toEvent(link).toByteArray(), now))
+                .toList());
+    }
+
+    private String generateNotKnownTaken() {
+        var shortUrl = shortUrlGenerator.generate();
+        for (int i = 0; i < MAX_FILTER_SKIPS && shortUrlFilter.isKnownTaken(shortUrl); i++) {
+            shortUrl = shortUrlGenerator.generate();
+        }
+        return shortUrl;
+    }
+
+    private Path resolveImportFile(String fileName) {
+        if (importDirectory == null) {
+            throw new LinkImportException("Importing from local files is disabled.");
+        }
+
+        var file = importDirectory.resolve(fileName).normalize();
+        if (!file.startsWith(importDirectory) || !Files.isRegularFile(file)) {
+            throw new LinkImportException("Import file not found: " + fileName);
+        }
+        return file;
+    }
+
+    private static Counter rowsCounter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("link.import.rows")
+                .description(description)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record ValidatedRow(long line, StagedLink link, String error) {
+
+        static ValidatedRow rejected(long line, String error) {
+            return new ValidatedRow(line, null, error);
+        }
+    }
+
+    private static final class ImportProgress {
+
+        private final Instant startedAt;
+        private final List<LinkImportError> errors = new ArrayList<>();
+        private long read;
+        private long imported;
+        private long rejected;
+        private long conflicted;
+
+        private ImportProgress(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        void error(long line, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new LinkImportError(line, message));
+            }
+        }
+
+        Duration elapsed(Instant now) {
+            return Duration.between(startedAt, now);
+        }
+    }
+}
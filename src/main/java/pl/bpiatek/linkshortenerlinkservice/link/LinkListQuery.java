@@ -0,0 +1,14 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Instant;
+
+// Null filters are not applied; after is null for the first page.
+record LinkListQuery(
+        String userId,
+        Boolean isActive,
+        Boolean isCustom,
+        Instant createdFrom,
+        Instant createdTo,
+        LinkCursor after,
+        int limit) {
+}
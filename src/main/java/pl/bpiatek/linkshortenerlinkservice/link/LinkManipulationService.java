@@ -5,31 +5,32 @@ import org.springframework.transaction.annotation.Transactional;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkDto;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.UpdateLinkRequest;
 import pl.bpiatek.linkshortenerlinkservice.exception.LinkNotFoundException;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
 
 import java.time.Clock;
 
-import static java.time.temporal.ChronoUnit.DAYS;
-import static pl.bpiatek.linkshortenerlinkservice.link.UrlSanitizer.prependProtocolIfMissing;
-
 class LinkManipulationService {
 
     private final  LinkRepository linkRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final Clock clock;
     private final LinkMapper linkMapper;
-    private final  Integer olderThanInDays;
+    private final UrlScanner urlScanner;
+    private final ContentBlocklist contentBlocklist;
 
     LinkManipulationService(
             LinkRepository linkRepository,
             ApplicationEventPublisher eventPublisher,
             Clock clock,
             LinkMapper linkMapper,
-            Integer days) {
+            UrlScanner urlScanner,
+            ContentBlocklist contentBlocklist) {
         this.linkRepository = linkRepository;
         this.eventPublisher = eventPublisher;
         this.clock = clock;
         this.linkMapper = linkMapper;
-        this.olderThanInDays = days;
+        this.urlScanner = urlScanner;
+        this.contentBlocklist = contentBlocklist;
     }
 
     @Transactional
@@ -38,9 +39,12 @@ class LinkManipulationService {
         var existingLink = linkRepository.findByIdAndUserId(linkId, userId)
                 .orElseThrow(() -> new LinkNotFoundException("Link not found or access denied"));
 
-        var cleanUrl = request.longUrl() != null
-                ? prependProtocolIfMissing(request.longUrl())
-                : existingLink.longUrl();
+        var cleanUrl = existingLink.longUrl();
+        if (request.longUrl() != null) {
+            cleanUrl = urlScanner.canonicalize(request.longUrl());
+            // The short URL is unchanged, only the new destination needs screening.
+            contentBlocklist.screen(null, cleanUrl);
+        }
 
         var updatedLink = new Link(
                 existingLink.id(),
@@ -72,10 +76,4 @@ class LinkManipulationService {
 
         eventPublisher.publishEvent(new LinkDeletedApplicationEvent(link));
     }
-
-    @Transactional
-    public int releaseDeactivatedVanityLinks() {
-        var cutoffDate = clock.instant().minus(olderThanInDays, DAYS);
-        return linkRepository.deleteDeactivatedCustomLinksOlderThan(cutoffDate);
-    }
 }
@@ -2,6 +2,7 @@ package pl.bpiatek.linkshortenerlinkservice.link;
 
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkResponse;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkDto;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkSummaryDto;
 
 class LinkMapper {
 
@@ -33,4 +34,17 @@ class LinkMapper {
                 link.expiresAt()
         );
     }
+
+    LinkSummaryDto toLinkSummaryDto(LinkSummary link) {
+        return new LinkSummaryDto(
+                String.valueOf(link.id()),
+                link.shortUrl(),
+                link.longUrl(),
+                link.title(),
+                link.isActive(),
+                link.isCustom(),
+                link.createdAt(),
+                link.expiresAt()
+        );
+    }
 }
@@ -0,0 +1,262 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkOutboxRepository.OutboxMessage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Drains link_outbox to Kafka. Events of different links in a batch are handed to the producer
+// together, but a link's next event only goes out once its previous one is acknowledged, and a
+// link whose send fails gets nothing more until the next poll retries it from that event. Only
+// acknowledged rows are deleted, so delivery is at least once and in order per link.
+class LinkOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(LinkOutboxRelay.class);
+
+    private static final String SOURCE_HEADER_VALUE = "link-service";
+
+    private final LinkOutboxRepository outboxRepository;
+    private final KafkaSendWindow sendWindow;
+    private final String topicName;
+    private final TransactionOperations transaction;
+    private final Clock clock;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration coalesceWindow;
+    private final String relayId = UUID.randomUUID().toString();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final DistributionSummary batchSizeSummary;
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final Counter coalescedCounter;
+
+    LinkOutboxRelay(LinkOutboxRepository outboxRepository,
+                    KafkaSendWindow sendWindow,
+                    String topicName,
+                    TransactionOperations transaction,
+                    Clock clock,
+                    MeterRegistry meterRegistry,
+                    int batchSize,
+                    Duration sendTimeout,
+                    Duration coalesceWindow) {
+        this.outboxRepository = outboxRepository;
+        this.sendWindow = sendWindow;
+        this.topicName = topicName;
+        this.transaction = transaction;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.coalesceWindow = coalesceWindow;
+
+        TimeGauge.builder("link.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest event waiting in the outbox at the last poll")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("link.outbox.batch.size")
+                .description("Number of outbox events sent per relay batch")
+                .register(meterRegistry);
+        this.relayedCounter = Counter.builder("link.outbox.relayed")
+                .description("Number of outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("link.outbox.failed")
+                .description("Number of outbox events that failed to send")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("link.events.updates.coalesced")
+                .description("Number of LinkUpdated events dropped because a later update or delete superseded them")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${link.events.outbox.poll-interval-ms:200}")
+    void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("Error occurred while relaying the link outbox", e);
+        }
+    }
+
+    // Reading and deleting run in short transactions of their own, and no connection is held while
+    // Kafka acknowledges. The lease keeps other instances off the outbox meanwhile; it outlives the
+    // batch's send deadline, so it cannot lapse while this relay still has events in flight.
+    int relayBatch() {
+        var batch = transaction.execute(status -> outboxRepository.tryAcquireRelayLease(relayId, sendTimeout.multipliedBy(2))
+                ? outboxRepository.findOldest(batchSize)
+                : null);
+        if (batch == null) {
+            return 0;
+        }
+
+        lagMillis.set(batch.isEmpty() ? 0 : Duration.between(batch.getFirst().createdAt(), clock.instant()).toMillis());
+        var events = coalesceWindow.isZero() ? Map.<Long, LinkLifecycleEvent>of() : readable(batch);
+        if (!coalesceWindow.isZero()) {
+            var heldBack = heldBack(batch, events);
+            batch = batch.stream().filter(message -> !heldBack.contains(message.id())).toList();
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batchSizeSummary.record(batch.size());
+
+        var superseded = coalesceWindow.isZero() ? Set.<Long>of() : supersededUpdates(batch, events);
+        var sent = sendInLinkOrder(batch.stream().filter(message -> !superseded.contains(message.id())).toList());
+        var done = batch.stream()
+                .map(OutboxMessage::id)
+                .filter(id -> superseded.contains(id) || sent.contains(id))
+                .toList();
+
+        coalescedCounter.increment(superseded.size());
+        relayedCounter.increment(sent.size());
+        transaction.executeWithoutResult(status -> outboxRepository.deleteByIds(done));
+        return done.size();
+    }
+
+    // Sends in rounds of at most one event per link, stopping a link at its first failure.
+    private Set<Long> sendInLinkOrder(List<OutboxMessage> messages) {
+        var sent = new HashSet<Long>();
+        var failedKeys = new HashSet<String>();
+        var deadline = System.nanoTime() + sendTimeout.toNanos();
+        var pending = messages;
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            var round = new ArrayList<OutboxMessage>();
+            var later = new ArrayList<OutboxMessage>();
+            var keysInRound = new HashSet<String>();
+            for (var message : pending) {
+                if (failedKeys.contains(message.key())) {
+                    continue;
+                }
+                (keysInRound.add(message.key()) ? round : later).add(message);
+            }
+
+            var sends = round.stream().map(this::send).toList();
+            for (int i = 0; i < round.size(); i++) {
+                var message = round.get(i);
+                if (awaitSent(message, sends.get(i), deadline)) {
+                    sent.add(message.id());
+                } else {
+                    failedKeys.add(message.key());
+                    failedCounter.increment();
+                }
+            }
+            pending = later;
+        }
+        return sent;
+    }
+
+    // A link whose earliest pending update is younger than the window is held back from that update
+    // on, so updates arriving within the window of the first one go out together as its latest row.
+    private Set<Long> heldBack(List<OutboxMessage> batch, Map<Long, LinkLifecycleEvent> events) {
+        var cutoff = clock.instant().minus(coalesceWindow);
+        var heldBack = new HashSet<Long>();
+        var heldKeys = new HashSet<String>();
+        var updatedKeys = new HashSet<String>();
+        for (var message : batch) {
+            var event = events.get(message.id());
+            if (heldKeys.contains(message.key())) {
+                heldBack.add(message.id());
+            } else if (event != null && event.hasLinkUpdated() && updatedKeys.add(message.key()) && message.createdAt().isAfter(cutoff)) {
+                heldKeys.add(message.key());
+                heldBack.add(message.id());
+            }
+        }
+        return heldBack;
+    }
+
+    // LinkUpdated events followed later in the batch by another update or a delete of the same link;
+    // every update carries the link's full state, so only the last one needs to go out.
+    private static Set<Long> supersededUpdates(List<OutboxMessage> batch, Map<Long, LinkLifecycleEvent> events) {
+        var superseded = new HashSet<Long>();
+        var changedLater = new HashSet<String>();
+        for (var message : batch.reversed()) {
+            var event = events.get(message.id());
+            if (event == null) {
+                continue;
+            }
+            if (event.hasLinkUpdated() && !changedLater.add(message.key())) {
+                superseded.add(message.id());
+            } else if (event.hasLinkDeleted()) {
+                changedLater.add(message.key());
+            }
+        }
+        return superseded;
+    }
+
+    private static Map<Long, LinkLifecycleEvent> readable(List<OutboxMessage> batch) {
+        var events = new HashMap<Long, LinkLifecycleEvent>();
+        for (var message : batch) {
+            try {
+                events.put(message.id(), LinkLifecycleEvent.parseFrom(message.payload()));
+            } catch (InvalidProtocolBufferException e) {
+                // Left to send(), which discards it.
+            }
+        }
+        return events;
+    }
+
+    private CompletableFuture<SendResult<String, LinkLifecycleEvent>> send(OutboxMessage message) {
+        try {
+            var event = LinkLifecycleEvent.parseFrom(message.payload());
+            var producerRecord = new ProducerRecord<>(topicName, message.key(), event);
+            producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
+            return sendWindow.send(producerRecord, eventType(event));
+        } catch (InvalidProtocolBufferException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitSent(OutboxMessage message, CompletableFuture<SendResult<String, LinkLifecycleEvent>> send, long deadline) {
+        try {
+            send.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            // Retrying an unreadable payload would block the outbox for good, so it is dropped.
+            if (e.getCause() instanceof InvalidProtocolBufferException) {
+                log.error("Discarding unreadable outbox event {} for key: {}", message.id(), message.key(), e.getCause());
+                return true;
+            }
+            log.error("Failed to relay outbox event {} for key: {}. Reason: {}", message.id(), message.key(), e.getMessage(), e);
+            return false;
+        } catch (TimeoutException e) {
+            log.error("Timed out relaying outbox event {} for key: {}", message.id(), message.key());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static String eventType(LinkLifecycleEvent event) {
+        if (event.hasLinkCreated()) {
+            return "LinkCreated";
+        }
+        return event.hasLinkUpdated() ? "LinkUpdated" : "LinkDeleted";
+    }
+}
@@ -0,0 +1,26 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+interface LinkOutboxRepository {
+
+    void saveAll(List<OutboxMessage> messages);
+
+    // Takes or renews the lease for the given relay, so only one relay drains the outbox at a time
+    // and keeps events in order. Another relay may take over once the lease has run out.
+    boolean tryAcquireRelayLease(String relayId, Duration lease);
+
+    List<OutboxMessage> findOldest(int limit);
+
+    int deleteByIds(Collection<Long> ids);
+
+    record OutboxMessage(Long id, String key, byte[] payload, Instant createdAt) {
+
+        OutboxMessage(String key, byte[] payload, Instant createdAt) {
+            this(null, key, payload, createdAt);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkOutboxRepository.OutboxMessage;
+
+import java.time.Clock;
+import java.util.List;
+
+// Records lifecycle events in the link_outbox table before the link change commits, so an event
+// exists if and only if the change does. LinkOutboxRelay takes them to Kafka from there.
+class LinkOutboxWriter {
+
+    private final LinkOutboxRepository outboxRepository;
+    private final Clock clock;
+
+    LinkOutboxWriter(LinkOutboxRepository outboxRepository, Clock clock) {
+        this.outboxRepository = outboxRepository;
+        this.clock = clock;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    void handleLinkCreatedEvent(LinkCreatedApplicationEvent event) {
+        outboxRepository.saveAll(List.of(message(event.link(), LinkCreatedKafkaProducer.toEvent(event.link()))));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    void handleLinksCreatedEvent(LinksCreatedApplicationEvent event) {
+        outboxRepository.saveAll(event.links().stream()
+                .map(link -> message(link, LinkCreatedKafkaProducer.toEvent(link)))
+                .toList());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    void handleLinkUpdatedEvent(LinkUpdatedApplicationEvent event) {
+        outboxRepository.saveAll(List.of(message(event.link(), LinkUpdatedKafkaProducer.toEvent(event.link()))));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    void handleLinkDeletedEvent(LinkDeletedApplicationEvent event) {
+        outboxRepository.saveAll(List.of(message(event.link(), LinkDeletedKafkaProducer.toEvent(event.link(), clock.instant()))));
+    }
+
+    private OutboxMessage message(Link link, LinkLifecycleEvent event) {
+        return new OutboxMessage(String.valueOf(link.id()), event.toByteArray(), clock.instant());
+    }
+}
@@ -1,22 +1,49 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 interface LinkRepository {
 
     Link save(Link link);
 
+    Optional<Link> tryInsert(Link link);
+
+    Optional<Link> tryInsertFirstFree(Link link, List<String> candidateShortUrls);
+
+    List<Link> insertAllIgnoringConflicts(List<Link> links);
+
     Optional<Link> findByShortUrl(String shortUrl);
 
     List<Link> findByUserId(String userId);
 
+    List<LinkSummary> findPage(LinkListQuery query);
+
+    void forEachByUserId(String userId, int fetchSize, Consumer<Link> action);
+
+    Optional<Link> findActiveByUserIdAndLongUrl(String userId, String longUrl);
+
     void update(Link link);
 
     Optional<Link> findByIdAndUserId(Long id, String userId);
 
     void deleteByIdAndUserId(Long id, String userId);
 
-    int deleteDeactivatedCustomLinksOlderThan(Instant cutoffDate);
+    List<Link> deleteDeactivatedCustomLinksOlderThan(Instant cutoffDate, int limit);
+
+    List<Link> expireDue(Instant now, LinkExpiryAction action, int limit);
+
+    List<Link> expireDueByIds(Collection<Long> ids, Instant now, LinkExpiryAction action);
+
+    List<ExpiringLink> findExpiringBetween(Instant from, Instant to, int limit);
+
+    void forEachShortUrl(int fetchSize, Consumer<String> action);
+
+    long estimateCount();
+
+    record ExpiringLink(long id, Instant expiresAt) {
+    }
 }
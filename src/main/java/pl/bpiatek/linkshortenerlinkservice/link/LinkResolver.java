@@ -0,0 +1,125 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.ResolvedLinkDto;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkNotFoundException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+class LinkResolver {
+
+    private static final Pattern SHORT_URL_PATTERN = Pattern.compile("^[a-zA-Z0-9-_]{1,64}$");
+    // Rough cost of the entry, key and value objects on top of their characters.
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final CachedLink MISSING = new CachedLink(null, null, false, null);
+
+    private final AsyncLoadingCache<String, CachedLink> cache;
+    private final Clock clock;
+    private final Timer resolveTimer;
+
+    // Loads run on loadExecutor rather than inside the cache's compute, so a slow query never holds
+    // a map lock, and concurrent misses for one code all wait on the same future. They stay off the
+    // read replicas, since a lagging replica would put a stale link back right after an eviction.
+    LinkResolver(LinkRepository linkRepository,
+                 Clock clock,
+                 MeterRegistry meterRegistry,
+                 Executor loadExecutor,
+                 long maxWeightBytes,
+                 Duration ttl,
+                 Duration negativeTtl) {
+        this.clock = clock;
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .executor(loadExecutor)
+                .maximumWeight(maxWeightBytes)
+                .weigher((String shortUrl, CachedLink link) -> weigh(shortUrl, link))
+                .expireAfter(Expiry.creating((String shortUrl, CachedLink link) -> timeToLive(link, ttl, negativeTtl)))
+                .recordStats()
+                .buildAsync((String shortUrl) -> linkRepository.findByShortUrl(shortUrl)
+                        .map(CachedLink::of)
+                        .orElse(MISSING)), "link.resolve");
+        this.resolveTimer = Timer.builder("link.resolve.duration")
+                .description("Time taken to resolve a short url, cache hits included")
+                .publishPercentiles(0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    ResolvedLinkDto resolve(String shortUrl) {
+        return resolveTimer.record(() -> {
+            // Anything that could never be a short url is turned away before it can take a cache slot.
+            if (shortUrl == null || !SHORT_URL_PATTERN.matcher(shortUrl).matches()) {
+                throw notFound();
+            }
+
+            var link = load(shortUrl.toLowerCase(Locale.ROOT));
+            if (link == MISSING || !link.isActive() || link.isExpiredAt(clock.instant())) {
+                throw notFound();
+            }
+            return new ResolvedLinkDto(link.shortUrl(), link.longUrl(), link.expiresAt());
+        });
+    }
+
+    void evict(String shortUrl) {
+        cache.synchronous().invalidate(shortUrl.toLowerCase(Locale.ROOT));
+    }
+
+    void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private CachedLink load(String key) {
+        try {
+            return cache.get(key).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // short_url is CITEXT, so the key is lowercased and an entry never outlives the link's expires_at.
+    private Duration timeToLive(CachedLink link, Duration ttl, Duration negativeTtl) {
+        if (link == MISSING) {
+            return negativeTtl;
+        }
+        if (link.expiresAt() == null) {
+            return ttl;
+        }
+
+        var untilExpiry = Duration.between(clock.instant(), link.expiresAt());
+        return untilExpiry.isNegative() ? Duration.ZERO : untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private static int weigh(String shortUrl, CachedLink link) {
+        var chars = shortUrl.length() + length(link.shortUrl()) + length(link.longUrl());
+        return ENTRY_OVERHEAD_BYTES + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static LinkNotFoundException notFound() {
+        return new LinkNotFoundException("Link not found");
+    }
+
+    private record CachedLink(String shortUrl, String longUrl, boolean isActive, Instant expiresAt) {
+
+        static CachedLink of(Link link) {
+            return new CachedLink(link.shortUrl(), link.longUrl(), link.isActive(), link.expiresAt());
+        }
+
+        boolean isExpiredAt(Instant now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
+import org.springframework.transaction.annotation.Transactional;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkDto;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkListRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkPageResponse;
 import pl.bpiatek.linkshortenerlinkservice.exception.LinkNotFoundException;
 
 class LinkRetriever {
@@ -13,9 +16,23 @@ class LinkRetriever {
         this.linkMapper = linkMapper;
     }
 
+    @Transactional(readOnly = true)
     LinkDto getLink(String userId, Long linkId) {
         return linkRepository.findByIdAndUserId(linkId, userId)
                 .map(linkMapper::toLinkDto)
                 .orElseThrow(() -> new LinkNotFoundException("Link not found or access denied"));
     }
+
+    // One row more than the page is fetched to tell whether another page follows.
+    @Transactional(readOnly = true)
+    LinkPageResponse listLinks(String userId, LinkListRequest request) {
+        var after = request.cursor() == null || request.cursor().isBlank() ? null : LinkCursor.decode(request.cursor());
+        var limit = request.limit();
+        var rows = linkRepository.findPage(new LinkListQuery(userId, request.isActive(), request.isCustom(),
+                request.createdFrom(), request.createdTo(), after, limit + 1));
+
+        var page = rows.size() > limit ? rows.subList(0, limit) : rows;
+        var nextCursor = rows.size() > limit ? LinkCursor.of(page.getLast()).encode() : null;
+        return new LinkPageResponse(page.stream().map(linkMapper::toLinkSummaryDto).toList(), nextCursor);
+    }
 }
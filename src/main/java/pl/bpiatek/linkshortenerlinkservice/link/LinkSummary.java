@@ -0,0 +1,15 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Instant;
+
+// The columns the link list needs, without notes.
+record LinkSummary(
+        long id,
+        String shortUrl,
+        String longUrl,
+        String title,
+        boolean isActive,
+        boolean isCustom,
+        Instant createdAt,
+        Instant expiresAt) {
+}
@@ -0,0 +1,88 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Holds a link's updates for a short window, counted from the first one, and then emits only the
+// latest state. A delete goes through bypass(), which drops the pending update. Emitting and
+// bypassing happen outside the map, but under a per-link stripe lock, so an update never follows
+// its link's delete. A zero window passes every update straight through.
+class LinkUpdateCoalescer implements AutoCloseable {
+
+    private static final int EMIT_LOCK_STRIPES = 64;
+
+    private final Duration window;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Object[] emitLocks = new Object[EMIT_LOCK_STRIPES];
+    private final Counter coalescedCounter;
+
+    LinkUpdateCoalescer(Duration window, ScheduledExecutorService scheduler, MeterRegistry meterRegistry) {
+        this.window = window;
+        this.scheduler = scheduler;
+        Arrays.setAll(emitLocks, i -> new Object());
+        this.coalescedCounter = Counter.builder("link.events.updates.coalesced")
+                .description("Number of LinkUpdated events dropped because a later update or delete superseded them")
+                .register(meterRegistry);
+        Gauge.builder("link.events.updates.pending", pending, Map::size)
+                .description("Number of links with an update waiting in the coalescing window")
+                .register(meterRegistry);
+    }
+
+    void submit(Link link, Consumer<Link> emit) {
+        if (window.isZero()) {
+            emit.accept(link);
+            return;
+        }
+        pending.compute(link.id(), (linkId, previous) -> {
+            if (previous == null) {
+                scheduler.schedule(() -> flush(linkId), window.toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                coalescedCounter.increment();
+            }
+            return new Pending(link, emit);
+        });
+    }
+
+    void bypass(long linkId, Runnable dispatch) {
+        synchronized (emitLock(linkId)) {
+            if (pending.remove(linkId) != null) {
+                coalescedCounter.increment();
+            }
+            dispatch.run();
+        }
+    }
+
+    // Emits whatever is still waiting, so stopping the service does not lose the final state.
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        List.copyOf(pending.keySet()).forEach(this::flush);
+    }
+
+    private void flush(long linkId) {
+        synchronized (emitLock(linkId)) {
+            var latest = pending.remove(linkId);
+            if (latest != null) {
+                latest.emit().accept(latest.link());
+            }
+        }
+    }
+
+    private Object emitLock(long linkId) {
+        return emitLocks[Math.floorMod(linkId, EMIT_LOCK_STRIPES)];
+    }
+
+    private record Pending(Link link, Consumer<Link> emit) {
+    }
+}
@@ -5,9 +5,11 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto;
 
+import java.util.concurrent.CompletableFuture;
+
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 class LinkUpdatedKafkaProducer {
@@ -15,17 +17,39 @@ class LinkUpdatedKafkaProducer {
     private static final Logger log = LoggerFactory.getLogger(LinkUpdatedKafkaProducer.class);
 
     private static final String SOURCE_HEADER_VALUE = "link-service";
+    private static final String EVENT_TYPE = "LinkUpdated";
 
     private final String topicName;
-    private final KafkaTemplate<String, LinkLifecycleEventProto.LinkLifecycleEvent> kafkaTemplate;
+    private final SpoolingEventSender eventSender;
 
-    public LinkUpdatedKafkaProducer(String topicName,
-                                    KafkaTemplate<String, LinkLifecycleEventProto.LinkLifecycleEvent> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public LinkUpdatedKafkaProducer(String topicName, SpoolingEventSender eventSender) {
+        this.eventSender = eventSender;
         this.topicName = topicName;
     }
 
-    void sendLinkUpdatedEvent(Link link) {
+    CompletableFuture<SendResult<String, LinkLifecycleEventProto.LinkLifecycleEvent>> sendLinkUpdatedEvent(Link link) {
+        var producerRecord = new ProducerRecord<>(topicName, String.valueOf(link.id()), toEvent(link));
+        producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
+
+        return eventSender.send(producerRecord, EVENT_TYPE).whenComplete((result, failure) -> {
+            if (failure == null && result == null) {
+                log.warn("Kafka is unavailable, spooled LinkUpdated event for link ID: {}", link.id());
+            } else if (failure == null) {
+                log.info("Successfully published LinkUpdated event for link ID: {} to partition: {} offset: {}",
+                        link.id(),
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset());
+            } else {
+                log.error("Failed to publish LinkUpdated event for link ID: {}, shortURL: {}, reason: {}",
+                        link.id(),
+                        link.shortUrl(),
+                        failure.getMessage(),
+                        failure);
+            }
+        });
+    }
+
+    static LinkLifecycleEventProto.LinkLifecycleEvent toEvent(Link link) {
         var updatedPayload = LinkLifecycleEventProto.LinkUpdated.newBuilder()
                 .setLinkId(String.valueOf(link.id()))
                 .setUserId(link.userId())
@@ -38,25 +62,8 @@ class LinkUpdatedKafkaProducer {
                 .setTitle(link.title() == null ? "" : link.title())
                 .build();
 
-        var eventToSend = LinkLifecycleEventProto.LinkLifecycleEvent.newBuilder()
+        return LinkLifecycleEventProto.LinkLifecycleEvent.newBuilder()
                 .setLinkUpdated(updatedPayload)
                 .build();
-
-        var producerRecord = new ProducerRecord<>(topicName, String.valueOf(link.id()), eventToSend);
-        producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
-
-        try {
-            var result = kafkaTemplate.send(producerRecord).get();
-            log.info("Successfully published LinkUpdated event for link ID: {} to partition: {} offset: {}",
-                    link.id(),
-                    result.getRecordMetadata().partition(),
-                    result.getRecordMetadata().offset());
-        } catch (Exception e) {
-            log.error("Failed to publish LinkUpdated event for link ID: {}, shortURL: {}, reason: {}",
-                    link.id(),
-                    link.shortUrl(),
-                    e.getMessage(),
-                    e);
-        }
     }
 }
@@ -0,0 +1,6 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.List;
+
+record LinksCreatedApplicationEvent(List<Link> links) {
+}
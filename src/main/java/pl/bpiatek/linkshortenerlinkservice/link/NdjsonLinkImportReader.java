@@ -0,0 +1,86 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.format.DateTimeParseException;
+
+class NdjsonLinkImportReader implements LinkImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long physicalLine;
+
+    NdjsonLinkImportReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(reader);
+        this.objectReader = objectMapper.readerFor(NdjsonLink.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        Line line;
+        do {
+            line = readLine();
+            physicalLine++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.text().isBlank() && !line.truncated());
+
+        if (line.truncated()) {
+            return ImportRow.unreadable(physicalLine, "Row exceeds " + CsvLinkImportReader.MAX_RECORD_LENGTH + " characters.");
+        }
+
+        NdjsonLink link;
+        try {
+            link = objectReader.readValue(line.text());
+        } catch (JsonProcessingException e) {
+            return ImportRow.unreadable(physicalLine, "Row is not a valid JSON object.");
+        }
+
+        try {
+            var expiresAt = ImportRow.parseExpiresAt(link.expiresAt());
+            return new ImportRow(physicalLine, link.longUrl(), link.shortUrl(), link.title(), link.isActive(), expiresAt, null);
+        } catch (DateTimeParseException e) {
+            return ImportRow.unreadable(physicalLine, ImportRow.INVALID_EXPIRES_AT);
+        }
+    }
+
+    // Like BufferedReader.readLine, but characters past MAX_RECORD_LENGTH are consumed without being kept.
+    private Line readLine() throws IOException {
+        var text = new StringBuilder();
+        var length = 0;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n') {
+            if (c != '\r') {
+                if (length < CsvLinkImportReader.MAX_RECORD_LENGTH) {
+                    text.append((char) c);
+                }
+                length++;
+            }
+            c = reader.read();
+        }
+        return new Line(text.toString(), length > CsvLinkImportReader.MAX_RECORD_LENGTH);
+    }
+
+    private record Line(String text, boolean truncated) {
+    }
+
+    private record NdjsonLink(
+            @JsonAlias("long_url") String longUrl,
+            @JsonAlias("short_url") String shortUrl,
+            String title,
+            @JsonAlias("is_active") Boolean isActive,
+            @JsonAlias("expires_at") String expiresAt) {
+    }
+}
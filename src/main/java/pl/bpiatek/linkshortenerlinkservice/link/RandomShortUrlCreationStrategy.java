@@ -3,43 +3,101 @@ package pl.bpiatek.linkshortenerlinkservice.link;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkResponse;
 import pl.bpiatek.linkshortenerlinkservice.exception.UnableToGenerateUniqueShortUrlException;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 
 class RandomShortUrlCreationStrategy implements LinkCreationStrategy {
 
     private static final Logger log = LoggerFactory.getLogger(RandomShortUrlCreationStrategy.class);
-    private static final int MAX_GENERATION_ATTEMPTS = 5;
+    private static final int MAX_FILTER_SKIPS = 10;
 
     private final LinkRepository linkRepository;
     private final LinkMapper linkMapper;
     private final ShortUrlGenerator shortUrlGenerator;
+    private final ShortUrlPool shortUrlPool;
+    private final ShortUrlCollisionTracker collisionTracker;
+    private final ShortUrlFilter shortUrlFilter;
+    private final LinkDeduplicator linkDeduplicator;
+    private final int maxGenerationAttempts;
 
-    RandomShortUrlCreationStrategy(LinkRepository linkRepository, LinkMapper linkMapper, ShortUrlGenerator shortUrlGenerator) {
+    RandomShortUrlCreationStrategy(LinkRepository linkRepository,
+                                   LinkMapper linkMapper,
+                                   ShortUrlGenerator shortUrlGenerator,
+                                   ShortUrlPool shortUrlPool,
+                                   ShortUrlCollisionTracker collisionTracker,
+                                   ShortUrlFilter shortUrlFilter,
+                                   LinkDeduplicator linkDeduplicator,
+                                   int maxGenerationAttempts) {
         this.linkRepository = linkRepository;
         this.linkMapper = linkMapper;
         this.shortUrlGenerator = shortUrlGenerator;
+        this.shortUrlPool = shortUrlPool;
+        this.collisionTracker = collisionTracker;
+        this.shortUrlFilter = shortUrlFilter;
+        this.linkDeduplicator = linkDeduplicator;
+        this.maxGenerationAttempts = maxGenerationAttempts;
+    }
+
+    @Override
+    @Transactional
+    public CreateLinkResponse createLink(String userId, String longUrl, String ignoredShortUrl, boolean isActive, String title,
+                                         boolean deduplicate, ApplicationEventPublisher eventPublisher) {
+        // Only an active link can stand in for the requested one; the existing link is returned as is,
+        // so no row is inserted and no event is published.
+        if (deduplicate && isActive) {
+            var existing = linkDeduplicator.findExisting(userId, longUrl);
+            if (existing.isPresent()) {
+                return linkMapper.toCreateLinkResponse(existing.get());
+            }
+        }
+        return createLink(userId, longUrl, ignoredShortUrl, isActive, title, eventPublisher);
     }
 
     @Override
+    @Transactional
     public CreateLinkResponse createLink(String userId, String longUrl, String ignoredShortUrl, boolean isActive, String title, ApplicationEventPublisher eventPublisher) {
-        for (int i = 0; i < MAX_GENERATION_ATTEMPTS; i++) {
-            var generatedShortUrl = shortUrlGenerator.generate();
-            try {
-                var linkToSave = linkMapper.toLink(userId, longUrl, generatedShortUrl, isActive, false, title);
-                var savedLink = linkRepository.save(linkToSave);
-
-                eventPublisher.publishEvent(new LinkCreatedApplicationEvent(savedLink));
-
-                return linkMapper.toCreateLinkResponse(savedLink);
-            } catch (DataIntegrityViolationException e) {
-                // A collision occurred due to the race condition.
-                log.warn("Collision while creating short url: {}", generatedShortUrl);
+        for (int i = 0; i < maxGenerationAttempts; i++) {
+            var pooledShortUrl = shortUrlPool.poll();
+            var candidates = pooledShortUrl.map(List::of).orElseGet(this::generateCandidates);
+
+            var linkToSave = linkMapper.toLink(userId, longUrl, candidates.getFirst(), isActive, false, title);
+            var savedLink = candidates.size() == 1
+                    ? linkRepository.tryInsert(linkToSave)
+                    : linkRepository.tryInsertFirstFree(linkToSave, candidates);
+
+            if (pooledShortUrl.isEmpty()) {
+                var collisions = savedLink.map(link -> candidates.indexOf(link.shortUrl())).orElse(candidates.size());
+                collisionTracker.record(collisions, savedLink.isPresent() ? collisions + 1 : collisions);
             }
+
+            if (savedLink.isPresent()) {
+                eventPublisher.publishEvent(new LinkCreatedApplicationEvent(savedLink.get()));
+                return linkMapper.toCreateLinkResponse(savedLink.get());
+            }
+
+            // A collision occurred due to the race condition.
+            log.warn("Collision while creating short url, candidates: {}", candidates);
+        }
+        throw new UnableToGenerateUniqueShortUrlException(maxGenerationAttempts);
+    }
+
+    private List<String> generateCandidates() {
+        return Stream.generate(this::generateNotKnownTaken)
+                .limit(collisionTracker.candidateCount())
+                .toList();
+    }
+
+    private String generateNotKnownTaken() {
+        var shortUrl = shortUrlGenerator.generate();
+        for (int i = 0; i < MAX_FILTER_SKIPS && shortUrlFilter.isKnownTaken(shortUrl); i++) {
+            shortUrl = shortUrlGenerator.generate();
         }
-        throw new UnableToGenerateUniqueShortUrlException(MAX_GENERATION_ATTEMPTS);
+        return shortUrl;
     }
 
     @Override
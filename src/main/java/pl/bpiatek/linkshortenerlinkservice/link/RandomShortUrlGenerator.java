@@ -0,0 +1,58 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.function.IntSupplier;
+
+class RandomShortUrlGenerator implements ShortUrlGenerator {
+
+    private static final char[] ALPHABET = ALPHANUMERIC_CHARS.toCharArray();
+    // 58^10 is the largest power of the alphabet size that fits in 63 bits.
+    private static final int MAX_CHARS_PER_DRAW = 10;
+    private static final long[] KEYSPACE = new long[MAX_CHARS_PER_DRAW + 1];
+    private static final long[] ACCEPTANCE_LIMIT = new long[MAX_CHARS_PER_DRAW + 1];
+
+    static {
+        KEYSPACE[0] = 1;
+        for (int chars = 1; chars <= MAX_CHARS_PER_DRAW; chars++) {
+            KEYSPACE[chars] = KEYSPACE[chars - 1] * ALPHABET.length;
+            ACCEPTANCE_LIMIT[chars] = Long.MAX_VALUE - (Long.MAX_VALUE % KEYSPACE[chars] + 1) % KEYSPACE[chars];
+        }
+    }
+
+    private static final StripedSecureRandom random = new StripedSecureRandom(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final IntSupplier urlLength;
+
+    public RandomShortUrlGenerator(int urlLength) {
+        this(() -> urlLength);
+    }
+
+    public RandomShortUrlGenerator(IntSupplier urlLength) {
+        this.urlLength = urlLength;
+    }
+
+    @Override
+    public String generate() {
+        int urlLength = this.urlLength.getAsInt();
+        char[] chars = new char[urlLength];
+        for (int position = 0; position < urlLength; position += MAX_CHARS_PER_DRAW) {
+            int count = Math.min(urlLength - position, MAX_CHARS_PER_DRAW);
+            long value = uniform(count);
+            for (int i = position + count - 1; i >= position; i--) {
+                chars[i] = ALPHABET[(int) (value % ALPHABET.length)];
+                value /= ALPHABET.length;
+            }
+        }
+        return new String(chars);
+    }
+
+    // Rejection sampling: only values below the largest multiple of the keyspace are used,
+    // so every code is equally likely.
+    private static long uniform(int chars) {
+        while (true) {
+            long bits = random.nextLong() >>> 1;
+            if (bits <= ACCEPTANCE_LIMIT[chars]) {
+                return bits % KEYSPACE[chars];
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+class ReservedWordsReloader {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservedWordsReloader.class);
+    static final String RESERVED_WORDS_PROPERTY = "link.reserved-words";
+
+    private final ReservedWordsValidator reservedWordsValidator;
+    private final Environment environment;
+
+    ReservedWordsReloader(ReservedWordsValidator reservedWordsValidator, Environment environment) {
+        this.reservedWordsValidator = reservedWordsValidator;
+        this.environment = environment;
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(RESERVED_WORDS_PROPERTY))) {
+            return;
+        }
+
+        var reservedWords = Binder.get(environment)
+                .bind(RESERVED_WORDS_PROPERTY, Bindable.setOf(String.class))
+                .orElse(Set.of());
+        var wordCount = reservedWordsValidator.reload(reservedWords);
+        log.info("Reloaded {} reserved words.", wordCount);
+    }
+}
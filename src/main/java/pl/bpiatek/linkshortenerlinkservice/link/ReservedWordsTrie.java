@@ -0,0 +1,109 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeMap;
+
+// Immutable trie of case-folded words, flattened breadth-first so the children of a node
+// are stored next to each other, sorted by label, and can be binary searched.
+class ReservedWordsTrie {
+
+    private static final char PATH_SEPARATOR = '/';
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final boolean[] terminal;
+    private final int wordCount;
+
+    private ReservedWordsTrie(char[] labels, int[] firstChild, int[] childCount, boolean[] terminal, int wordCount) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.terminal = terminal;
+        this.wordCount = wordCount;
+    }
+
+    static ReservedWordsTrie compile(Collection<String> words) {
+        var root = new BuildNode();
+        var wordCount = 0;
+        for (var word : words) {
+            var node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(Character.toLowerCase(word.charAt(i)), label -> new BuildNode());
+            }
+            if (!node.terminal) {
+                node.terminal = true;
+                wordCount++;
+            }
+        }
+        return flatten(root, wordCount);
+    }
+
+    int wordCount() {
+        return wordCount;
+    }
+
+    // True when the input equals a word or starts with a word followed by '/', ignoring case.
+    boolean matches(String input) {
+        var node = 0;
+        for (int i = 0; i < input.length(); i++) {
+            var label = Character.toLowerCase(input.charAt(i));
+            if (label == PATH_SEPARATOR && terminal[node]) {
+                return true;
+            }
+
+            node = child(node, label);
+            if (node < 0) {
+                return false;
+            }
+        }
+        return terminal[node];
+    }
+
+    private int child(int node, char label) {
+        var from = firstChild[node];
+        var index = Arrays.binarySearch(labels, from, from + childCount[node], label);
+        return index >= 0 ? index : -1;
+    }
+
+    private static ReservedWordsTrie flatten(BuildNode root, int wordCount) {
+        var nodeCount = root.countNodes();
+        var labels = new char[nodeCount];
+        var firstChild = new int[nodeCount];
+        var childCount = new int[nodeCount];
+        var terminal = new boolean[nodeCount];
+
+        var queue = new ArrayDeque<BuildNode>();
+        queue.add(root);
+        var index = 0;
+        var nextFree = 1;
+        while (!queue.isEmpty()) {
+            var node = queue.poll();
+            terminal[index] = node.terminal;
+            firstChild[index] = nextFree;
+            childCount[index] = node.children.size();
+            for (var child : node.children.entrySet()) {
+                labels[nextFree++] = child.getKey();
+                queue.add(child.getValue());
+            }
+            index++;
+        }
+        return new ReservedWordsTrie(labels, firstChild, childCount, terminal, wordCount);
+    }
+
+    private static final class BuildNode {
+
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private boolean terminal;
+
+        private int countNodes() {
+            var count = 1;
+            for (var child : children.values()) {
+                count += child.countNodes();
+            }
+            return count;
+        }
+    }
+}
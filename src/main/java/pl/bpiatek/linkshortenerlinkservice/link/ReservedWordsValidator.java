@@ -2,28 +2,29 @@ package pl.bpiatek.linkshortenerlinkservice.link;
 
 import pl.bpiatek.linkshortenerlinkservice.exception.ReservedShortUrlException;
 
-import java.util.Set;
+import java.util.Collection;
 
 class ReservedWordsValidator {
 
-    private final Set<String> reservedWords;
+    private volatile ReservedWordsTrie reservedWords;
 
-    ReservedWordsValidator(Set<String> reservedWords) {
-        this.reservedWords = reservedWords;
+    ReservedWordsValidator(Collection<String> reservedWords) {
+        this.reservedWords = ReservedWordsTrie.compile(reservedWords);
     }
 
     void validate(String shortUrl) {
         if (shortUrl == null) {
             return;
         }
-        
-        var lowerCaseShortUrl = shortUrl.toLowerCase();
-        
-        for (var reservedWord : reservedWords) {
-            var lowerReserved = reservedWord.toLowerCase();
-            if (lowerCaseShortUrl.equals(lowerReserved) || lowerCaseShortUrl.startsWith(lowerReserved + "/")) {
-                throw new ReservedShortUrlException(shortUrl);
-            }
+
+        if (reservedWords.matches(shortUrl)) {
+            throw new ReservedShortUrlException(shortUrl);
         }
     }
+
+    int reload(Collection<String> reservedWords) {
+        var compiled = ReservedWordsTrie.compile(reservedWords);
+        this.reservedWords = compiled;
+        return compiled.wordCount();
+    }
 }
@@ -0,0 +1,99 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ScalableBloomFilter {
+
+    private static final int GROWTH_FACTOR = 2;
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private final Object growLock = new Object();
+    private volatile List<BloomFilter> layers;
+
+    // Every new layer halves its error rate, so the compound rate stays below the target
+    // (p * (1 - r) * (1 + r + r^2 + ...) = p) however many layers get added.
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        this.layers = List.of(new BloomFilter(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    void put(String shortUrl) {
+        var hash1 = hash(shortUrl);
+        var hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        if (mightContain(hash1, hash2)) {
+            return;
+        }
+        activeLayer().put(hash1, hash2);
+    }
+
+    boolean mightContain(String shortUrl) {
+        var hash1 = hash(shortUrl);
+        return mightContain(hash1, mix(hash1 ^ 0x9E3779B97F4A7C15L));
+    }
+
+    long entries() {
+        return layers.stream().mapToLong(BloomFilter::entries).sum();
+    }
+
+    long memoryBytes() {
+        return layers.stream().mapToLong(BloomFilter::memoryBytes).sum();
+    }
+
+    double estimatedFalsePositiveRate() {
+        var trueNegativeProbability = 1.0;
+        for (var layer : layers) {
+            trueNegativeProbability *= 1.0 - layer.estimatedFalsePositiveRate();
+        }
+        return 1.0 - trueNegativeProbability;
+    }
+
+    int layerCount() {
+        return layers.size();
+    }
+
+    private boolean mightContain(long hash1, long hash2) {
+        for (var layer : layers) {
+            if (layer.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BloomFilter activeLayer() {
+        var last = layers.getLast();
+        if (!last.isFull()) {
+            return last;
+        }
+
+        synchronized (growLock) {
+            var current = layers;
+            last = current.getLast();
+            if (!last.isFull()) {
+                return last;
+            }
+
+            var next = new BloomFilter(last.capacity() * GROWTH_FACTOR, last.falsePositiveRate() * TIGHTENING_RATIO);
+            var grown = new ArrayList<>(current);
+            grown.add(next);
+            layers = List.copyOf(grown);
+            return next;
+        }
+    }
+
+    // short_url is CITEXT, so codes differing only in case must hash the same.
+    private static long hash(String shortUrl) {
+        var hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < shortUrl.length(); i++) {
+            hash ^= Character.toLowerCase(shortUrl.charAt(i));
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
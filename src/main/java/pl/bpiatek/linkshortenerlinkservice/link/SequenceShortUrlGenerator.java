@@ -0,0 +1,109 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+class SequenceShortUrlGenerator implements ShortUrlGenerator {
+
+    // short_url is CITEXT, so codes are spelled with one case per letter; two values can then
+    // never map to codes that differ only in case and collide in the unique index.
+    static final String CASE_FOLDED_CHARS = "abcdefghijkmnopqrstuvwxyz123456789";
+    private static final int ALPHABET_SIZE = CASE_FOLDED_CHARS.length();
+    private static final int MAX_URL_LENGTH = 10;
+    private static final int FEISTEL_ROUNDS = 6;
+
+    private final ShortUrlSequenceRepository sequenceRepository;
+    private final int urlLength;
+    private final int blockSize;
+    private final long[] roundKeys;
+
+    private final Map<Integer, FeistelPermutation> permutations = new ConcurrentHashMap<>();
+    private final Deque<Long> block = new ArrayDeque<>();
+    private final Lock blockLock = new ReentrantLock();
+
+    SequenceShortUrlGenerator(ShortUrlSequenceRepository sequenceRepository, int urlLength, int blockSize, String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("A secret is required for the sequence short url generator");
+        }
+        if (urlLength < 1 || urlLength > MAX_URL_LENGTH) {
+            throw new IllegalArgumentException("Short url length must be between 1 and " + MAX_URL_LENGTH + ", was: " + urlLength);
+        }
+
+        this.sequenceRepository = sequenceRepository;
+        this.urlLength = urlLength;
+        this.blockSize = blockSize;
+        this.roundKeys = deriveRoundKeys(secret);
+    }
+
+    @Override
+    public String generate() {
+        return encode(nextSequenceValue());
+    }
+
+    String encode(long sequenceValue) {
+        // Values that outgrow the configured keyspace move on to the next length,
+        // which has its own permutation, so codes of different lengths never clash.
+        var length = urlLength;
+        var keyspace = keyspace(length);
+        while (sequenceValue >= keyspace) {
+            if (++length > MAX_URL_LENGTH) {
+                throw new IllegalStateException("Short url sequence value " + sequenceValue + " exceeds the supported keyspace");
+            }
+            keyspace = keyspace(length);
+        }
+
+        var permutation = permutations.computeIfAbsent(length, l -> new FeistelPermutation(keyspace(l), roundKeys));
+        return toShortUrl(permutation.permute(sequenceValue), length);
+    }
+
+    private long nextSequenceValue() {
+        blockLock.lock();
+        try {
+            if (block.isEmpty()) {
+                block.addAll(sequenceRepository.nextValues(blockSize));
+            }
+            return block.removeFirst();
+        } finally {
+            blockLock.unlock();
+        }
+    }
+
+    private static String toShortUrl(long value, int length) {
+        var chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = CASE_FOLDED_CHARS.charAt((int) (value % ALPHABET_SIZE));
+            value /= ALPHABET_SIZE;
+        }
+        return new String(chars);
+    }
+
+    private static long keyspace(int length) {
+        long keyspace = 1;
+        for (int i = 0; i < length; i++) {
+            keyspace *= ALPHABET_SIZE;
+        }
+        return keyspace;
+    }
+
+    private static long[] deriveRoundKeys(String secret) {
+        try {
+            var roundKeys = new long[FEISTEL_ROUNDS];
+            for (int i = 0; i < FEISTEL_ROUNDS; i++) {
+                var digest = MessageDigest.getInstance("SHA-256").digest((secret + ":" + i).getBytes(UTF_8));
+                roundKeys[i] = ByteBuffer.wrap(digest).getLong();
+            }
+            return roundKeys;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.time.Instant;
+import java.util.List;
+
+interface ShortUrlClaimRepository {
+
+    List<String> claim(List<String> candidates, Instant claimedAt);
+
+    int deleteClaimedBefore(Instant cutoffDate);
+}
@@ -0,0 +1,60 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class ShortUrlCollisionTracker {
+
+    private static final double SMOOTHING_FACTOR = 0.05;
+    private static final double TARGET_ROUND_TRIP_FAILURE_PROBABILITY = 0.001;
+
+    private final int maxCandidates;
+    private final AtomicLong collisionRateBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicLong samples = new AtomicLong();
+
+    ShortUrlCollisionTracker(int maxCandidates) {
+        if (maxCandidates < 1) {
+            throw new IllegalArgumentException("Max candidates must be at least 1, was: " + maxCandidates);
+        }
+        this.maxCandidates = maxCandidates;
+    }
+
+    void record(int collisions, int candidates) {
+        if (candidates <= 0) {
+            return;
+        }
+
+        samples.addAndGet(candidates);
+        var sample = (double) collisions / candidates;
+        collisionRateBits.getAndUpdate(bits -> {
+            var current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(current + SMOOTHING_FACTOR * (sample - current));
+        });
+    }
+
+    double collisionRate() {
+        return Double.longBitsToDouble(collisionRateBits.get());
+    }
+
+    long samples() {
+        return samples.get();
+    }
+
+    void reset() {
+        collisionRateBits.set(Double.doubleToLongBits(0.0));
+        samples.set(0);
+    }
+
+    int candidateCount() {
+        // Smallest n for which all n candidates being taken (rate^n) stays below the target.
+        var rate = collisionRate();
+        if (rate <= 0.0) {
+            return 1;
+        }
+        if (rate >= 1.0) {
+            return maxCandidates;
+        }
+
+        var count = (int) Math.ceil(Math.log(TARGET_ROUND_TRIP_FAILURE_PROBABILITY) / Math.log(rate));
+        return Math.clamp(count, 1, maxCandidates);
+    }
+}
@@ -0,0 +1,138 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ShortUrlFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlFilter.class);
+
+    private final LinkRepository linkRepository;
+    private final TransactionOperations readOnlyTransaction;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final int fetchSize;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile ScalableBloomFilter current;
+    private volatile ScalableBloomFilter next;
+
+    private final Timer rebuildTimer;
+    private final Counter skippedCounter;
+
+    ShortUrlFilter(LinkRepository linkRepository,
+                   TransactionOperations readOnlyTransaction,
+                   MeterRegistry meterRegistry,
+                   boolean enabled,
+                   long expectedInsertions,
+                   double falsePositiveRate,
+                   int fetchSize) {
+        this.linkRepository = linkRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.fetchSize = fetchSize;
+
+        Gauge.builder("link.shorturl.filter.memory", this, filter -> filter.current == null ? 0 : filter.current.memoryBytes())
+                .description("Memory used by the bit arrays of the short url filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("link.shorturl.filter.entries", this, filter -> filter.current == null ? 0 : filter.current.entries())
+                .description("Number of short urls added to the short url filter")
+                .register(meterRegistry);
+        Gauge.builder("link.shorturl.filter.false.positive.rate", this,
+                        filter -> filter.current == null ? 0 : filter.current.estimatedFalsePositiveRate())
+                .description("False positive rate of the short url filter estimated from its fill ratio")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("link.shorturl.filter.rebuild")
+                .description("Time taken to rebuild the short url filter from the links table")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("link.shorturl.filter.skipped")
+                .description("Number of generated short urls skipped because the filter reported them as taken")
+                .register(meterRegistry);
+    }
+
+    // A positive answer is only "probably taken", so it may be used to skip a random candidate
+    // but never to reject a short url. Until the first build completes nothing is reported as taken.
+    boolean isKnownTaken(String shortUrl) {
+        var filter = current;
+        if (filter == null || !filter.mightContain(shortUrl)) {
+            return false;
+        }
+
+        skippedCounter.increment();
+        return true;
+    }
+
+    @EventListener
+    public void onLinkCreated(LinkCreatedApplicationEvent event) {
+        put(event.link().shortUrl());
+    }
+
+    @EventListener
+    public void onLinksCreated(LinksCreatedApplicationEvent event) {
+        event.links().forEach(link -> put(link.shortUrl()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            Thread.ofVirtual().name("short-url-filter-build").start(this::rebuild);
+        }
+    }
+
+    // Deleted links are never removed from the filter. They only make it more conservative,
+    // and the periodic rebuild drops them.
+    @Scheduled(cron = "${link.short.filter.rebuild.cron:0 30 4 * * ?}")
+    public void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            rebuildTimer.record(this::buildAndSwap);
+        } catch (Exception e) {
+            log.error("Failed to rebuild short url filter", e);
+        } finally {
+            next = null;
+            rebuilding.set(false);
+        }
+    }
+
+    void put(String shortUrl) {
+        var filter = current;
+        if (filter != null) {
+            filter.put(shortUrl);
+        }
+
+        // Links created while a rebuild is streaming may be missing from its snapshot.
+        var building = next;
+        if (building != null) {
+            building.put(shortUrl);
+        }
+    }
+
+    private void buildAndSwap() {
+        var estimatedLinks = linkRepository.estimateCount();
+        var building = new ScalableBloomFilter(Math.max(expectedInsertions, estimatedLinks + estimatedLinks / 4), falsePositiveRate);
+        next = building;
+
+        readOnlyTransaction.executeWithoutResult(status -> linkRepository.forEachShortUrl(fetchSize, building::put));
+
+        current = building;
+        log.info("Short url filter rebuilt with {} entries in {} layers, {} bytes.",
+                building.entries(), building.layerCount(), building.memoryBytes());
+    }
+}
@@ -0,0 +1,97 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static pl.bpiatek.linkshortenerlinkservice.link.ShortUrlGenerator.ALPHANUMERIC_CHARS;
+
+class ShortUrlLengthController {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlLengthController.class);
+    private static final long MIN_COLLISION_SAMPLES = 100;
+
+    private final ShortUrlCollisionTracker collisionTracker;
+    private final LinkRepository linkRepository;
+    private final int maxLength;
+    private final double collisionThreshold;
+
+    private final AtomicInteger length;
+    private volatile long estimatedLinks;
+
+    ShortUrlLengthController(ShortUrlCollisionTracker collisionTracker,
+                             LinkRepository linkRepository,
+                             MeterRegistry meterRegistry,
+                             int initialLength,
+                             int maxLength,
+                             double collisionThreshold) {
+        if (initialLength > maxLength) {
+            throw new IllegalArgumentException("Short url length " + initialLength + " exceeds max length " + maxLength);
+        }
+        this.collisionTracker = collisionTracker;
+        this.linkRepository = linkRepository;
+        this.maxLength = maxLength;
+        this.collisionThreshold = collisionThreshold;
+        this.length = new AtomicInteger(initialLength);
+
+        Gauge.builder("link.shorturl.length", length, AtomicInteger::get)
+                .description("Length of newly generated random short urls")
+                .register(meterRegistry);
+        Gauge.builder("link.shorturl.keyspace.saturation", this, ShortUrlLengthController::keyspaceSaturation)
+                .description("Estimated share of the current short url keyspace already taken")
+                .register(meterRegistry);
+        Gauge.builder("link.shorturl.collision.rate", collisionTracker, ShortUrlCollisionTracker::collisionRate)
+                .description("Smoothed share of random short url candidates that were already taken")
+                .register(meterRegistry);
+        Gauge.builder("link.shorturl.candidates", collisionTracker, ShortUrlCollisionTracker::candidateCount)
+                .description("Number of random short url candidates sent per insert")
+                .register(meterRegistry);
+    }
+
+    int currentLength() {
+        return length.get();
+    }
+
+    double keyspaceSaturation() {
+        return estimatedLinks / Math.pow(ALPHANUMERIC_CHARS.length(), length.get());
+    }
+
+    @Scheduled(fixedDelayString = "${link.short.length.evaluate-interval-ms:30000}")
+    public void evaluate() {
+        try {
+            estimatedLinks = linkRepository.estimateCount();
+        } catch (Exception e) {
+            log.warn("Could not estimate links count: {}", e.getMessage());
+        }
+
+        // Saturation is computed, so keep growing until it is back under the threshold.
+        while (keyspaceSaturation() > collisionThreshold) {
+            if (!raiseLength("keyspace saturation", keyspaceSaturation())) {
+                break;
+            }
+        }
+
+        // The measured rate belongs to the length it was measured at, so one step at a time.
+        if (collisionTracker.samples() >= MIN_COLLISION_SAMPLES && collisionTracker.collisionRate() > collisionThreshold) {
+            raiseLength("collision rate", collisionTracker.collisionRate());
+        }
+    }
+
+    private boolean raiseLength(String reason, double value) {
+        var current = length.get();
+        if (current >= maxLength) {
+            log.error("Short url length is already at max {}, {} is {}", maxLength, reason, value);
+            return false;
+        }
+
+        if (length.compareAndSet(current, current + 1)) {
+            collisionTracker.reset();
+            log.warn("Raised short url length from {} to {}, {} was {}", current, current + 1, reason, value);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,202 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+class ShortUrlPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlPool.class);
+    private static final int MAX_CLAIM_BATCH = 1000;
+    private static final int MAX_REFILL_ROUNDS = 5;
+
+    private final ShortUrlClaimRepository claimRepository;
+    private final ShortUrlGenerator shortUrlGenerator;
+    private final ShortUrlFilter shortUrlFilter;
+    private final ShortUrlCollisionTracker collisionTracker;
+    private final Clock clock;
+    private final Executor refillExecutor;
+    private final boolean enabled;
+    private final int capacity;
+    private final int lowWaterMark;
+    private final Duration claimTtl;
+    private final Duration maxEntryAge;
+
+    private final BlockingQueue<PooledShortUrl> queue;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final Timer refillTimer;
+    private final Counter exhaustedCounter;
+
+    ShortUrlPool(ShortUrlClaimRepository claimRepository,
+                 ShortUrlGenerator shortUrlGenerator,
+                 ShortUrlFilter shortUrlFilter,
+                 ShortUrlCollisionTracker collisionTracker,
+                 Clock clock,
+                 MeterRegistry meterRegistry,
+                 Executor refillExecutor,
+                 boolean enabled,
+                 int capacity,
+                 int lowWaterMark,
+                 Duration claimTtl) {
+        this.claimRepository = claimRepository;
+        this.shortUrlGenerator = shortUrlGenerator;
+        this.shortUrlFilter = shortUrlFilter;
+        this.collisionTracker = collisionTracker;
+        this.clock = clock;
+        this.refillExecutor = refillExecutor;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.lowWaterMark = lowWaterMark;
+        this.claimTtl = claimTtl;
+        // Entries are handed out only during the first half of the claim's lifetime,
+        // so a code can never be used after its claim row has been purged.
+        this.maxEntryAge = claimTtl.dividedBy(2);
+        this.queue = new LinkedBlockingQueue<>(capacity);
+
+        Gauge.builder("link.shorturl.pool.size", queue, BlockingQueue::size)
+                .description("Number of pre-claimed short urls ready to be used")
+                .register(meterRegistry);
+        this.refillTimer = Timer.builder("link.shorturl.pool.refill")
+                .description("Time taken to claim a block of short urls and refill the pool")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("link.shorturl.pool.exhausted")
+                .description("Number of times a short url was requested from an empty pool")
+                .register(meterRegistry);
+    }
+
+    Optional<String> poll() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        var now = clock.instant();
+        PooledShortUrl entry;
+        while ((entry = queue.poll()) != null) {
+            if (entry.isUsableAt(now, maxEntryAge)) {
+                triggerRefillIfBelowLowWaterMark();
+                return Optional.of(entry.shortUrl());
+            }
+        }
+
+        exhaustedCounter.increment();
+        triggerRefill();
+        return Optional.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        triggerRefill();
+    }
+
+    @Scheduled(fixedDelayString = "${link.short.pool.top-up-interval-ms:10000}")
+    public void topUp() {
+        triggerRefillIfBelowLowWaterMark();
+    }
+
+    @Scheduled(cron = "${link.short.pool.purge.cron:0 */15 * * * ?}")
+    public void purgeExpiredClaims() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            int purgedCount = claimRepository.deleteClaimedBefore(clock.instant().minus(claimTtl));
+            log.debug("Purged {} expired short url claims.", purgedCount);
+        } catch (Exception e) {
+            log.error("Error occurred while purging expired short url claims", e);
+        }
+    }
+
+    void refill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refillTimer.record(this::fillToCapacity);
+        } catch (Exception e) {
+            log.error("Failed to refill short url pool", e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        if (refillExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void fillToCapacity() {
+        for (int round = 0; round < MAX_REFILL_ROUNDS && queue.size() < capacity; round++) {
+            var missing = Math.min(capacity - queue.size(), MAX_CLAIM_BATCH);
+            var candidates = Stream.generate(shortUrlGenerator::generate)
+                    .limit(missing)
+                    .filter(shortUrl -> !shortUrlFilter.isKnownTaken(shortUrl))
+                    .toList();
+            if (candidates.isEmpty()) {
+                continue;
+            }
+
+            var claimedAt = clock.instant();
+            var claimed = claimRepository.claim(candidates, claimedAt);
+            collisionTracker.record(candidates.size() - claimed.size(), candidates.size());
+            for (var shortUrl : claimed) {
+                if (!queue.offer(new PooledShortUrl(shortUrl, claimedAt))) {
+                    return;
+                }
+            }
+
+            log.debug("Claimed {} of {} short url candidates for the pool.", claimed.size(), candidates.size());
+        }
+    }
+
+    private void triggerRefillIfBelowLowWaterMark() {
+        if (queue.size() < lowWaterMark) {
+            triggerRefill();
+        }
+    }
+
+    private void triggerRefill() {
+        if (!enabled || refilling.get()) {
+            return;
+        }
+
+        try {
+            refillExecutor.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            log.warn("Short url pool refill rejected: {}", e.getMessage());
+        }
+    }
+
+    private record PooledShortUrl(String shortUrl, Instant claimedAt) {
+
+        boolean isUsableAt(Instant now, Duration maxAge) {
+            return claimedAt.plus(maxAge).isAfter(now);
+        }
+    }
+}
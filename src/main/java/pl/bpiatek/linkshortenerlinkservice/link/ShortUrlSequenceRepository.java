@@ -0,0 +1,8 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.util.List;
+
+interface ShortUrlSequenceRepository {
+
+    List<Long> nextValues(int count);
+}
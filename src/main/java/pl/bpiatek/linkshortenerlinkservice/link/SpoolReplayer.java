@@ -0,0 +1,158 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.link.LifecycleEventSpool.SpooledEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Drains the local spool back to Kafka, oldest first. Each batch doubles as the circuit breaker's
+// probe. A batch goes out in rounds of at most one event per key, so a key's next event is only
+// sent once its previous one is acknowledged, and nothing more is sent after a failed round. Only
+// the acknowledged prefix leaves the spool; acknowledged events past it are sent again later.
+class SpoolReplayer {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolReplayer.class);
+
+    private static final String SOURCE_HEADER_VALUE = "link-service";
+
+    private final LifecycleEventSpool spool;
+    private final KafkaSendWindow sendWindow;
+    private final KafkaCircuitBreaker circuitBreaker;
+    private final String topicName;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Counter replayedCounter;
+
+    SpoolReplayer(LifecycleEventSpool spool,
+                  KafkaSendWindow sendWindow,
+                  KafkaCircuitBreaker circuitBreaker,
+                  String topicName,
+                  MeterRegistry meterRegistry,
+                  int batchSize,
+                  Duration sendTimeout) {
+        this.spool = spool;
+        this.sendWindow = sendWindow;
+        this.circuitBreaker = circuitBreaker;
+        this.topicName = topicName;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.replayedCounter = Counter.builder("link.events.spool.replayed")
+                .description("Number of spooled lifecycle events replayed to Kafka")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${link.events.spool.replay-interval-ms:1000}")
+    void replay() {
+        try {
+            int replayed;
+            do {
+                replayed = replayBatch();
+            } while (replayed == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("Error occurred while replaying the lifecycle event spool", e);
+        }
+    }
+
+    int replayBatch() {
+        if (spool.isEmpty() || !circuitBreaker.tryAcquire()) {
+            return 0;
+        }
+
+        var batch = spool.peek(batchSize);
+        var acknowledged = sendInKeyOrder(batch);
+        var replayed = 0;
+        while (replayed < batch.size() && acknowledged[replayed]) {
+            replayed++;
+        }
+
+        spool.commit(batch.subList(0, replayed));
+        replayedCounter.increment(replayed);
+        if (replayed < batch.size()) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        if (spool.isEmpty() && replayed > 0) {
+            log.info("Lifecycle event spool drained.");
+        }
+        return replayed;
+    }
+
+    private boolean[] sendInKeyOrder(List<SpooledEvent> batch) {
+        var acknowledged = new boolean[batch.size()];
+        var deadline = System.nanoTime() + sendTimeout.toNanos();
+        var pending = new ArrayList<Integer>();
+        for (int i = 0; i < batch.size(); i++) {
+            pending.add(i);
+        }
+
+        var failed = false;
+        while (!pending.isEmpty() && !failed) {
+            var round = new ArrayList<Integer>();
+            var later = new ArrayList<Integer>();
+            var keysInRound = new HashSet<String>();
+            for (var index : pending) {
+                (keysInRound.add(batch.get(index).key()) ? round : later).add(index);
+            }
+
+            var sends = round.stream().map(index -> send(batch.get(index))).toList();
+            for (int i = 0; i < round.size(); i++) {
+                var index = round.get(i);
+                acknowledged[index] = awaitSent(batch.get(index), sends.get(i), deadline);
+                failed |= !acknowledged[index];
+            }
+            pending = later;
+        }
+        return acknowledged;
+    }
+
+    private CompletableFuture<SendResult<String, LinkLifecycleEvent>> send(SpooledEvent spooled) {
+        try {
+            var event = LinkLifecycleEvent.parseFrom(spooled.payload());
+            var producerRecord = new ProducerRecord<>(topicName, spooled.key(), event);
+            producerRecord.headers().add(new RecordHeader("source", SOURCE_HEADER_VALUE.getBytes(UTF_8)));
+            return sendWindow.send(producerRecord, LinkOutboxRelay.eventType(event));
+        } catch (InvalidProtocolBufferException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitSent(SpooledEvent spooled, CompletableFuture<SendResult<String, LinkLifecycleEvent>> send, long deadline) {
+        try {
+            send.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (ExecutionException e) {
+            // Retrying an unreadable payload would block the spool for good, so it is dropped.
+            if (e.getCause() instanceof InvalidProtocolBufferException) {
+                log.error("Discarding unreadable spooled event for key: {}", spooled.key(), e.getCause());
+                return true;
+            }
+            log.warn("Failed to replay spooled event for key: {}. Reason: {}", spooled.key(), e.getMessage());
+            return false;
+        } catch (TimeoutException e) {
+            log.warn("Timed out replaying spooled event for key: {}", spooled.key());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.SendResult;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.exception.KafkaEventSendingException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+// Front of the producers: sends through the window while Kafka is healthy and diverts events to the
+// local spool while the circuit breaker is open or a send fails. As long as anything is spooled,
+// new events are spooled behind it too. An event only starts once the previous one for its key has
+// been acknowledged or spooled, so a failed event is spooled ahead of that key's later events and
+// SpoolReplayer sends them in order.
+class SpoolingEventSender implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolingEventSender.class);
+
+    private final KafkaSendWindow sendWindow;
+    private final KafkaCircuitBreaker circuitBreaker;
+    private final LifecycleEventSpool spool;
+    private final Executor followUpExecutor;
+    private final ConcurrentMap<String, CompletableFuture<?>> lastByKey = new ConcurrentHashMap<>();
+    private final Counter spooledCounter;
+    private final Counter droppedCounter;
+
+    SpoolingEventSender(KafkaSendWindow sendWindow,
+                        KafkaCircuitBreaker circuitBreaker,
+                        LifecycleEventSpool spool,
+                        Executor followUpExecutor,
+                        MeterRegistry meterRegistry) {
+        this.sendWindow = sendWindow;
+        this.circuitBreaker = circuitBreaker;
+        this.spool = spool;
+        this.followUpExecutor = followUpExecutor;
+        this.spooledCounter = Counter.builder("link.events.spooled")
+                .description("Number of lifecycle events written to the local spool instead of Kafka")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("link.events.spool.dropped")
+                .description("Number of lifecycle events lost because the local spool was full")
+                .register(meterRegistry);
+    }
+
+    // Completes with null when the event was spooled rather than sent.
+    CompletableFuture<SendResult<String, LinkLifecycleEvent>> send(ProducerRecord<String, LinkLifecycleEvent> producerRecord,
+                                                                   String eventType) {
+        var key = producerRecord.key();
+        var outcome = new CompletableFuture<SendResult<String, LinkLifecycleEvent>>();
+        var previous = lastByKey.put(key, outcome);
+        outcome.whenComplete((result, failure) -> lastByKey.remove(key, outcome));
+
+        if (previous == null) {
+            forward(sendOrSpool(producerRecord, eventType), outcome);
+        } else {
+            // Follow-ups run off the producer's callback thread, which must not block on a new send.
+            previous.whenCompleteAsync((result, failure) -> forward(sendOrSpool(producerRecord, eventType), outcome), followUpExecutor);
+        }
+        return outcome;
+    }
+
+    @Override
+    public void close() {
+        if (followUpExecutor instanceof ExecutorService executorService) {
+            executorService.close();
+        }
+    }
+
+    private CompletableFuture<SendResult<String, LinkLifecycleEvent>> sendOrSpool(ProducerRecord<String, LinkLifecycleEvent> producerRecord,
+                                                                                  String eventType) {
+        if (!spool.isEmpty() || !circuitBreaker.tryAcquire()) {
+            return spool(producerRecord, eventType, null);
+        }
+        return sendWindow.send(producerRecord, eventType)
+                .handle((result, failure) -> {
+                    if (failure == null) {
+                        circuitBreaker.onSuccess();
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    circuitBreaker.onFailure();
+                    return spool(producerRecord, eventType, failure);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private static <T> void forward(CompletableFuture<T> from, CompletableFuture<T> to) {
+        from.whenComplete((result, failure) -> {
+            if (failure == null) {
+                to.complete(result);
+            } else {
+                to.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private CompletableFuture<SendResult<String, LinkLifecycleEvent>> spool(ProducerRecord<String, LinkLifecycleEvent> producerRecord,
+                                                                            String eventType,
+                                                                            Throwable failure) {
+        try {
+            if (spool.append(producerRecord.key(), producerRecord.value().toByteArray())) {
+                spooledCounter.increment();
+                return CompletableFuture.completedFuture(null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to spool {} event for key: {}", eventType, producerRecord.key(), e);
+        }
+        droppedCounter.increment();
+        return CompletableFuture.failedFuture(failure != null ? failure
+                : new KafkaEventSendingException("Kafka is unavailable and the " + eventType + " event could not be spooled."));
+    }
+}
@@ -0,0 +1,110 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs lifecycle event sends on a fixed set of single-threaded stripes, picked by link id. Every
+// event for a link lands on the same stripe and is sent in publication order, while different
+// links are spread over the stripes and sent in parallel.
+class StripedEventDispatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StripedEventDispatcher.class);
+
+    private final ThreadPoolExecutor[] stripes;
+    private final DispatchRejectionPolicy rejectionPolicy;
+    private final Duration offerTimeout;
+    private final Duration drainTimeout;
+    private final Counter rejectedCounter;
+
+    StripedEventDispatcher(int stripeCount,
+                           int queueCapacity,
+                           DispatchRejectionPolicy rejectionPolicy,
+                           Duration offerTimeout,
+                           Duration drainTimeout,
+                           MeterRegistry meterRegistry) {
+        this.rejectionPolicy = rejectionPolicy;
+        this.offerTimeout = offerTimeout;
+        this.drainTimeout = drainTimeout;
+        this.rejectedCounter = Counter.builder("link.events.dispatch.rejected")
+                .description("Number of lifecycle events dropped because their stripe queue was full or shut down")
+                .register(meterRegistry);
+
+        this.stripes = new ThreadPoolExecutor[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            var stripe = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    Thread.ofPlatform().name("link-events-" + i).factory(), this::reject);
+            Gauge.builder("link.events.dispatch.queue.depth", stripe, executor -> executor.getQueue().size())
+                    .description("Number of lifecycle events waiting in a dispatch stripe")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+            stripes[i] = stripe;
+        }
+    }
+
+    void dispatch(long linkId, Runnable send) {
+        stripes[stripeOf(linkId)].execute(() -> {
+            try {
+                send.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to dispatch lifecycle event for link ID: {}", linkId, e);
+            }
+        });
+    }
+
+    int stripeOf(long linkId) {
+        return Math.floorMod(linkId, stripes.length);
+    }
+
+    // Stops taking events and lets every stripe send what is already queued, up to the drain timeout.
+    @Override
+    public void close() throws InterruptedException {
+        for (var stripe : stripes) {
+            stripe.shutdown();
+        }
+        var deadline = System.nanoTime() + drainTimeout.toNanos();
+        var dropped = 0;
+        for (var stripe : stripes) {
+            if (!stripe.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                dropped += stripe.shutdownNow().size();
+            }
+        }
+        if (dropped > 0) {
+            rejectedCounter.increment(dropped);
+            log.warn("Dropped {} lifecycle events still queued after draining for {}.", dropped, drainTimeout);
+        }
+    }
+
+    private void reject(Runnable task, ThreadPoolExecutor stripe) {
+        if (stripe.isShutdown()) {
+            dropped("the dispatcher is shutting down");
+            return;
+        }
+        switch (rejectionPolicy) {
+            case BLOCK -> {
+                try {
+                    if (!stripe.getQueue().offer(task, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                        dropped("its stripe stayed full for " + offerTimeout);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped("the publishing thread was interrupted");
+                }
+            }
+            case CALLER_RUNS -> task.run();
+            case DISCARD -> dropped("its stripe is full");
+        }
+    }
+
+    private void dropped(String reason) {
+        rejectedCounter.increment();
+        log.error("Dropped lifecycle event because {}.", reason);
+    }
+}
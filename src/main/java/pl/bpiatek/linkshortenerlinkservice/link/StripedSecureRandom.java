@@ -0,0 +1,82 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+class StripedSecureRandom {
+
+    private static final int BUFFER_BYTES = 512;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    StripedSecureRandom(int minStripes) {
+        var stripeCount = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(new SecureRandom());
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    long nextLong() {
+        var start = (int) spread(Thread.currentThread().threadId()) & mask;
+        for (int i = 0; i <= mask; i++) {
+            var stripe = stripes[(start + i) & mask];
+            if (stripe.lock.tryLock()) {
+                try {
+                    return stripe.next();
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+
+        var stripe = stripes[start];
+        stripe.lock.lock();
+        try {
+            return stripe.next();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private static long spread(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return value ^ (value >>> 33);
+    }
+
+    // ReentrantLock rather than synchronized, so a virtual thread waiting for a stripe does not pin its carrier.
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SecureRandom random;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position = BUFFER_BYTES;
+
+        private Stripe(SecureRandom random) {
+            this.random = random;
+        }
+
+        private long next() {
+            if (position == BUFFER_BYTES) {
+                random.nextBytes(buffer);
+                position = 0;
+            }
+
+            var value = (long) LONG_VIEW.get(buffer, position);
+            // Handed out entropy does not stay around in the buffer.
+            LONG_VIEW.set(buffer, position, 0L);
+            position += Long.BYTES;
+            return value;
+        }
+    }
+}
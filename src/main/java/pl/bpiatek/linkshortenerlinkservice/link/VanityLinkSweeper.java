@@ -0,0 +1,90 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.util.List;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+// Releases deactivated vanity codes in small batches, one transaction each, so no statement holds
+// locks for long and WAL is written at a steady rate. Every committed batch is final, so a sweep
+// that is stopped or fails simply carries on from where it was next time.
+class VanityLinkSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(VanityLinkSweeper.class);
+
+    private final LinkRepository linkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transaction;
+    private final Clock clock;
+    private final int olderThanInDays;
+    private final int batchSize;
+    private final int rowsPerSecond;
+    private final Counter releasedCounter;
+
+    VanityLinkSweeper(LinkRepository linkRepository,
+                      ApplicationEventPublisher eventPublisher,
+                      TransactionOperations transaction,
+                      Clock clock,
+                      MeterRegistry meterRegistry,
+                      int olderThanInDays,
+                      int batchSize,
+                      int rowsPerSecond) {
+        this.linkRepository = linkRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = transaction;
+        this.clock = clock;
+        this.olderThanInDays = olderThanInDays;
+        this.batchSize = batchSize;
+        this.rowsPerSecond = rowsPerSecond;
+        this.releasedCounter = Counter.builder("link.cleanup.released")
+                .description("Number of deactivated vanity links deleted by the sweeper")
+                .register(meterRegistry);
+    }
+
+    int sweep() {
+        var cutoffDate = clock.instant().minus(olderThanInDays, DAYS);
+        var startedAt = System.nanoTime();
+        var released = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            var batch = transaction.execute(status -> {
+                List<Link> deleted = linkRepository.deleteDeactivatedCustomLinksOlderThan(cutoffDate, batchSize);
+                // Published inside the transaction so the events go out only once the batch has committed.
+                deleted.forEach(link -> eventPublisher.publishEvent(new LinkDeletedApplicationEvent(link)));
+                return deleted.size();
+            });
+            released += batch == null ? 0 : batch;
+            releasedCounter.increment(batch == null ? 0 : batch);
+
+            if (batch == null || batch < batchSize) {
+                break;
+            }
+
+            var pause = pauseMillis(released, (System.nanoTime() - startedAt) / 1_000_000, rowsPerSecond);
+            if (pause > 0) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.info("Vanity link sweep interrupted after releasing {} links.", released);
+                }
+            }
+        }
+        return released;
+    }
+
+    // How long to wait so that the rows released so far stay within the budget; 0 means unthrottled.
+    static long pauseMillis(long released, long elapsedMillis, int rowsPerSecond) {
+        if (rowsPerSecond <= 0) {
+            return 0;
+        }
+        return Math.max(0, released * 1000 / rowsPerSecond - elapsedMillis);
+    }
+}
@@ -0,0 +1,93 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// XXH64 as specified in https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+final class Xxh64 {
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private Xxh64() {
+    }
+
+    static long hash(String value) {
+        return hash(value.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    static long hash(byte[] input, long seed) {
+        var length = input.length;
+        var position = 0;
+        long hash;
+
+        if (length >= 32) {
+            var v1 = seed + PRIME64_1 + PRIME64_2;
+            var v2 = seed + PRIME64_2;
+            var v3 = seed;
+            var v4 = seed - PRIME64_1;
+            var limit = length - 32;
+            do {
+                v1 = round(v1, (long) LONG_VIEW.get(input, position));
+                v2 = round(v2, (long) LONG_VIEW.get(input, position + 8));
+                v3 = round(v3, (long) LONG_VIEW.get(input, position + 16));
+                v4 = round(v4, (long) LONG_VIEW.get(input, position + 24));
+                position += 32;
+            } while (position <= limit);
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME64_5;
+        }
+
+        hash += length;
+
+        while (position + 8 <= length) {
+            hash ^= round(0, (long) LONG_VIEW.get(input, position));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+            position += 8;
+        }
+
+        if (position + 4 <= length) {
+            hash ^= ((int) INT_VIEW.get(input, position) & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+            position += 4;
+        }
+
+        while (position < length) {
+            hash ^= (input[position] & 0xFFL) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+            position++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(long accumulator, long lane) {
+        accumulator += lane * PRIME64_2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME64_1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME64_1 + PRIME64_4;
+    }
+}
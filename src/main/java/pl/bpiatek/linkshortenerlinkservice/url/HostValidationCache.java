@@ -0,0 +1,64 @@
+package pl.bpiatek.linkshortenerlinkservice.url;
+
+import org.apache.commons.validator.routines.DomainValidator;
+import org.apache.commons.validator.routines.InetAddressValidator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+class HostValidationCache {
+
+    private static final DomainValidator domainValidator = DomainValidator.getInstance();
+    private static final InetAddressValidator inetAddressValidator = InetAddressValidator.getInstance();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Boolean> results;
+
+    HostValidationCache(int maxSize) {
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // Expects a lowercased host.
+    boolean isValid(String host) {
+        lock.lock();
+        try {
+            var cached = results.get(host);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        var valid = validate(host);
+        lock.lock();
+        try {
+            results.put(host, valid);
+        } finally {
+            lock.unlock();
+        }
+        return valid;
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return results.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean validate(String host) {
+        if (host.startsWith("[")) {
+            return host.endsWith("]") && inetAddressValidator.isValidInet6Address(host.substring(1, host.length() - 1));
+        }
+        return inetAddressValidator.isValidInet4Address(host) || domainValidator.isValid(host);
+    }
+}
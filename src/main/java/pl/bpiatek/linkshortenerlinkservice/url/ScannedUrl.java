@@ -0,0 +1,10 @@
+package pl.bpiatek.linkshortenerlinkservice.url;
+
+public record ScannedUrl(
+        String scheme,
+        String host,
+        int port,
+        String canonical,
+        boolean schemeProvided
+) {
+}
@@ -0,0 +1,14 @@
+package pl.bpiatek.linkshortenerlinkservice.url;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class UrlConfig {
+
+    @Bean
+    UrlScanner urlScanner(@Value("${link.url.host-cache-size:10000}") int hostCacheSize) {
+        return new UrlScanner(hostCacheSize);
+    }
+}
@@ -0,0 +1,261 @@
+package pl.bpiatek.linkshortenerlinkservice.url;
+
+import java.util.Optional;
+
+public class UrlScanner {
+
+    private static final String DEFAULT_SCHEME = "https";
+    private static final String SCHEME_SEPARATOR = "://";
+    private static final int MAX_PORT = 65535;
+    private static final String PATH_SYMBOLS = "-_:@&=+,.!/~*'$;()";
+    private static final String UNRESERVED_SYMBOLS = "-._~";
+
+    private final HostValidationCache hostValidationCache;
+
+    public UrlScanner(int hostCacheSize) {
+        this.hostValidationCache = new HostValidationCache(hostCacheSize);
+    }
+
+    // Validates and canonicalizes in one left-to-right pass: lowercase scheme and host, no default port,
+    // uppercase hex in percent-encodings and decoded unreserved characters. A missing scheme means https.
+    public Optional<ScannedUrl> scan(String url) {
+        if (url == null || url.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var length = url.length();
+        var schemeEnd = schemeEnd(url);
+        var schemeProvided = schemeEnd > 0;
+        var scheme = schemeProvided ? lowerCase(url, 0, schemeEnd) : DEFAULT_SCHEME;
+        var defaultPort = defaultPort(scheme);
+        if (defaultPort < 0) {
+            return Optional.empty();
+        }
+
+        var canonical = new StringBuilder(length + DEFAULT_SCHEME.length() + SCHEME_SEPARATOR.length())
+                .append(scheme)
+                .append(SCHEME_SEPARATOR);
+
+        var position = schemeProvided ? schemeEnd + SCHEME_SEPARATOR.length() : 0;
+        var authorityEnd = position;
+        while (authorityEnd < length && !isAuthorityTerminator(url.charAt(authorityEnd))) {
+            authorityEnd++;
+        }
+
+        var userInfoEnd = url.lastIndexOf('@', authorityEnd - 1);
+        if (userInfoEnd >= position) {
+            if (!appendComponent(url, position, userInfoEnd + 1, canonical)) {
+                return Optional.empty();
+            }
+            position = userInfoEnd + 1;
+        }
+
+        var hostEnd = hostEnd(url, position, authorityEnd);
+        if (hostEnd <= position) {
+            return Optional.empty();
+        }
+        var host = lowerCase(url, position, hostEnd);
+        if (!hostValidationCache.isValid(host)) {
+            return Optional.empty();
+        }
+        canonical.append(host);
+
+        var port = -1;
+        if (hostEnd < authorityEnd) {
+            port = url.charAt(hostEnd) == ':' ? parsePort(url, hostEnd + 1, authorityEnd) : -1;
+            if (port < 0) {
+                return Optional.empty();
+            }
+            if (port != defaultPort) {
+                canonical.append(':').append(port);
+            }
+        }
+
+        position = authorityEnd;
+        var pathEnd = position;
+        while (pathEnd < length && url.charAt(pathEnd) != '?' && url.charAt(pathEnd) != '#') {
+            pathEnd++;
+        }
+        if (!appendPath(url, position, pathEnd, canonical)) {
+            return Optional.empty();
+        }
+
+        if (!appendComponent(url, pathEnd, length, canonical)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ScannedUrl(scheme, host, port, canonical.toString(), schemeProvided));
+    }
+
+    // Canonical form of a valid url. Anything else only gets the default scheme when it has none,
+    // which is what the service always did with long urls.
+    public String canonicalize(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        return scan(url)
+                .map(ScannedUrl::canonical)
+                .orElseGet(() -> schemeEnd(url) > 0 ? url : DEFAULT_SCHEME + SCHEME_SEPARATOR + url);
+    }
+
+    private static int schemeEnd(String url) {
+        if (url.isEmpty() || !isAsciiLetter(url.charAt(0))) {
+            return -1;
+        }
+
+        for (int i = 1; i < url.length(); i++) {
+            var c = url.charAt(i);
+            if (c == ':') {
+                return url.startsWith(SCHEME_SEPARATOR, i) ? i : -1;
+            }
+            if (!isAsciiLetter(c) && !isDigit(c) && c != '+' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int defaultPort(String scheme) {
+        return switch (scheme) {
+            case "http" -> 80;
+            case "https" -> 443;
+            case "ftp" -> 21;
+            default -> -1;
+        };
+    }
+
+    private static boolean isAuthorityTerminator(char c) {
+        return c == '/' || c == '?' || c == '#';
+    }
+
+    private static int hostEnd(String url, int from, int authorityEnd) {
+        if (from < authorityEnd && url.charAt(from) == '[') {
+            var closing = url.indexOf(']', from);
+            return closing < 0 || closing >= authorityEnd ? -1 : closing + 1;
+        }
+
+        var end = from;
+        while (end < authorityEnd && url.charAt(end) != ':') {
+            end++;
+        }
+        return end;
+    }
+
+    private static int parsePort(String url, int from, int to) {
+        if (from == to || to - from > 5) {
+            return -1;
+        }
+
+        var port = 0;
+        for (int i = from; i < to; i++) {
+            var c = url.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            port = port * 10 + (c - '0');
+        }
+        return port <= MAX_PORT ? port : -1;
+    }
+
+    // Same character set as commons-validator's path check, without "//" and without ".." above the root.
+    private static boolean appendPath(String url, int from, int to, StringBuilder canonical) {
+        var depth = 0;
+        var segmentStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || url.charAt(i) == '/') {
+                if (i > from) {
+                    var segmentLength = i - segmentStart;
+                    if (segmentLength == 0 && i < to) {
+                        return false;
+                    }
+                    if (segmentLength == 2 && url.startsWith("..", segmentStart)) {
+                        depth--;
+                    } else if (segmentLength != 1 || url.charAt(segmentStart) != '.') {
+                        depth++;
+                    }
+                    if (depth < 0) {
+                        return false;
+                    }
+                }
+                segmentStart = i + 1;
+                if (i < to) {
+                    canonical.append('/');
+                }
+                continue;
+            }
+
+            var c = url.charAt(i);
+            if (c == '%') {
+                i = appendPercentEncoded(url, i, to, canonical);
+            } else if (isAsciiLetter(c) || isDigit(c) || PATH_SYMBOLS.indexOf(c) >= 0) {
+                canonical.append(c);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Query, fragment and user info: anything but whitespace and control characters.
+    private static boolean appendComponent(String url, int from, int to, StringBuilder canonical) {
+        for (int i = from; i < to; i++) {
+            var c = url.charAt(i);
+            if (Character.isWhitespace(c) || Character.isISOControl(c)) {
+                return false;
+            }
+            if (c == '%') {
+                i = appendPercentEncoded(url, i, to, canonical);
+            } else {
+                canonical.append(c);
+            }
+        }
+        return true;
+    }
+
+    // Returns the index of the last consumed character. A '%' not followed by two hex digits is kept as is.
+    private static int appendPercentEncoded(String url, int at, int to, StringBuilder canonical) {
+        if (at + 2 >= to) {
+            canonical.append('%');
+            return at;
+        }
+
+        var high = Character.digit(url.charAt(at + 1), 16);
+        var low = Character.digit(url.charAt(at + 2), 16);
+        if (high < 0 || low < 0) {
+            canonical.append('%');
+            return at;
+        }
+
+        var decoded = (char) (high << 4 | low);
+        if (isAsciiLetter(decoded) || isDigit(decoded) || UNRESERVED_SYMBOLS.indexOf(decoded) >= 0) {
+            canonical.append(decoded);
+        } else {
+            canonical.append('%')
+                    .append(Character.toUpperCase(url.charAt(at + 1)))
+                    .append(Character.toUpperCase(url.charAt(at + 2)));
+        }
+        return at + 2;
+    }
+
+    private static String lowerCase(String url, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.isUpperCase(url.charAt(i))) {
+                var chars = new char[to - from];
+                for (int j = from; j < to; j++) {
+                    chars[j - from] = Character.toLowerCase(url.charAt(j));
+                }
+                return new String(chars);
+            }
+        }
+        return url.substring(from, to);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,2 @@
+-- Lets the expired link reaper find due and soon-to-expire links without scanning the table.
+CREATE INDEX CONCURRENTLY idx_links_on_expires_at ON links (expires_at) WHERE expires_at IS NOT NULL;
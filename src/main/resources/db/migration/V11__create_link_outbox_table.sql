@@ -0,0 +1,7 @@
+-- Link lifecycle events written in the same transaction as the link change and relayed to Kafka.
+CREATE TABLE link_outbox (
+    id                  BIGSERIAL PRIMARY KEY,
+    message_key         VARCHAR(255) NOT NULL,
+    payload             BYTEA NOT NULL,
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,19 @@
+-- Links used to be stamped with a fixed 7-day expiry whenever none was given. Links now never
+-- expire unless asked to, so clear those stamps. Walks the table in id ranges and commits after
+-- each one, so no range holds its row locks or WAL for longer than it takes to update it.
+DO $$
+DECLARE
+    batch_size CONSTANT BIGINT := 10000;
+    last_id    BIGINT;
+    from_id    BIGINT := 0;
+BEGIN
+    SELECT COALESCE(MAX(id), 0) INTO last_id FROM links;
+    WHILE from_id < last_id LOOP
+        UPDATE links
+        SET expires_at = NULL
+        WHERE id > from_id AND id <= from_id + batch_size
+          AND expires_at = created_at + INTERVAL '7 days';
+        COMMIT;
+        from_id := from_id + batch_size;
+    END LOOP;
+END $$;
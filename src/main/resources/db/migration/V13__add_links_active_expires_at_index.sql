@@ -0,0 +1,2 @@
+-- Lets the reaper deactivate due links without re-reading the ones it has already deactivated.
+CREATE INDEX CONCURRENTLY idx_links_active_on_expires_at ON links (expires_at) WHERE expires_at IS NOT NULL AND is_active;
@@ -0,0 +1,6 @@
+-- Single row naming the relay currently draining link_outbox and until when it may do so.
+CREATE TABLE link_outbox_relay_lease (
+    id                  SMALLINT PRIMARY KEY CHECK (id = 1),
+    relay_id            VARCHAR(64) NOT NULL,
+    expires_at          TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,6 @@
+CREATE TABLE short_url_claims (
+    short_url           CITEXT PRIMARY KEY,
+    claimed_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_short_url_claims_on_claimed_at ON short_url_claims (claimed_at);
@@ -0,0 +1 @@
+CREATE SEQUENCE short_url_seq AS BIGINT START WITH 1 INCREMENT BY 1 NO CYCLE;
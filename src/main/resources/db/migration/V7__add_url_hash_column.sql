@@ -0,0 +1,3 @@
+ALTER TABLE links ADD COLUMN url_hash BIGINT;
+
+CREATE INDEX idx_links_on_user_id_and_url_hash ON links (user_id, url_hash);
@@ -0,0 +1,4 @@
+-- Serves the keyset-paginated link list; its user_id prefix makes the single column index redundant.
+-- Runs outside a transaction, so the old index is only dropped once the new one has been built.
+CREATE INDEX CONCURRENTLY idx_links_on_user_id_and_created_at_and_id ON links (user_id, created_at DESC, id DESC);
+DROP INDEX CONCURRENTLY idx_links_on_user_id;
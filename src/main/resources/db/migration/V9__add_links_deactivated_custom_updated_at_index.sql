@@ -0,0 +1,2 @@
+-- Lets the vanity link sweeper find its next batch without scanning the table.
+CREATE INDEX CONCURRENTLY idx_links_deactivated_custom_on_updated_at ON links (updated_at) WHERE is_custom AND NOT is_active;
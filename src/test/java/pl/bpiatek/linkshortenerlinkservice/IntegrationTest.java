@@ -84,6 +84,7 @@ public abstract class IntegrationTest {
     @AfterEach
     void tearDown() {
         jdbcTemplate.update("DELETE FROM links");
+        jdbcTemplate.update("DELETE FROM link_outbox");
 
         mutableClock.setInstant(DEFAULT_NOW);
 
@@ -13,24 +13,48 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkBatchItemResult;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
 import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinksBatchRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinksBatchResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkExportFormat;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportError;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkListRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkPageResponse;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkSummaryDto;
 import pl.bpiatek.linkshortenerlinkservice.config.ClockConfiguration;
 import pl.bpiatek.linkshortenerlinkservice.config.TestSecurityConfiguration;
+import pl.bpiatek.linkshortenerlinkservice.exception.BlockedContentException;
+import pl.bpiatek.linkshortenerlinkservice.exception.InvalidCursorException;
 import pl.bpiatek.linkshortenerlinkservice.exception.ShortCodeAlreadyExistsException;
 import pl.bpiatek.linkshortenerlinkservice.exception.UnableToGenerateUniqueShortUrlException;
 import pl.bpiatek.linkshortenerlinkservice.link.LinkFacade;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlConfig;
 
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @WebMvcTest(LinkController.class)
-@Import({TestSecurityConfiguration.class, ClockConfiguration.class})
+@Import({TestSecurityConfiguration.class, ClockConfiguration.class, UrlConfig.class})
 @ActiveProfiles("test")
 class LinkControllerTest {
 
@@ -54,7 +78,7 @@ class LinkControllerTest {
         var request = new CreateLinkRequest(LONG_URL, "custom", IS_ACTIVE, TITLE);
 
         var facadeResponse = new CreateLinkResponse("custom", LONG_URL);
-        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title()))
+        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate()))
                 .thenReturn(facadeResponse);
 
         // when
@@ -68,7 +92,7 @@ class LinkControllerTest {
                 .andExpect(jsonPath("$.longUrl", is(facadeResponse.longUrl())));
 
         // then
-        verify(linkFacade).createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title());
+        verify(linkFacade).createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate());
     }
 
     @Test
@@ -84,6 +108,21 @@ class LinkControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldReturn400BadRequestWhileCreatingLinkWhenShortUrlIsTooLong() throws Exception {
+        // given
+        var request = new CreateLinkRequest(LONG_URL, "a".repeat(65), IS_ACTIVE, null);
+
+        // then
+        mockMvc.perform(post("/links")
+                        .header("X-User-Id", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].message", is("The short URL cannot exceed 64 characters.")))
+                .andExpect(jsonPath("$.errors[0].field", is("shortUrl")));
+    }
+
     @Test
     void shouldReturn403ForbiddenWhileCreatingLinkWhenUSER_IdHeaderIsMissing() throws Exception {
         // given
@@ -119,7 +158,7 @@ class LinkControllerTest {
         var shortUrl = "taken";
         var request = new CreateLinkRequest(LONG_URL, shortUrl, IS_ACTIVE, null);
 
-        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title()))
+        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate()))
                 .thenThrow(new ShortCodeAlreadyExistsException(shortUrl));
 
         // then
@@ -150,7 +189,7 @@ class LinkControllerTest {
         // given
         var request = new CreateLinkRequest(LONG_URL, null, IS_ACTIVE, TITLE);
 
-        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title()))
+        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate()))
                 .thenThrow(new UnableToGenerateUniqueShortUrlException(5));
 
         // then
@@ -164,12 +203,30 @@ class LinkControllerTest {
                         is("The service is temporarily unable to generate a new link. Please try again later.")));
     }
 
+    @Test
+    void shouldReturn400BadRequestWhileCreatingLinkWhenFacadeThrowsBlockedContentException() throws Exception {
+        // given
+        var request = new CreateLinkRequest(LONG_URL, "blocked-code", IS_ACTIVE, TITLE);
+
+        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate()))
+                .thenThrow(new BlockedContentException());
+
+        // then
+        mockMvc.perform(post("/links")
+                        .header("X-User-Id", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Blocked Content")))
+                .andExpect(jsonPath("$.detail", is("The link contains blocked content and cannot be created.")));
+    }
+
     @Test
     void shouldReturn500InternalServerErrorWhileCreatingLinkWhenFacadeThrowsUnexpectedException() throws Exception {
         // given
         var request = new CreateLinkRequest(LONG_URL, "my-code", IS_ACTIVE, null);
 
-        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title()))
+        when(linkFacade.createLink(USER_ID, request.longUrl(), request.shortUrl(), request.isActive(), request.title(), request.deduplicate()))
                 .thenThrow(new RuntimeException("A critical database error occurred!"));
 
         // then
@@ -224,6 +281,154 @@ class LinkControllerTest {
                 .andExpect(jsonPath("$.errors[0].field", is("longUrl")));
     }
 
+    @Test
+    void shouldCreateLinksInBatchAndReturnResultPerItem() throws Exception {
+        // given
+        var links = List.of(new CreateLinkRequest(LONG_URL, null, true, TITLE), new CreateLinkRequest("invalid-url", null, true, TITLE));
+        var facadeResponse = CreateLinksBatchResponse.of(List.of(
+                CreateLinkBatchItemResult.created(0, new CreateLinkResponse("abc1234", LONG_URL)),
+                CreateLinkBatchItemResult.failed(1, "longUrl: A valid URL format is required.")));
+        when(linkFacade.createLinks(USER_ID, links)).thenReturn(facadeResponse);
+
+        // when
+        mockMvc.perform(post("/links/batch")
+                        .header("X-User-Id", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateLinksBatchRequest(links))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].shortUrl", is("abc1234")))
+                .andExpect(jsonPath("$.results[1].error", is("longUrl: A valid URL format is required.")));
+
+        // then
+        verify(linkFacade).createLinks(USER_ID, links);
+    }
+
+    @Test
+    void shouldReturn400BadRequestWhileCreatingLinksInBatchWhenBatchIsEmpty() throws Exception {
+        // then
+        mockMvc.perform(post("/links/batch")
+                        .header("X-User-Id", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateLinksBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Validation Failed")));
+        verify(linkFacade, never()).createLinks(any(), anyList());
+    }
+
+    @Test
+    void shouldImportLinksFromCsvUpload() throws Exception {
+        // given
+        var facadeResponse = new LinkImportResponse(2, 1, 1, 0, List.of(new LinkImportError(3, "A valid URL format is required.")));
+        when(linkFacade.importLinks(eq(USER_ID), any(), any())).thenReturn(facadeResponse);
+
+        // when
+        mockMvc.perform(post("/links/import")
+                        .header("X-User-Id", USER_ID)
+                        .contentType("text/csv")
+                        .content("long_url\n" + LONG_URL + "\ninvalid\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)));
+
+        // then
+        verify(linkFacade).importLinks(eq(USER_ID), startsWith("text/csv"), any());
+    }
+
+    @Test
+    void shouldReturn415WhileImportingLinksInUnsupportedFormat() throws Exception {
+        // then
+        mockMvc.perform(post("/links/import")
+                        .header("X-User-Id", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+        verify(linkFacade, never()).importLinks(any(), any(), any());
+    }
+
+    @Test
+    void shouldListLinksWithFiltersAndCursor() throws Exception {
+        // given
+        var request = new LinkListRequest("abc", 10, true, false, Instant.parse("2025-10-01T00:00:00Z"), null);
+        var summary = new LinkSummaryDto("1", "abc1234", LONG_URL, TITLE, true, false, Instant.parse("2025-11-01T12:00:00Z"), null);
+        when(linkFacade.listLinks(USER_ID, request)).thenReturn(new LinkPageResponse(List.of(summary), "next"));
+
+        // when
+        mockMvc.perform(get("/links")
+                        .header("X-User-Id", USER_ID)
+                        .param("cursor", "abc")
+                        .param("limit", "10")
+                        .param("isActive", "true")
+                        .param("isCustom", "false")
+                        .param("createdFrom", "2025-10-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.links[0].shortUrl", is("abc1234")))
+                .andExpect(jsonPath("$.links[0].notes").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        // then
+        verify(linkFacade).listLinks(USER_ID, request);
+    }
+
+    @Test
+    void shouldReturn400BadRequestWhileListingLinksWhenLimitIsTooLarge() throws Exception {
+        // then
+        mockMvc.perform(get("/links")
+                        .header("X-User-Id", USER_ID)
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Validation Failed")));
+        verify(linkFacade, never()).listLinks(any(), any());
+    }
+
+    @Test
+    void shouldReturn400BadRequestWhileListingLinksWhenCursorIsMalformed() throws Exception {
+        // given
+        when(linkFacade.listLinks(eq(USER_ID), any())).thenThrow(new InvalidCursorException("The cursor is malformed."));
+
+        // then
+        mockMvc.perform(get("/links")
+                        .header("X-User-Id", USER_ID)
+                        .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid Cursor")));
+    }
+
+    @Test
+    void shouldExportLinksAsCsvAttachment() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,short_url\n".getBytes(UTF_8));
+            return null;
+        }).when(linkFacade).exportLinks(eq(USER_ID), eq(LinkExportFormat.CSV), any());
+
+        // when
+        mockMvc.perform(get("/links/export")
+                        .header("X-User-Id", USER_ID)
+                        .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"links.csv\""))
+                .andExpect(content().string("id,short_url\n"));
+
+        // then
+        verify(linkFacade).exportLinks(eq(USER_ID), eq(LinkExportFormat.CSV), any());
+    }
+
+    @Test
+    void shouldReturn400BadRequestWhileExportingLinksInUnknownFormat() throws Exception {
+        // then
+        mockMvc.perform(get("/links/export")
+                        .header("X-User-Id", USER_ID)
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid Parameter")));
+        verify(linkFacade, never()).exportLinks(any(), any(), any());
+    }
+
     @TestConfiguration
     static class ControllerTestConfig {
 
@@ -232,4 +437,4 @@ class LinkControllerTest {
             return builder.build();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package pl.bpiatek.linkshortenerlinkservice.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.ResolvedLinkDto;
+import pl.bpiatek.linkshortenerlinkservice.config.ClockConfiguration;
+import pl.bpiatek.linkshortenerlinkservice.config.TestSecurityConfiguration;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkNotFoundException;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkFacade;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ResolveController.class)
+@Import({TestSecurityConfiguration.class, ClockConfiguration.class})
+@ActiveProfiles("test")
+class ResolveControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LinkFacade linkFacade;
+
+    @Test
+    void shouldResolveShortUrlWithoutUserHeader() throws Exception {
+        // given
+        when(linkFacade.resolve("abc123")).thenReturn(new ResolvedLinkDto("abc123", "https://example.com/long", null));
+
+        // then
+        mockMvc.perform(get("/resolve/abc123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.longUrl", is("https://example.com/long")));
+    }
+
+    @Test
+    void shouldReturn404WhenShortUrlDoesNotResolve() throws Exception {
+        // given
+        when(linkFacade.resolve("missing")).thenThrow(new LinkNotFoundException("Link not found"));
+
+        // then
+        mockMvc.perform(get("/resolve/missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title", is("Link not found")));
+    }
+}
@@ -6,13 +6,14 @@ import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 
 class UrlValidatorConstraintTest {
 
-    private final UrlValidatorConstraint validator = new UrlValidatorConstraint();
+    private final UrlValidatorConstraint validator = new UrlValidatorConstraint(new UrlScanner(100));
     private final ConstraintValidatorContext context = mock(ConstraintValidatorContext.class);
 
     @ParameterizedTest(name = "URL: \"{0}\" should be valid")
@@ -23,7 +24,10 @@ class UrlValidatorConstraintTest {
             "https://bpiatek.pl/some/path",
             "https://www.youtube.com/watch?v=E2btdGWn2RE",
             "http://example.com:8080/path?query=value#fragment",
-            "ftp://files.example.com/resource.zip"
+            "ftp://files.example.com/resource.zip",
+            "HTTPS://Example.COM:443/a/b/",
+            "http://192.168.1.10:8080/status",
+            "https://example.com/search?q=100%"
     })
     void shouldReturnTrueForValidUrls(String validUrl) {
         // when
@@ -40,7 +44,10 @@ class UrlValidatorConstraintTest {
             "htp://invalid.com",       // Invalid scheme
             "https://",                // Scheme only
             "https:// example.com",    // Contains spaces
-            "https://.com"             // Missing domain
+            "https://.com",            // Missing domain
+            "https://example.com:99999",
+            "https://example.com//double",
+            "https://example.com/../escape"
     })
     void shouldReturnFalseForInvalidUrls(String invalidUrl) {
         // when
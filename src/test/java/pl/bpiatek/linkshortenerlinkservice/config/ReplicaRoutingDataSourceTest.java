@@ -0,0 +1,127 @@
+package pl.bpiatek.linkshortenerlinkservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldSpreadReadOnlyTransactionsOverHealthyReplicas() throws SQLException {
+        // given
+        var dataSource = routingDataSource(Map.of("replica-0", replica(0), "replica-1", replica(0)));
+        dataSource.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        var first = dataSource.determineCurrentLookupKey();
+        var second = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(new Object[]{first, second}).containsExactlyInAnyOrder("replica-0", "replica-1");
+        assertThat(meterRegistry.get("datasource.routing").tag("target", "replica").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepWritesOnPrimary() throws SQLException {
+        // given
+        var dataSource = routingDataSource(Map.of("replica-0", replica(0)));
+        dataSource.checkReplicas();
+
+        // expect
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicasLagOrFail() throws SQLException {
+        // given
+        var unreachable = mock(DataSource.class);
+        given(unreachable.getConnection()).willThrow(new SQLException("Connection refused"));
+        var dataSource = routingDataSource(Map.of("replica-0", replica(6_000), "replica-1", unreachable));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        var beforeCheck = dataSource.determineCurrentLookupKey();
+        dataSource.checkReplicas();
+        var afterCheck = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(beforeCheck).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(afterCheck).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(meterRegistry.get("datasource.replica.healthy").tag("replica", "replica-0").gauge().value()).isZero();
+        assertThat(meterRegistry.get("datasource.replica.lag").tag("replica", "replica-0").timeGauge().value(TimeUnit.MILLISECONDS)).isEqualTo(6_000);
+    }
+
+    @Test
+    void shouldPinUserToPrimaryForWindowAfterWrite() throws SQLException {
+        // given
+        var dataSource = routingDataSource(Map.of("replica-0", replica(0)));
+        dataSource.checkReplicas();
+        asUser("123");
+        dataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        var duringWindow = dataSource.determineCurrentLookupKey();
+        asUser("456");
+        var otherUser = dataSource.determineCurrentLookupKey();
+        asUser("123");
+        clock.setInstant(NOW.plusSeconds(11));
+        var afterWindow = dataSource.determineCurrentLookupKey();
+
+        // then
+        assertThat(duringWindow).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(otherUser).isEqualTo("replica-0");
+        assertThat(afterWindow).isEqualTo("replica-0");
+    }
+
+    private ReplicaRoutingDataSource routingDataSource(Map<String, DataSource> replicas) {
+        return new ReplicaRoutingDataSource(mock(DataSource.class), new LinkedHashMap<>(replicas), clock, meterRegistry,
+                Duration.ofSeconds(5), Duration.ofSeconds(10));
+    }
+
+    private static DataSource replica(long lagMillis) throws SQLException {
+        var dataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+        var resultSet = dataSource.getConnection().createStatement().executeQuery(anyString());
+        given(resultSet.next()).willReturn(true);
+        given(resultSet.getLong(1)).willReturn(lagMillis);
+        return dataSource;
+    }
+
+    private static void asUser(String userId) {
+        var request = new MockHttpServletRequest();
+        request.addHeader("X-User-Id", userId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,54 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickAutomatonTest {
+
+    @Test
+    void shouldFindPatternAnywhereInInput() {
+        // given
+        var automaton = AhoCorasickAutomaton.compile(List.of("phish", "evil.example"));
+
+        // when
+        var match = automaton.findFirst("https://login.EVIL.example/account");
+
+        // then
+        assertThat(match).isEqualTo("evil.example");
+    }
+
+    @Test
+    void shouldFollowFailureLinksBetweenOverlappingPatterns() {
+        // given
+        var automaton = AhoCorasickAutomaton.compile(List.of("he", "she", "hers", "abcd", "bce"));
+
+        // then
+        assertThat(automaton.findFirst("ushers")).isEqualTo("she");
+        assertThat(automaton.findFirst("abce")).isEqualTo("bce");
+        assertThat(automaton.findFirst("xhx")).isNull();
+    }
+
+    @Test
+    void shouldReportPatternEndingInsideLongerPattern() {
+        // given
+        var automaton = AhoCorasickAutomaton.compile(List.of("scam", "xscamy"));
+
+        // then
+        assertThat(automaton.findFirst("xscaz")).isNull();
+        assertThat(automaton.findFirst("xscam")).isEqualTo("scam");
+    }
+
+    @Test
+    void shouldNotMatchAnythingWhenEmpty() {
+        // given
+        var automaton = AhoCorasickAutomaton.compile(List.of("", ""));
+
+        // then
+        assertThat(automaton.patternCount()).isZero();
+        assertThat(automaton.findFirst("anything")).isNull();
+        assertThat(automaton.findFirst(null)).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.bpiatek.linkshortenerlinkservice.exception.BlockedContentException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentBlocklistTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldBlockShortUrlAndLongUrlContainingListedEntry() throws IOException {
+        // given
+        var file = givenBlocklist("# brands", "paypa1", "", "bad-host.example");
+        var blocklist = new ContentBlocklist(file, meterRegistry);
+
+        // then
+        assertThatThrownBy(() -> blocklist.screen("my-PAYPA1-login", "https://example.com"))
+                .isInstanceOf(BlockedContentException.class);
+        assertThatThrownBy(() -> blocklist.screen(null, "https://www.bad-host.example/x"))
+                .isInstanceOf(BlockedContentException.class);
+        assertThatCode(() -> blocklist.screen("paypal", "https://example.com")).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("link.blocklist.patterns").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.blocklist.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("link.blocklist.build").timer().count()).isOne();
+    }
+
+    @Test
+    void shouldReloadWhenFileChanges() throws IOException {
+        // given
+        var file = givenBlocklist("first");
+        var blocklist = new ContentBlocklist(file, meterRegistry);
+        Files.writeString(file, "second");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // when
+        blocklist.reloadIfChanged();
+
+        // then
+        assertThatCode(() -> blocklist.screen("first", "https://example.com")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> blocklist.screen("second", "https://example.com"))
+                .isInstanceOf(BlockedContentException.class);
+    }
+
+    @Test
+    void shouldKeepPreviousListWhenFileDisappears() throws IOException {
+        // given
+        var file = givenBlocklist("blocked");
+        var blocklist = new ContentBlocklist(file, meterRegistry);
+        Files.delete(file);
+
+        // when
+        blocklist.reloadIfChanged();
+
+        // then
+        assertThatThrownBy(() -> blocklist.screen("blocked", "https://example.com"))
+                .isInstanceOf(BlockedContentException.class);
+    }
+
+    @Test
+    void shouldAllowEverythingWithoutFile() {
+        // given
+        var blocklist = new ContentBlocklist(null, meterRegistry);
+
+        // then
+        assertThatCode(() -> blocklist.screen("anything", "https://example.com")).doesNotThrowAnyException();
+    }
+
+    private Path givenBlocklist(String... lines) throws IOException {
+        return Files.write(directory.resolve("blocklist.txt"), List.of(lines));
+    }
+}
@@ -8,10 +8,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.dao.DataIntegrityViolationException;
 import pl.bpiatek.linkshortenerlinkservice.exception.ReservedShortUrlException;
 import pl.bpiatek.linkshortenerlinkservice.exception.ShortCodeAlreadyExistsException;
 
+import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -75,7 +75,7 @@ class CustomShortUrlCreationStrategyTest {
         // then
         assertThatThrownBy(() -> strategy.createLink(USER_ID, LONG_URL, customShortUrl, true, TITLE, eventPublisher))
                 .isInstanceOf(ShortCodeAlreadyExistsException.class);
-        verify(linkRepository).save(any(Link.class));
+        verify(linkRepository).tryInsert(any(Link.class));
     }
 
     @Test
@@ -106,7 +106,7 @@ class CustomShortUrlCreationStrategyTest {
         var response = aCreateLinkResponseWithShortUrl(uniqueShortUrl);
 
         given(linkMapper.toLink(anyString(), anyString(), eq(uniqueShortUrl), anyBoolean(), anyBoolean(), anyString())).willReturn(linkToSave);
-        given(linkRepository.save(linkToSave)).willReturn(savedLink);
+        given(linkRepository.tryInsert(linkToSave)).willReturn(Optional.of(savedLink));
         given(linkMapper.toCreateLinkResponse(savedLink)).willReturn(response);
 
         return savedLink;
@@ -115,6 +115,6 @@ class CustomShortUrlCreationStrategyTest {
     private void givenCollisionOnSave(String collidingShortUrl) {
         var link = aLinkWithShortUrl(collidingShortUrl);
         given(linkMapper.toLink(anyString(), anyString(), eq(collidingShortUrl), anyBoolean(), anyBoolean(), anyString())).willReturn(link);
-        given(linkRepository.save(link)).willThrow(new DataIntegrityViolationException("Collision!"));
+        given(linkRepository.tryInsert(link)).willReturn(Optional.empty());
     }
 }
@@ -0,0 +1,97 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkRepository.ExpiringLink;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLinkBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredLinkReaperTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+    private final ExpiryWheel wheel = new ExpiryWheel(Duration.ofSeconds(1), 64, 100, NOW);
+
+    @Test
+    void shouldDeleteDueLinksAndScheduleUpcomingOnes() {
+        // given
+        var first = aLinkBuilder().id(1L).expiresAt(NOW.minusSeconds(10)).build();
+        var second = aLinkBuilder().id(2L).expiresAt(NOW.minusSeconds(5)).build();
+        var third = aLinkBuilder().id(3L).expiresAt(NOW.minusSeconds(1)).build();
+        given(linkRepository.expireDue(NOW, LinkExpiryAction.DELETE, 2)).willReturn(List.of(first, second), List.of(third));
+        given(linkRepository.findExpiringBetween(NOW, NOW.plusSeconds(64), 2)).willReturn(List.of(new ExpiringLink(4L, NOW.plusSeconds(30))));
+
+        // when
+        reaper(LinkExpiryAction.DELETE, true).scan();
+
+        // then
+        verify(eventPublisher).publishEvent(new LinkDeletedApplicationEvent(first));
+        verify(eventPublisher).publishEvent(new LinkDeletedApplicationEvent(second));
+        verify(eventPublisher).publishEvent(new LinkDeletedApplicationEvent(third));
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(meterRegistry.get("link.expiry.reaped").tag("source", "scan").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDeactivateLinksFiredByWheel() {
+        // given
+        var link = aLinkBuilder().id(4L).expiresAt(NOW.plusSeconds(30)).build();
+        var deactivated = aLinkBuilder().id(4L).isActive(false).expiresAt(NOW.plusSeconds(30)).build();
+        var reaper = reaper(LinkExpiryAction.DEACTIVATE, true);
+        reaper.onLinkCreated(new LinkCreatedApplicationEvent(link));
+        given(linkRepository.expireDueByIds(List.of(4L), NOW.plusSeconds(30), LinkExpiryAction.DEACTIVATE)).willReturn(List.of(deactivated));
+
+        // when
+        reaper.tick();
+        clock.setInstant(NOW.plusSeconds(30));
+        reaper.tick();
+
+        // then
+        verify(eventPublisher).publishEvent(new LinkUpdatedApplicationEvent(deactivated));
+        assertThat(meterRegistry.get("link.expiry.reaped").tag("source", "wheel").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // given
+        var reaper = reaper(LinkExpiryAction.DELETE, false);
+
+        // when
+        reaper.scan();
+        reaper.onLinkCreated(new LinkCreatedApplicationEvent(aLinkBuilder().id(1L).expiresAt(NOW.plusSeconds(1)).build()));
+        reaper.tick();
+
+        // then
+        verifyNoInteractions(linkRepository, eventPublisher);
+        assertThat(wheel.size()).isZero();
+    }
+
+    private ExpiredLinkReaper reaper(LinkExpiryAction action, boolean enabled) {
+        return new ExpiredLinkReaper(linkRepository, eventPublisher, TransactionOperations.withoutTransaction(), clock,
+                meterRegistry, wheel, action, enabled, 2);
+    }
+}
@@ -0,0 +1,85 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpiryWheelTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    private final ExpiryWheel wheel = new ExpiryWheel(Duration.ofSeconds(1), 8, 100, NOW);
+
+    @Test
+    void shouldFireLinksOnceTheirTickHasPassed() {
+        // given
+        wheel.schedule(1L, NOW.plusMillis(1500));
+        wheel.schedule(2L, NOW.plusSeconds(3));
+
+        // when
+        var beforeExpiry = wheel.advance(NOW.plusSeconds(1));
+        var afterFirst = wheel.advance(NOW.plusSeconds(2));
+        var afterSecond = wheel.advance(NOW.plusSeconds(3));
+
+        // then
+        assertThat(beforeExpiry).isEmpty();
+        assertThat(afterFirst).containsExactly(1L);
+        assertThat(afterSecond).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldRejectLinksBeyondOneRevolutionAndDuplicates() {
+        // expect
+        assertThat(wheel.span()).isEqualTo(Duration.ofSeconds(8));
+        assertThat(wheel.schedule(1L, NOW.plusSeconds(7))).isTrue();
+        assertThat(wheel.schedule(1L, NOW.plusSeconds(7))).isFalse();
+        assertThat(wheel.schedule(2L, NOW.plusSeconds(8))).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFireAlreadyExpiredLinksOnNextAdvance() {
+        // given
+        wheel.schedule(1L, NOW.minusSeconds(5));
+
+        // expect
+        assertThat(wheel.advance(NOW)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldDrainWholeWheelAfterLongPause() {
+        // given
+        wheel.schedule(1L, NOW.plusSeconds(2));
+        wheel.schedule(2L, NOW.plusSeconds(7));
+
+        // when
+        var due = wheel.advance(NOW.plusSeconds(60));
+
+        // then
+        assertThat(due).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(wheel.schedule(3L, NOW.plusSeconds(61))).isTrue();
+        assertThat(wheel.advance(NOW.plusSeconds(61))).containsExactly(3L);
+    }
+
+    @Test
+    void shouldStopAcceptingLinksWhenFull() {
+        // given
+        var small = new ExpiryWheel(Duration.ofSeconds(1), 8, 1, NOW);
+        small.schedule(1L, NOW.plusSeconds(1));
+
+        // expect
+        assertThat(small.schedule(2L, NOW.plusSeconds(1))).isFalse();
+    }
+
+    @Test
+    void shouldRequirePowerOfTwoSlots() {
+        // expect
+        assertThatThrownBy(() -> new ExpiryWheel(Duration.ofSeconds(1), 10, 100, NOW))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -7,7 +7,9 @@ import pl.bpiatek.linkshortenerlinkservice.IntegrationTest;
 import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -65,6 +67,123 @@ class JdbcLinkRepositoryTest extends IntegrationTest {
         });
     }
 
+    @Test
+    void shouldInsertLinkWhenShortUrlIsFree() {
+        // given
+        var linkToInsert = new Link("123", "fr33Cd", "https://example.com/a-very-long-url", true, false, "Example Title");
+
+        // when
+        var insertedLink = linkRepository.tryInsert(linkToInsert);
+
+        // then
+        assertThat(insertedLink).isPresent();
+        var link = getLinkWithId(insertedLink.get().id());
+        assertSoftly(s -> {
+            s.assertThat(link.shortUrl()).isEqualTo("fr33Cd");
+            s.assertThat(link.userId()).isEqualTo("123");
+            s.assertThat(insertedLink.get().createdAt()).isEqualTo(link.createdAt());
+        });
+    }
+
+    @Test
+    void shouldNotInsertLinkWhenShortUrlIsTaken() {
+        // given
+        linkFixtures.aLink(TestLink.builder()
+                .shortUrl("taken1")
+                .build());
+        var linkToInsert = new Link("456", "TAKEN1", "https://example.com/other", true, true, null);
+
+        // when
+        var insertedLink = linkRepository.tryInsert(linkToInsert);
+
+        // then
+        assertThat(insertedLink).isEmpty();
+        assertThat(linkFixtures.linksCountByShortUrl("taken1")).isOne();
+    }
+
+    @Test
+    void shouldInsertLinkWithFirstFreeCandidate() {
+        // given
+        linkFixtures.aLink(TestLink.builder()
+                .shortUrl("cand01")
+                .build());
+        var linkToInsert = new Link("123", "cand01", "https://example.com/a-very-long-url", true, false, null);
+
+        // when
+        var insertedLink = linkRepository.tryInsertFirstFree(linkToInsert, List.of("CAND01", "cand02", "cand03"));
+
+        // then
+        assertThat(insertedLink).isPresent();
+        assertThat(insertedLink.get().shortUrl()).isEqualTo("cand02");
+        assertThat(getLinkWithId(insertedLink.get().id()).shortUrl()).isEqualTo("cand02");
+        assertThat(linkFixtures.linksCountByShortUrl("cand03")).isZero();
+    }
+
+    @Test
+    void shouldNotInsertLinkWhenAllCandidatesAreTaken() {
+        // given
+        linkFixtures.aLink(TestLink.builder()
+                .shortUrl("cand04")
+                .build());
+        var linkToInsert = new Link("123", "cand04", "https://example.com/a-very-long-url", true, false, null);
+
+        // when
+        var insertedLink = linkRepository.tryInsertFirstFree(linkToInsert, List.of("cand04", "CAND04"));
+
+        // then
+        assertThat(insertedLink).isEmpty();
+        assertThat(linkFixtures.linksCountByShortUrl("cand04")).isOne();
+    }
+
+    @Test
+    void shouldInsertAllLinksAndSkipTakenShortUrls() {
+        // given
+        linkFixtures.aLink(TestLink.builder().shortUrl("bulk01").build());
+        var links = List.of(
+                new Link("123", "BULK01", "https://example.com/a", true, false, null),
+                new Link("123", "bulk02", "https://example.com/b", true, true, "title"),
+                new Link("123", "bulk03", "https://example.com/c", false, false, null));
+
+        // when
+        var inserted = linkRepository.insertAllIgnoringConflicts(links);
+
+        // then
+        assertThat(inserted).extracting(Link::shortUrl).containsExactlyInAnyOrder("bulk02", "bulk03");
+        assertThat(inserted).allSatisfy(link -> assertThat(link.id()).isNotNull());
+        assertThat(getLinkWithId(inserted.getFirst().id()).longUrl()).isEqualTo(inserted.getFirst().longUrl());
+    }
+
+    @Test
+    void shouldFindActiveRandomLinkByUserIdAndLongUrl() {
+        // given
+        var longUrl = "https://example.com/dedup";
+        var existing = linkRepository.tryInsert(new Link("dedup-user", "dedup1", longUrl, true, false, null)).orElseThrow();
+        linkRepository.tryInsert(new Link("dedup-user", "dedup2", longUrl, false, false, null));
+        linkRepository.tryInsert(new Link("other-user", "dedup3", longUrl, true, false, null));
+
+        // when
+        var found = linkRepository.findActiveByUserIdAndLongUrl("dedup-user", longUrl);
+        var notFound = linkRepository.findActiveByUserIdAndLongUrl("dedup-user", longUrl + "/other");
+
+        // then
+        assertThat(found).map(Link::id).contains(existing.id());
+        assertThat(notFound).isEmpty();
+    }
+
+    @Test
+    void shouldStreamAllShortUrls() {
+        // given
+        linkFixtures.aLink(TestLink.builder().shortUrl("strm01").build());
+        linkFixtures.aLink(TestLink.builder().shortUrl("strm02").build());
+        var shortUrls = new ArrayList<String>();
+
+        // when
+        linkRepository.forEachShortUrl(1, shortUrls::add);
+
+        // then
+        assertThat(shortUrls).contains("strm01", "strm02");
+    }
+
     @Test
     void shouldFindLinkByShortUrl() {
         // given
@@ -132,6 +251,135 @@ class JdbcLinkRepositoryTest extends IntegrationTest {
         assertThat(getLinkWithId(foundLinks, link2.id())).isEqualTo(link2);
     }
 
+    @Test
+    void shouldPageLinksByUserIdNewestFirst() {
+        // given
+        var older = linkFixtures.aLink(TestLink.builder()
+                .userId("1")
+                .shortUrl("older")
+                .createdAt(LocalDateTime.of(2025, 10, 1, 12, 0))
+                .build());
+        var first = linkFixtures.aLink(TestLink.builder().userId("1").shortUrl("same1").build());
+        var second = linkFixtures.aLink(TestLink.builder().userId("1").shortUrl("same2").build());
+        linkFixtures.aLink(TestLink.builder().userId("2").shortUrl("other").build());
+
+        // when
+        var firstPage = linkRepository.findPage(new LinkListQuery("1", null, null, null, null, null, 2));
+        var secondPage = linkRepository.findPage(new LinkListQuery("1", null, null, null, null, LinkCursor.of(firstPage.getLast()), 2));
+
+        // then
+        assertThat(firstPage).extracting(LinkSummary::id).containsExactly(second.id(), first.id());
+        assertThat(secondPage).extracting(LinkSummary::id).containsExactly(older.id());
+    }
+
+    @Test
+    void shouldFilterPagedLinks() {
+        // given
+        linkFixtures.aLink(TestLink.builder()
+                .userId("1")
+                .shortUrl("old-active")
+                .isActive(true)
+                .createdAt(LocalDateTime.of(2025, 10, 1, 12, 0))
+                .build());
+        linkFixtures.aLink(TestLink.builder().userId("1").shortUrl("inactive").isActive(false).build());
+        var expected = linkFixtures.aLink(TestLink.builder().userId("1").shortUrl("active").isActive(true).build());
+
+        // when
+        var page = linkRepository.findPage(new LinkListQuery("1", true, null, Instant.parse("2025-10-15T00:00:00Z"), null, null, 10));
+
+        // then
+        assertThat(page).singleElement().satisfies(link -> {
+            assertThat(link.id()).isEqualTo(expected.id());
+            assertThat(link.shortUrl()).isEqualTo("active");
+        });
+    }
+
+    @Test
+    void shouldStreamLinksByUserIdOldestFirst() {
+        // given
+        var newer = linkFixtures.aLink(TestLink.builder().userId("1").shortUrl("newer").build());
+        var older = linkFixtures.aLink(TestLink.builder()
+                .userId("1")
+                .shortUrl("older")
+                .createdAt(LocalDateTime.of(2025, 10, 1, 12, 0))
+                .build());
+        linkFixtures.aLink(TestLink.builder().userId("2").shortUrl("other").build());
+        var streamed = new ArrayList<Link>();
+
+        // when
+        linkRepository.forEachByUserId("1", 1, streamed::add);
+
+        // then
+        assertThat(streamed).containsExactly(older, newer);
+    }
+
+    @Test
+    void shouldDeleteOldestDeactivatedCustomLinksInBatches() {
+        // given
+        var oldest = linkFixtures.aLink(TestLink.builder()
+                .shortUrl("vanity1").isCustom(true).isActive(false)
+                .updatedAt(LocalDateTime.of(2025, 8, 1, 12, 0))
+                .build());
+        var older = linkFixtures.aLink(TestLink.builder()
+                .shortUrl("vanity2").isCustom(true).isActive(false)
+                .updatedAt(LocalDateTime.of(2025, 9, 1, 12, 0))
+                .build());
+        linkFixtures.aLink(TestLink.builder()
+                .shortUrl("recent").isCustom(true).isActive(false)
+                .updatedAt(LocalDateTime.of(2025, 10, 30, 12, 0))
+                .build());
+        linkFixtures.aLink(TestLink.builder()
+                .shortUrl("active").isCustom(true).isActive(true)
+                .updatedAt(LocalDateTime.of(2025, 8, 1, 12, 0))
+                .build());
+        var cutoff = Instant.parse("2025-10-01T00:00:00Z");
+
+        // when
+        var firstBatch = linkRepository.deleteDeactivatedCustomLinksOlderThan(cutoff, 1);
+        var secondBatch = linkRepository.deleteDeactivatedCustomLinksOlderThan(cutoff, 1);
+        var thirdBatch = linkRepository.deleteDeactivatedCustomLinksOlderThan(cutoff, 1);
+
+        // then
+        assertThat(firstBatch).extracting(Link::id).containsExactly(oldest.id());
+        assertThat(secondBatch).extracting(Link::shortUrl).containsExactly(older.shortUrl());
+        assertThat(thirdBatch).isEmpty();
+        assertThat(linkRepository.findByShortUrl("recent")).isPresent();
+        assertThat(linkRepository.findByShortUrl("active")).isPresent();
+    }
+
+    @Test
+    void shouldExpireDueLinksAndFindUpcomingOnes() {
+        // given
+        var expired = linkFixtures.aLink(TestLink.builder()
+                .shortUrl("expired").isActive(true)
+                .expiredAt(LocalDateTime.of(2025, 11, 1, 11, 0))
+                .build());
+        var upcoming = linkFixtures.aLink(TestLink.builder()
+                .shortUrl("upcoming").isActive(true)
+                .expiredAt(LocalDateTime.of(2025, 11, 1, 12, 30))
+                .build());
+        linkFixtures.aLink(TestLink.builder().shortUrl("later").isActive(true).build());
+        var now = Instant.parse("2025-11-01T12:00:00Z");
+
+        // when
+        var deactivated = linkRepository.expireDue(now, LinkExpiryAction.DEACTIVATE, 10);
+        var again = linkRepository.expireDue(now, LinkExpiryAction.DEACTIVATE, 10);
+        var expiring = linkRepository.findExpiringBetween(now, now.plusSeconds(3600), 10);
+        var notYetDue = linkRepository.expireDueByIds(List.of(upcoming.id()), now, LinkExpiryAction.DELETE);
+        var deleted = linkRepository.expireDueByIds(List.of(expired.id(), upcoming.id()), now.plusSeconds(1800), LinkExpiryAction.DELETE);
+
+        // then
+        assertThat(deactivated).singleElement().satisfies(link -> {
+            assertThat(link.id()).isEqualTo(expired.id());
+            assertThat(link.isActive()).isFalse();
+        });
+        assertThat(again).isEmpty();
+        assertThat(expiring).containsExactly(new LinkRepository.ExpiringLink(upcoming.id(), upcoming.expiresAt()));
+        assertThat(notYetDue).isEmpty();
+        assertThat(deleted).extracting(Link::id).containsExactlyInAnyOrder(expired.id(), upcoming.id());
+        assertThat(linkRepository.findByShortUrl("later")).isPresent();
+    }
+
     private Link getLinkWithId(List<Link> links, Long linkId) {
         return links
                 .stream().filter(link -> link.id().equals(linkId))
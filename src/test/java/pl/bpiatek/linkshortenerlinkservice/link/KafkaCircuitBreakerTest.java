@@ -0,0 +1,82 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaCircuitBreakerTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KafkaCircuitBreaker circuitBreaker = new KafkaCircuitBreaker(2, Duration.ofSeconds(30), clock, meterRegistry);
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        // when
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        // then
+        assertThat(circuitBreaker.state()).isEqualTo(KafkaCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+        assertThat(meterRegistry.get("kafka.circuit.state").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLetSingleProbeThroughOnceOpenDurationHasPassed() {
+        // given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        // when
+        clock.setInstant(NOW.plusSeconds(30));
+
+        // then
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+        assertThat(circuitBreaker.state()).isEqualTo(KafkaCircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void shouldCloseWhenProbeSucceeds() {
+        // given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.setInstant(NOW.plusSeconds(30));
+        circuitBreaker.tryAcquire();
+
+        // when
+        circuitBreaker.onSuccess();
+
+        // then
+        assertThat(circuitBreaker.state()).isEqualTo(KafkaCircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        // given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        clock.setInstant(NOW.plusSeconds(30));
+        circuitBreaker.tryAcquire();
+
+        // when
+        circuitBreaker.onFailure();
+
+        // then
+        assertThat(circuitBreaker.state()).isEqualTo(KafkaCircuitBreaker.State.OPEN);
+        clock.setInstant(NOW.plusSeconds(59));
+        assertThat(circuitBreaker.tryAcquire()).isFalse();
+    }
+}
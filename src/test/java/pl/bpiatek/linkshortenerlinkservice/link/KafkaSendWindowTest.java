@@ -0,0 +1,95 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.exception.KafkaEventSendingException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaSendWindowTest {
+
+    private static final ProducerRecord<String, LinkLifecycleEvent> RECORD =
+            new ProducerRecord<>("test-topic", "1", LinkLifecycleEvent.newBuilder().build());
+
+    @Mock
+    private KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldHoldPermitUntilSendIsAcknowledged() {
+        // given
+        var pending = new CompletableFuture<SendResult<String, LinkLifecycleEvent>>();
+        given(kafkaTemplate.send(any(ProducerRecord.class))).willReturn(pending);
+        var window = new KafkaSendWindow(kafkaTemplate, meterRegistry, 2, Duration.ZERO);
+
+        // when
+        var send = window.send(RECORD, "LinkCreated");
+
+        // then
+        assertThat(send).isNotDone();
+        assertThat(inFlight()).isEqualTo(1);
+
+        // when
+        pending.complete(mock(SendResult.class));
+
+        // then
+        assertThat(send).isCompleted();
+        assertThat(inFlight()).isZero();
+        assertThat(meterRegistry.get("kafka.producer.send.latency").tag("event", "LinkCreated").tag("outcome", "success")
+                .timer().count()).isOne();
+    }
+
+    @Test
+    void shouldRejectSendWhenWindowStaysFull() {
+        // given
+        given(kafkaTemplate.send(any(ProducerRecord.class))).willReturn(new CompletableFuture<>());
+        var window = new KafkaSendWindow(kafkaTemplate, meterRegistry, 1, Duration.ZERO);
+        window.send(RECORD, "LinkUpdated");
+
+        // when
+        var rejected = window.send(RECORD, "LinkUpdated");
+
+        // then
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.exceptionNow()).isInstanceOf(KafkaEventSendingException.class);
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void shouldReleasePermitAndRecordFailedSend() {
+        // given
+        given(kafkaTemplate.send(any(ProducerRecord.class))).willReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        var window = new KafkaSendWindow(kafkaTemplate, meterRegistry, 1, Duration.ZERO);
+
+        // when
+        var first = window.send(RECORD, "LinkDeleted");
+        var second = window.send(RECORD, "LinkDeleted");
+
+        // then
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second.exceptionNow()).isInstanceOf(IllegalStateException.class);
+        assertThat(inFlight()).isZero();
+        assertThat(meterRegistry.get("kafka.producer.send.latency").tag("outcome", "failure").timer().count()).isEqualTo(2);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("kafka.producer.in.flight").gauge().value();
+    }
+}
@@ -0,0 +1,152 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+import pl.bpiatek.linkshortenerlinkservice.link.LifecycleEventSpool.SpooledEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LifecycleEventSpoolTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+    // Header plus two entries with a 1-byte key and a 6-byte payload.
+    private static final int SEGMENT_BYTES = 8 + 2 * 21;
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReturnEventsInAppendOrderAcrossSegments() throws IOException {
+        // given
+        var spool = spool(3);
+        for (int i = 1; i <= 5; i++) {
+            assertThat(spool.append(String.valueOf(i), payload(i))).isTrue();
+        }
+
+        // when
+        var events = spool.peek(10);
+
+        // then
+        assertThat(events).extracting(SpooledEvent::key).containsExactly("1", "2", "3", "4", "5");
+        assertThat(new String(events.get(4).payload(), UTF_8)).isEqualTo("event5");
+        assertThat(spool.size()).isEqualTo(5);
+        assertThat(segmentFiles()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectEventsOnceAllSegmentsAreFull() throws IOException {
+        // given
+        var spool = spool(1);
+        spool.append("1", payload(1));
+        spool.append("2", payload(2));
+
+        // expect
+        assertThat(spool.append("3", payload(3))).isFalse();
+        assertThat(spool.append("4", new byte[SEGMENT_BYTES])).isFalse();
+    }
+
+    @Test
+    void shouldDropCommittedPrefixAndDeleteReplayedSegments() throws IOException {
+        // given
+        var spool = spool(3);
+        for (int i = 1; i <= 5; i++) {
+            spool.append(String.valueOf(i), payload(i));
+        }
+
+        // when
+        spool.commit(spool.peek(3));
+
+        // then
+        assertThat(spool.peek(10)).extracting(SpooledEvent::key).containsExactly("4", "5");
+        assertThat(spool.size()).isEqualTo(2);
+        assertThat(segmentFiles()).isEqualTo(2);
+
+        // when
+        spool.commit(spool.peek(10));
+
+        // then
+        assertThat(spool.isEmpty()).isTrue();
+        assertThat(segmentFiles()).isZero();
+    }
+
+    @Test
+    void shouldResumeFromLastCommitAfterReopening() throws IOException {
+        // given
+        var spool = spool(3);
+        for (int i = 1; i <= 4; i++) {
+            spool.append(String.valueOf(i), payload(i));
+        }
+        spool.commit(spool.peek(1));
+        spool.close();
+
+        // when
+        var reopened = spool(3);
+        reopened.append("5", payload(5));
+
+        // then
+        assertThat(reopened.size()).isEqualTo(4);
+        assertThat(reopened.peek(10)).extracting(SpooledEvent::key).containsExactly("2", "3", "4", "5");
+    }
+
+    @Test
+    void shouldRefuseDirectoryAlreadyInUse() throws IOException {
+        // given
+        var spool = spool(3);
+
+        // expect
+        assertThatThrownBy(() -> spool(3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The lifecycle event spool in " + directory + " is already in use");
+
+        // when
+        spool.close();
+
+        // then
+        spool(3).close();
+    }
+
+    @Test
+    void shouldReportAgeOfOldestPendingEvent() throws IOException {
+        // given
+        var spool = spool(3);
+        spool.append("1", payload(1));
+        clock.setInstant(NOW.plusSeconds(5));
+        spool.append("2", payload(2));
+        spool.commit(spool.peek(1));
+
+        // when
+        clock.setInstant(NOW.plusSeconds(12));
+
+        // then
+        assertThat(meterRegistry.get("link.events.spool.oldest.age").timeGauge().value(TimeUnit.SECONDS)).isEqualTo(7);
+        assertThat(meterRegistry.get("link.events.spool.size").gauge().value()).isOne();
+    }
+
+    private LifecycleEventSpool spool(int maxSegments) {
+        return new LifecycleEventSpool(directory, SEGMENT_BYTES, maxSegments, clock, meterRegistry);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".spool")).count();
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("event" + i).getBytes(UTF_8);
+    }
+}
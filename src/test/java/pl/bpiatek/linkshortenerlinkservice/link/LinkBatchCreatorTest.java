@@ -0,0 +1,159 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkBatchItemResult;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LinkBatchCreatorTest {
+
+    private static final String USER_ID = "123";
+    private static final String LONG_URL = "https://example.com/long";
+    private static final Instant CREATED_AT = Instant.parse("2025-11-01T12:00:00Z");
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ShortUrlGenerator shortUrlGenerator;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShortUrlCollisionTracker collisionTracker = new ShortUrlCollisionTracker(1);
+
+    private LinkBatchCreator linkBatchCreator;
+
+    @BeforeEach
+    void setUp() {
+        linkBatchCreator = new LinkBatchCreator(validator, new UrlScanner(100), new ContentBlocklist(null, meterRegistry),
+                new ReservedWordsValidator(Set.of("admin")), linkRepository, new LinkMapper("http://base.url/"),
+                new LinkDeduplicator(linkRepository, meterRegistry), shortUrlGenerator, shortUrlFilter, collisionTracker,
+                TransactionOperations.withoutTransaction(), 3);
+    }
+
+    @Test
+    void shouldInsertAllLinksAtOnceAndPublishSingleEvent() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("rand001", "rand002");
+        given(linkRepository.insertAllIgnoringConflicts(anyList())).willAnswer(invocation -> saved(invocation.getArgument(0)));
+        var requests = List.of(aRequest(null), aRequest("custom1"), aRequest(null));
+
+        // when
+        var response = linkBatchCreator.create(USER_ID, requests, eventPublisher);
+
+        // then
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(response.results()).extracting(CreateLinkBatchItemResult::shortUrl)
+                .containsExactly("http://base.url/rand001", "http://base.url/custom1", "http://base.url/rand002");
+        verify(linkRepository).insertAllIgnoringConflicts(anyList());
+        var eventCaptor = ArgumentCaptor.forClass(LinksCreatedApplicationEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().links()).hasSize(3);
+    }
+
+    @Test
+    void shouldReportFailuresPerItem() {
+        // given
+        var invalidRequest = aRequest(null);
+        ConstraintViolation<CreateLinkRequest> violation = aViolation("longUrl", "A valid URL format is required.");
+        given(validator.validate(any())).willAnswer(invocation -> invocation.getArgument(0) == invalidRequest ? Set.of(violation) : Set.of());
+        given(linkRepository.insertAllIgnoringConflicts(anyList())).willAnswer(invocation -> saved(
+                invocation.<List<Link>>getArgument(0).stream().filter(link -> !link.shortUrl().equals("taken1")).toList()));
+        var requests = Arrays.asList(invalidRequest, aRequest("admin"), aRequest("taken1"), aRequest("custom2"), aRequest("CUSTOM2"), null);
+
+        // when
+        var response = linkBatchCreator.create(USER_ID, requests, eventPublisher);
+
+        // then
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(5);
+        assertThat(response.results()).extracting(CreateLinkBatchItemResult::error).containsExactly(
+                "longUrl: A valid URL format is required.",
+                "Short URL 'admin' is reserved and cannot be used.",
+                "Short link with provided shortUrl 'taken1' already exists.",
+                null,
+                "Short link with provided shortUrl 'CUSTOM2' already exists.",
+                "The link cannot be null.");
+    }
+
+    @Test
+    void shouldRetryCollidingRandomShortUrlsWithFreshCodes() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("taken1", "free001");
+        given(linkRepository.insertAllIgnoringConflicts(anyList())).willAnswer(invocation -> saved(
+                invocation.<List<Link>>getArgument(0).stream().filter(link -> !link.shortUrl().equals("taken1")).toList()));
+
+        // when
+        var response = linkBatchCreator.create(USER_ID, List.of(aRequest(null)), eventPublisher);
+
+        // then
+        assertThat(response.results()).extracting(CreateLinkBatchItemResult::shortUrl).containsExactly("http://base.url/free001");
+        verify(linkRepository, times(2)).insertAllIgnoringConflicts(anyList());
+        assertThat(collisionTracker.samples()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotTouchDatabaseWhenNothingIsValid() {
+        // when
+        var response = linkBatchCreator.create(USER_ID, List.of(aRequest("admin")), eventPublisher);
+
+        // then
+        assertThat(response.failed()).isOne();
+        verify(linkRepository, never()).insertAllIgnoringConflicts(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static CreateLinkRequest aRequest(String shortUrl) {
+        return new CreateLinkRequest(LONG_URL, shortUrl, true, "title");
+    }
+
+    private static List<Link> saved(List<Link> links) {
+        return links.stream()
+                .map(link -> link.withIdAndCreatedAt((long) link.shortUrl().hashCode(), CREATED_AT))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConstraintViolation<CreateLinkRequest> aViolation(String property, String message) {
+        ConstraintViolation<CreateLinkRequest> violation = mock(ConstraintViolation.class);
+        var path = mock(Path.class);
+        given(path.toString()).willReturn(property);
+        given(violation.getPropertyPath()).willReturn(path);
+        given(violation.getMessage()).willReturn(message);
+        return violation;
+    }
+}
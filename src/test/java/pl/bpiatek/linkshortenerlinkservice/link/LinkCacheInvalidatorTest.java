@@ -0,0 +1,141 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkCreated;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkDeleted;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkUpdated;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LinkCacheInvalidatorTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    @Mock
+    private LinkResolver linkResolver;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+
+    private LinkCacheInvalidator linkCacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        linkCacheInvalidator = new LinkCacheInvalidator(linkResolver, clock, meterRegistry, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void shouldEvictShortUrlOfEveryLifecycleEvent() {
+        // given
+        var created = LinkLifecycleEvent.newBuilder()
+                .setLinkCreated(LinkCreated.newBuilder().setShortUrl("created").build())
+                .build();
+        var updated = LinkLifecycleEvent.newBuilder()
+                .setLinkUpdated(LinkUpdated.newBuilder().setShortUrl("updated").build())
+                .build();
+        var deleted = LinkLifecycleEvent.newBuilder()
+                .setLinkDeleted(LinkDeleted.newBuilder().setShortUrl("deleted").build())
+                .build();
+
+        // when
+        linkCacheInvalidator.onLifecycleEvent(record(created, NOW.minusSeconds(2)));
+        linkCacheInvalidator.onLifecycleEvent(record(updated, NOW.minusSeconds(1)));
+        linkCacheInvalidator.onLifecycleEvent(record(deleted, NOW));
+
+        // then
+        verify(linkResolver).evict("created");
+        verify(linkResolver).evict("updated");
+        verify(linkResolver).evict("deleted");
+        verify(linkResolver, never()).evictAll();
+        assertThat(meterRegistry.get("link.cache.invalidation.evictions").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldFlushWholeCacheWhenTooFarBehind() {
+        // given
+        var event = updated("abc123");
+
+        // when
+        linkCacheInvalidator.onLifecycleEvent(record(event, NOW.minusSeconds(31)));
+
+        // then
+        verify(linkResolver).evictAll();
+        verify(linkResolver, never()).evict(anyString());
+        assertThat(meterRegistry.get("link.cache.invalidation.flushes").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("link.cache.invalidation.lag").timeGauge().value(TimeUnit.SECONDS)).isEqualTo(31);
+    }
+
+    @Test
+    void shouldSkipEventsOlderThanLastFlush() {
+        // given
+        linkCacheInvalidator.onLifecycleEvent(record(updated("first"), NOW.minusSeconds(60)));
+        clock.setInstant(NOW.plusSeconds(1));
+
+        // when
+        linkCacheInvalidator.onLifecycleEvent(record(updated("backlog"), NOW.minusSeconds(5)));
+        linkCacheInvalidator.onLifecycleEvent(record(updated("fresh"), NOW.plusSeconds(1)));
+
+        // then
+        verify(linkResolver, times(1)).evictAll();
+        verify(linkResolver, never()).evict("backlog");
+        verify(linkResolver).evict("fresh");
+    }
+
+    @Test
+    void shouldEvictLocalChangesAfterCommit() {
+        // given
+        var link = new Link(1L, "123", "abc123", "https://example.com", null, null, true, false, NOW, NOW, null);
+        var other = new Link(2L, "123", "def456", "https://example.com", null, null, true, false, NOW, NOW, null);
+
+        // when
+        linkCacheInvalidator.onLinkUpdated(new LinkUpdatedApplicationEvent(link));
+        linkCacheInvalidator.onLinksCreated(new LinksCreatedApplicationEvent(List.of(other)));
+
+        // then
+        verify(linkResolver).evict("abc123");
+        verify(linkResolver).evict("def456");
+    }
+
+    @Test
+    void shouldIgnoreRecordsWithoutPayload() {
+        // when
+        linkCacheInvalidator.onLifecycleEvent(record(null, NOW));
+
+        // then
+        verifyNoInteractions(linkResolver);
+    }
+
+    private static LinkLifecycleEvent updated(String shortUrl) {
+        return LinkLifecycleEvent.newBuilder()
+                .setLinkUpdated(LinkUpdated.newBuilder().setShortUrl(shortUrl).build())
+                .build();
+    }
+
+    private static ConsumerRecord<String, LinkLifecycleEvent> record(LinkLifecycleEvent event, Instant timestamp) {
+        return new ConsumerRecord<>("link-lifecycle", 0, 0, timestamp.toEpochMilli(), TimestampType.CREATE_TIME,
+                0, 0, "1", event, new RecordHeaders(), Optional.empty());
+    }
+}
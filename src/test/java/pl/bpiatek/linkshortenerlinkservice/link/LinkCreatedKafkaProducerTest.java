@@ -1,11 +1,13 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
@@ -13,13 +15,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.exception.KafkaEventSendingException;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,16 +43,33 @@ class LinkCreatedKafkaProducerTest {
     @Captor
     private ArgumentCaptor<ProducerRecord<String, LinkLifecycleEvent>> producerRecordCaptor;
 
+    @TempDir
+    private Path spoolDirectory;
+
+    private SimpleMeterRegistry meterRegistry;
     private LinkCreatedKafkaProducer linkCreatedKafkaProducer;
     private CompletableFuture<SendResult<String, LinkLifecycleEvent>> future;
     private Link link;
 
     @BeforeEach
     void setUp() {
-        linkCreatedKafkaProducer = new LinkCreatedKafkaProducer(TEST_TOPIC, kafkaTemplate);
+        // No spool space unless a test asks for it, so failed sends surface as before.
+        linkCreatedKafkaProducer = producerWithSpoolSegments(0);
         link = LinkStubs.aLink();
     }
 
+    private LinkCreatedKafkaProducer producerWithSpoolSegments(int maxSegments) {
+        var clock = Clock.systemUTC();
+        meterRegistry = new SimpleMeterRegistry();
+        var sender = new SpoolingEventSender(
+                new KafkaSendWindow(kafkaTemplate, meterRegistry, 10, Duration.ofSeconds(1)),
+                new KafkaCircuitBreaker(5, Duration.ofSeconds(30), clock, meterRegistry),
+                new LifecycleEventSpool(spoolDirectory.resolve("segments-" + maxSegments), 4096, maxSegments, clock, meterRegistry),
+                Runnable::run,
+                meterRegistry);
+        return new LinkCreatedKafkaProducer(TEST_TOPIC, sender);
+    }
+
     private void mockSuccessfulSend() {
         SendResult<String, LinkLifecycleEvent> sendResult = mock(SendResult.class);
         RecordMetadata metadata = mock(RecordMetadata.class);
@@ -69,6 +96,66 @@ class LinkCreatedKafkaProducerTest {
         softly.assertAll();
     }
 
+    @Test
+    void shouldSendAllEventsBeforeReportingFailures() {
+        // given
+        SendResult<String, LinkLifecycleEvent> sendResult = mock(SendResult.class);
+        given(kafkaTemplate.send((ProducerRecord<String, LinkLifecycleEvent>) any())).willReturn(
+                CompletableFuture.failedFuture(new IllegalStateException("broker down")),
+                CompletableFuture.completedFuture(sendResult));
+        var links = List.of(link, LinkStubs.aSavedLinkWithShortUrl(2L, "second1"));
+
+        // when
+        assertThatThrownBy(() -> linkCreatedKafkaProducer.sendLinkCreatedEvents(links))
+                .isInstanceOf(KafkaEventSendingException.class)
+                .hasMessage("Failed to send 1 of 2 LinkCreated events.");
+
+        // then
+        verify(kafkaTemplate, times(2)).send(producerRecordCaptor.capture());
+        assertThat(producerRecordCaptor.getAllValues()).extracting(ProducerRecord::key).containsExactly("1", "2");
+    }
+
+    @Test
+    void shouldSpoolFailedEventsInsteadOfReportingThem() {
+        // given
+        var producer = producerWithSpoolSegments(1);
+        given(kafkaTemplate.send((ProducerRecord<String, LinkLifecycleEvent>) any()))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // when
+        producer.sendLinkCreatedEvents(List.of(link));
+        producer.sendLinkCreatedEvent(LinkStubs.aSavedLinkWithShortUrl(2L, "second1"));
+
+        // then
+        verify(kafkaTemplate, times(1)).send((ProducerRecord<String, LinkLifecycleEvent>) any());
+        assertThat(meterRegistry.get("link.events.spooled").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.events.spool.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSpoolFailedEventAheadOfLaterEventsForSameLink() {
+        // given
+        var producer = producerWithSpoolSegments(1);
+        var firstSend = new CompletableFuture<SendResult<String, LinkLifecycleEvent>>();
+        given(kafkaTemplate.send((ProducerRecord<String, LinkLifecycleEvent>) any())).willReturn(firstSend);
+
+        // when
+        producer.sendLinkCreatedEvent(link);
+        var second = producer.sendLinkCreatedEvent(link);
+
+        // then
+        verify(kafkaTemplate, times(1)).send((ProducerRecord<String, LinkLifecycleEvent>) any());
+        assertThat(second).isNotDone();
+
+        // when
+        firstSend.completeExceptionally(new IllegalStateException("broker down"));
+
+        // then
+        assertThat(second).isCompletedWithValue(null);
+        verify(kafkaTemplate, times(1)).send((ProducerRecord<String, LinkLifecycleEvent>) any());
+        assertThat(meterRegistry.get("link.events.spooled").counter().count()).isEqualTo(2);
+    }
+
     private void assertRecordBasics(ProducerRecord<String, LinkLifecycleEvent> record, SoftAssertions softly) {
         softly.assertThat(record.topic()).isEqualTo(TEST_TOPIC);
         softly.assertThat(record.key()).isEqualTo("1");
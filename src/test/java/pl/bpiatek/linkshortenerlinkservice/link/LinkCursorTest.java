@@ -0,0 +1,36 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pl.bpiatek.linkshortenerlinkservice.exception.InvalidCursorException;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LinkCursorTest {
+
+    @Test
+    void shouldDecodeWhatItEncodes() {
+        // given
+        var cursor = new LinkCursor(Instant.parse("2025-11-01T12:00:00.123456Z"), 42L);
+
+        // when
+        var token = cursor.encode();
+
+        // then
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(LinkCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "AAAA", "AgAAAABpBfZAAAAAAAAAAAAAAAAq"})
+    void shouldRejectMalformedCursor(String token) {
+        // expect
+        assertThatThrownBy(() -> LinkCursor.decode(token))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("The cursor is malformed.");
+    }
+}
@@ -0,0 +1,121 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkExportFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLinkBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class LinkExporterTest {
+
+    private static final String USER_ID = "123";
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LinkExporter linkExporter;
+
+    @BeforeEach
+    void setUp() {
+        linkExporter = new LinkExporter(linkRepository, new ObjectMapper(), TransactionOperations.withoutTransaction(), meterRegistry, 100, 1);
+    }
+
+    @Test
+    void shouldExportLinksAsNdjson() throws IOException {
+        // given
+        givenLinks(List.of(
+                aLinkBuilder().id(1L).shortUrl("abc").title("Title").build(),
+                aLinkBuilder().id(2L).shortUrl("def").title(null).notes("note").build()));
+        var out = new ByteArrayOutputStream();
+
+        // when
+        linkExporter.export(USER_ID, LinkExportFormat.NDJSON, out);
+
+        // then
+        var lines = out.toString(UTF_8).lines().toList();
+        var objectMapper = new ObjectMapper();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("shortUrl").asText()).isEqualTo("abc");
+        assertThat(objectMapper.readTree(lines.get(0)).get("createdAt").asText()).isEqualTo("2025-11-01T12:00:00Z");
+        assertThat(objectMapper.readTree(lines.get(1)).get("notes").asText()).isEqualTo("note");
+        assertThat(objectMapper.readTree(lines.get(1)).get("title").isNull()).isTrue();
+        assertThat(meterRegistry.get("link.export.rows").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExportLinksAsCsvWithQuotingWhereNeeded() {
+        // given
+        givenLinks(List.of(aLinkBuilder().id(1L).shortUrl("abc").title("Say \"hi\", twice").notes("two\nlines").expiresAt(null).build()));
+        var out = new ByteArrayOutputStream();
+
+        // when
+        linkExporter.export(USER_ID, LinkExportFormat.CSV, out);
+
+        // then
+        assertThat(out.toString(UTF_8)).isEqualTo("""
+                id,short_url,long_url,title,notes,is_active,is_custom,created_at,updated_at,expires_at
+                1,abc,https://example.com/long,"Say ""hi"", twice","two
+                lines",true,false,2025-11-01T12:00:00Z,2025-11-02T13:00:00Z,
+                """);
+    }
+
+    @Test
+    void shouldStopReadingWhenClientDisconnects() {
+        // given
+        var read = new int[1];
+        willAnswer(invocation -> {
+            Consumer<Link> action = invocation.getArgument(2);
+            for (long id = 1; id <= 1000; id++) {
+                read[0]++;
+                action.accept(aLinkBuilder().id(id).shortUrl("code" + id).build());
+            }
+            return null;
+        }).given(linkRepository).forEachByUserId(eq(USER_ID), eq(100), any());
+        var disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // when
+        linkExporter.export(USER_ID, LinkExportFormat.CSV, disconnected);
+
+        // then
+        assertThat(read[0]).isEqualTo(1);
+        assertThat(meterRegistry.get("link.export.aborted").counter().count()).isEqualTo(1);
+    }
+
+    private void givenLinks(List<Link> links) {
+        willAnswer(invocation -> {
+            Consumer<Link> action = invocation.getArgument(2);
+            links.forEach(action);
+            return null;
+        }).given(linkRepository).forEachByUserId(eq(USER_ID), eq(100), any());
+    }
+}
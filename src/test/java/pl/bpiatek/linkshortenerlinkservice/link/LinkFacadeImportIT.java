@@ -0,0 +1,74 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.bpiatek.linkshortenerlinkservice.IntegrationTest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportError;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent.EventPayloadCase.LINK_CREATED;
+
+class LinkFacadeImportIT extends IntegrationTest {
+
+    private static final String USER_ID = "123";
+
+    @Autowired
+    private LinkFacade linkFacade;
+
+    @Autowired
+    private LinkFixtures linkFixtures;
+
+    @Test
+    void shouldImportCsvThroughStagingTable() {
+        // given
+        linkFixtures.aLink(TestLink.builder()
+                .userId("456")
+                .longUrl("https://example.com/other")
+                .shortUrl("Taken")
+                .build());
+        var csv = """
+                long_url,short_url,title,is_active
+                https://example.com/a,custom-a,"Title, with comma",true
+                example.com/b,,,false
+                https://example.com/c,taken,,
+                https://example.com/d,custom-a,,
+                not a url,,,
+                """;
+
+        // when
+        var response = linkFacade.importLinks(USER_ID, "text/csv", new ByteArrayInputStream(csv.getBytes(UTF_8)));
+
+        // then
+        var link = linkFixtures.getLinkByShortUrl("custom-a");
+        assertSoftly(s -> {
+            s.assertThat(response.read()).isEqualTo(5);
+            s.assertThat(response.imported()).isEqualTo(2);
+            s.assertThat(response.rejected()).isEqualTo(1);
+            s.assertThat(response.conflicted()).isEqualTo(2);
+            s.assertThat(response.errors()).extracting(LinkImportError::line).containsExactlyInAnyOrder(4L, 5L, 6L);
+            s.assertThat(link.longUrl()).isEqualTo("https://example.com/a");
+            s.assertThat(link.title()).isEqualTo("Title, with comma");
+            s.assertThat(linkFixtures.linksCountByUserId(USER_ID)).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void shouldSendEventForImportedLink() throws InterruptedException {
+        // given
+        var ndjson = "{\"longUrl\":\"https://example.com/a\",\"shortUrl\":\"imported\"}\n";
+
+        // when
+        linkFacade.importLinks(USER_ID, "application/x-ndjson", new ByteArrayInputStream(ndjson.getBytes(UTF_8)));
+
+        // then
+        var record = testLinkLifecycleEventConsumer.awaitRecord(5, TimeUnit.SECONDS);
+        assertThat(record).isNotNull();
+        assertThat(record.value().getEventPayloadCase()).isEqualTo(LINK_CREATED);
+        assertThat(record.value().getLinkCreated().getShortUrl()).isEqualTo("imported");
+    }
+}
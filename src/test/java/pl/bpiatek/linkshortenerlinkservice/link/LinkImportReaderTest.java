@@ -0,0 +1,186 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkImportException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LinkImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldReadCsvRowsByHeaderName() throws IOException {
+        // given
+        var csv = """
+                title,is_active,long_url,short_url,ignored
+                Docs,false,https://example.com/docs,docs,x
+                ,,https://example.com/random,,
+                """;
+
+        // when
+        var rows = readAll(csv, "text/csv");
+
+        // then
+        assertThat(rows).containsExactly(
+                new ImportRow(2, "https://example.com/docs", "docs", "Docs", false, null, null),
+                new ImportRow(3, "https://example.com/random", null, null, null, null, null));
+    }
+
+    @Test
+    void shouldHandleQuotedCsvFields() throws IOException {
+        // given
+        var csv = "longUrl,title\r\n"
+                + "\"https://example.com/?a=1,b=2\",\"Say \"\"hi\"\"\"\r\n"
+                + "https://example.com/next,\"two\nlines\"\r\n"
+                + "https://example.com/last,end\r\n";
+
+        // when
+        var rows = readAll(csv, "text/csv; charset=UTF-8");
+
+        // then
+        assertThat(rows).extracting(ImportRow::line, ImportRow::longUrl, ImportRow::title).containsExactly(
+                tuple(2L, "https://example.com/?a=1,b=2", "Say \"hi\""),
+                tuple(3L, "https://example.com/next", "two\nlines"),
+                tuple(5L, "https://example.com/last", "end"));
+    }
+
+    @Test
+    void shouldReturnUnreadableCsvRowsAsErrors() throws IOException {
+        // given
+        var csv = """
+                long_url,is_active
+                https://example.com,maybe
+                "https://example.com/unterminated
+                """;
+
+        // when
+        var rows = readAll(csv, "text/csv");
+
+        // then
+        assertThat(rows).extracting(ImportRow::line, ImportRow::error).containsExactly(
+                tuple(2L, "isActive must be true or false."),
+                tuple(3L, "Unterminated quoted field."));
+    }
+
+    @Test
+    void shouldRejectOversizedCsvRow() throws IOException {
+        // given
+        var csv = "long_url\nhttps://example.com/" + "a".repeat(CsvLinkImportReader.MAX_RECORD_LENGTH) + "\nhttps://example.com/ok\n";
+
+        // when
+        var rows = readAll(csv, "text/csv");
+
+        // then
+        assertThat(rows).hasSize(2);
+        assertThat(rows.getFirst().error()).isEqualTo("Row exceeds " + CsvLinkImportReader.MAX_RECORD_LENGTH + " characters.");
+        assertThat(rows.getLast().longUrl()).isEqualTo("https://example.com/ok");
+    }
+
+    @Test
+    void shouldCarryOverSourceExpiry() throws IOException {
+        // given
+        var csv = """
+                long_url,expires_at
+                https://example.com/a,2026-01-01T00:00:00Z
+                https://example.com/b,
+                https://example.com/c,next week
+                """;
+        var ndjson = """
+                {"longUrl":"https://example.com/a","expiresAt":"2026-01-01T00:00:00Z"}
+                {"longUrl":"https://example.com/b","expires_at":"soon"}
+                """;
+
+        // when
+        var csvRows = readAll(csv, "text/csv");
+        var ndjsonRows = readAll(ndjson, "application/x-ndjson");
+
+        // then
+        assertThat(csvRows).extracting(ImportRow::expiresAt, ImportRow::error).containsExactly(
+                tuple(Instant.parse("2026-01-01T00:00:00Z"), null),
+                tuple(null, null),
+                tuple(null, ImportRow.INVALID_EXPIRES_AT));
+        assertThat(ndjsonRows).extracting(ImportRow::expiresAt, ImportRow::error).containsExactly(
+                tuple(Instant.parse("2026-01-01T00:00:00Z"), null),
+                tuple(null, ImportRow.INVALID_EXPIRES_AT));
+    }
+
+    @Test
+    void shouldRequireLongUrlColumnInCsvHeader() {
+        // expect
+        assertThatThrownBy(() -> readAll("short_url,title\nabc,Title\n", "text/csv"))
+                .isInstanceOf(LinkImportException.class)
+                .hasMessage("The CSV header must contain a long_url column.");
+    }
+
+    @Test
+    void shouldReadNdjsonRowsSkippingBlankLines() throws IOException {
+        // given
+        var ndjson = """
+                {"longUrl":"https://example.com/a","shortUrl":"a1","title":"A","isActive":false}
+
+                {"long_url":"https://example.com/b","unknown":1}
+                not json
+                """;
+
+        // when
+        var rows = readAll(ndjson, "application/x-ndjson");
+
+        // then
+        assertThat(rows).containsExactly(
+                new ImportRow(1, "https://example.com/a", "a1", "A", false, null, null),
+                new ImportRow(3, "https://example.com/b", null, null, null, null, null),
+                ImportRow.unreadable(4, "Row is not a valid JSON object."));
+    }
+
+    @Test
+    void shouldRejectOversizedNdjsonLine() throws IOException {
+        // given
+        var ndjson = "{\"longUrl\":\"https://example.com/" + "a".repeat(CsvLinkImportReader.MAX_RECORD_LENGTH) + "\"}\n"
+                + "{\"longUrl\":\"https://example.com/ok\"}\n";
+
+        // when
+        var rows = readAll(ndjson, "application/x-ndjson");
+
+        // then
+        assertThat(rows).containsExactly(
+                ImportRow.unreadable(1, "Row exceeds " + CsvLinkImportReader.MAX_RECORD_LENGTH + " characters."),
+                new ImportRow(2, "https://example.com/ok", null, null, null, null, null));
+    }
+
+    @Test
+    void shouldPickReaderByFileExtension() {
+        // expect
+        assertThat(LinkImportReader.forFileName("links.CSV", new StringReader(""), objectMapper)).isInstanceOf(CsvLinkImportReader.class);
+        assertThat(LinkImportReader.forFileName("links.jsonl", new StringReader(""), objectMapper)).isInstanceOf(NdjsonLinkImportReader.class);
+        assertThatThrownBy(() -> LinkImportReader.forFileName("links.xlsx", new StringReader(""), objectMapper))
+                .isInstanceOf(LinkImportException.class);
+    }
+
+    @Test
+    void shouldRejectUnsupportedContentType() {
+        // expect
+        assertThatThrownBy(() -> LinkImportReader.forContentType("application/json", new StringReader(""), objectMapper))
+                .isInstanceOf(LinkImportException.class)
+                .hasMessage("Unsupported import format: application/json");
+    }
+
+    private List<ImportRow> readAll(String input, String contentType) throws IOException {
+        var reader = LinkImportReader.forContentType(contentType, new StringReader(input), objectMapper);
+        var rows = new ArrayList<ImportRow>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,262 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.CreateLinkRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkImportError;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkImportException;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkImportRepository.StagedConflict;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkImportRepository.StagedLink;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkImportRepository.StagingWriter;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkOutboxRepository.OutboxMessage;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LinkImporterTest {
+
+    private static final String USER_ID = "123";
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    @Mock
+    private LinkImportRepository importRepository;
+
+    @Mock
+    private StagingWriter stagingWriter;
+
+    @Mock
+    private Validator validator;
+
+    @Captor
+    private ArgumentCaptor<List<OutboxMessage>> outboxCaptor;
+
+    @Mock
+    private ShortUrlGenerator shortUrlGenerator;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    @Mock
+    private LinkOutboxRepository outboxRepository;
+
+    @TempDir
+    private Path importDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LinkImporter linkImporter;
+
+    @BeforeEach
+    void setUp() {
+        linkImporter = new LinkImporter(importRepository, validator, new UrlScanner(100), new ContentBlocklist(null, meterRegistry),
+                new ReservedWordsValidator(Set.of("admin")), shortUrlGenerator, shortUrlFilter, outboxRepository,
+                new ObjectMapper(), TransactionOperations.withoutTransaction(),
+                Clock.fixed(NOW, ZoneOffset.UTC), meterRegistry, Runnable::run, importDirectory, 1, 2, 3);
+    }
+
+    @Test
+    void shouldStageValidRowsAndReportRejectedOnes() {
+        // given
+        given(importRepository.openStagingWriter()).willReturn(stagingWriter);
+        given(shortUrlGenerator.generate()).willReturn("rand001");
+        given(importRepository.mergeStaged(USER_ID, NOW)).willReturn(2L);
+        ConstraintViolation<CreateLinkRequest> blank = aViolation("The destination URL cannot be blank.");
+        given(validator.validate(any())).willAnswer(invocation -> {
+            var longUrl = invocation.<CreateLinkRequest>getArgument(0).longUrl();
+            return longUrl == null || longUrl.isBlank() ? Set.of(blank) : Set.of();
+        });
+        var csv = """
+                long_url,short_url,title,is_active,expires_at
+                HTTPS://Example.com/a,,Random,,
+                example.com/b,custom1,,false,2026-01-01T00:00:00Z
+                not a url,,,,
+                https://example.com/c,admin,,,
+                ,,,,
+                """;
+
+        // when
+        var response = linkImporter.importStream(USER_ID, "text/csv", input(csv));
+
+        // then
+        var staged = ArgumentCaptor.forClass(StagedLink.class);
+        verify(stagingWriter, times(2)).write(staged.capture());
+        verify(stagingWriter).finish();
+        verify(stagingWriter).close();
+        assertThat(staged.getAllValues()).containsExactly(
+                new StagedLink(2, "rand001", "https://example.com/a", Xxh64.hash("https://example.com/a"), "Random", true, false, null),
+                new StagedLink(3, "custom1", "https://example.com/b", Xxh64.hash("https://example.com/b"), null, false, true,
+                        Instant.parse("2026-01-01T00:00:00Z")));
+
+        assertThat(response.read()).isEqualTo(5);
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(3);
+        assertThat(response.conflicted()).isZero();
+        assertThat(response.errors()).extracting(LinkImportError::line).containsExactly(4L, 5L, 6L);
+        assertThat(response.errors().getFirst().message()).isEqualTo("A valid URL format is required.");
+        assertThat(response.errors().getLast().message()).isEqualTo("The destination URL cannot be blank.");
+        assertThat(meterRegistry.get("link.import.rows").tag("result", "rejected").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRetryConflictingRandomShortUrlsWithFreshOnes() {
+        // given
+        given(importRepository.openStagingWriter()).willReturn(stagingWriter);
+        given(shortUrlGenerator.generate()).willReturn("rand001", "rand002");
+        given(importRepository.mergeStaged(USER_ID, NOW)).willReturn(0L, 1L);
+        given(importRepository.findStagedRandomLines()).willReturn(List.of(2L), List.of());
+
+        // when
+        var response = linkImporter.importStream(USER_ID, "application/x-ndjson", input("{\"longUrl\":\"https://example.com\"}\n"));
+
+        // then
+        verify(importRepository).reassignShortUrls(Map.of(2L, "rand002"));
+        assertThat(response.imported()).isEqualTo(1);
+        assertThat(response.conflicted()).isZero();
+    }
+
+    @Test
+    void shouldReportRowsLeftInStagingAsConflicts() {
+        // given
+        given(importRepository.openStagingWriter()).willReturn(stagingWriter);
+        given(importRepository.mergeStaged(USER_ID, NOW)).willReturn(0L);
+        given(importRepository.countStaged()).willReturn(1L);
+        given(importRepository.findStagedConflicts(anyInt())).willReturn(List.of(new StagedConflict(2, "taken", true)));
+
+        // when
+        var response = linkImporter.importStream(USER_ID, "text/csv", input("long_url,short_url\nhttps://example.com,taken\n"));
+
+        // then
+        assertThat(response.imported()).isZero();
+        assertThat(response.conflicted()).isEqualTo(1);
+        assertThat(response.errors()).containsExactly(new LinkImportError(2, "Short link with provided shortUrl 'taken' already exists."));
+        verify(outboxRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void shouldRecordImportedLinksInOutboxAfterMerge() {
+        // given
+        var link = new Link(1L, USER_ID, "custom1", "https://example.com", null, null, true, true, NOW, NOW, null);
+        given(importRepository.openStagingWriter()).willReturn(stagingWriter);
+        given(importRepository.mergeStaged(USER_ID, NOW)).willReturn(1L);
+        willAnswer(invocation -> {
+            Consumer<Link> action = invocation.getArgument(3);
+            action.accept(link);
+            return null;
+        }).given(importRepository).forEachImported(eq(USER_ID), eq(NOW), anyInt(), any());
+
+        // when
+        var response = linkImporter.importStream(USER_ID, "text/csv", input("long_url,short_url\nhttps://example.com,custom1\n"));
+
+        // then
+        assertThat(response.imported()).isEqualTo(1);
+        verify(shortUrlFilter).onLinksCreated(new LinksCreatedApplicationEvent(List.of(link)));
+        verify(outboxRepository).saveAll(outboxCaptor.capture());
+        assertThat(outboxCaptor.getValue()).singleElement().satisfies(message -> {
+            assertThat(message.key()).isEqualTo("1");
+            assertThat(message.payload()).isEqualTo(LinkCreatedKafkaProducer.toEvent(link).toByteArray());
+        });
+    }
+
+    @Test
+    void shouldNotStartImportWhenUploadFails() {
+        // given
+        var body = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        // expect
+        assertThatThrownBy(() -> linkImporter.importStream(USER_ID, "text/csv", body))
+                .isInstanceOf(LinkImportException.class)
+                .hasMessage("Failed to read the import input: Connection reset");
+        verifyNoInteractions(importRepository);
+    }
+
+    @Test
+    void shouldImportFileFromImportDirectory() throws IOException {
+        // given
+        Files.writeString(importDirectory.resolve("links.ndjson"), "{\"longUrl\":\"https://example.com\",\"shortUrl\":\"custom1\"}\n");
+        given(importRepository.openStagingWriter()).willReturn(stagingWriter);
+        given(importRepository.mergeStaged(USER_ID, NOW)).willReturn(0L);
+
+        // when
+        var response = linkImporter.importFile(USER_ID, "links.ndjson");
+
+        // then
+        assertThat(response.read()).isEqualTo(1);
+        verify(stagingWriter).write(any(StagedLink.class));
+    }
+
+    @Test
+    void shouldNotImportFilesOutsideImportDirectory() {
+        // expect
+        assertThatThrownBy(() -> linkImporter.importFile(USER_ID, "../links.csv"))
+                .isInstanceOf(LinkImportException.class)
+                .hasMessage("Import file not found: ../links.csv");
+        verify(importRepository, never()).createStagingTable();
+    }
+
+    @Test
+    void shouldRejectFileImportsWhenNoDirectoryIsConfigured() {
+        // given
+        var importer = new LinkImporter(importRepository, validator, new UrlScanner(100), new ContentBlocklist(null, meterRegistry),
+                new ReservedWordsValidator(Set.of()), shortUrlGenerator, shortUrlFilter, outboxRepository,
+                new ObjectMapper(), TransactionOperations.withoutTransaction(),
+                Clock.fixed(NOW, ZoneOffset.UTC), new SimpleMeterRegistry(), Runnable::run, null, 1, 2, 3);
+
+        // expect
+        assertThatThrownBy(() -> importer.importFile(USER_ID, "links.csv"))
+                .isInstanceOf(LinkImportException.class)
+                .hasMessage("Importing from local files is disabled.");
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(UTF_8));
+    }
+
+    private static ConstraintViolation<CreateLinkRequest> aViolation(String message) {
+        ConstraintViolation<CreateLinkRequest> violation = mock(ConstraintViolation.class);
+        given(violation.getMessage()).willReturn(message);
+        return violation;
+    }
+}
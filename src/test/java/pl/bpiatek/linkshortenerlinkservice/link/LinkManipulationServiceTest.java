@@ -0,0 +1,89 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.UpdateLinkRequest;
+import pl.bpiatek.linkshortenerlinkservice.exception.BlockedContentException;
+import pl.bpiatek.linkshortenerlinkservice.url.UrlScanner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLink;
+
+@ExtendWith(MockitoExtension.class)
+class LinkManipulationServiceTest {
+
+    private static final String USER_ID = "123";
+    private static final Instant NOW = Instant.parse("2025-11-03T10:00:00Z");
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    private Path directory;
+
+    private LinkManipulationService linkManipulationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var blocklistFile = Files.writeString(directory.resolve("blocklist.txt"), "bad-host.example\n");
+        linkManipulationService = new LinkManipulationService(linkRepository, eventPublisher, Clock.fixed(NOW, UTC),
+                new LinkMapper("http://base.url/"), new UrlScanner(100), new ContentBlocklist(blocklistFile, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void shouldRejectUpdateToBlockedDestination() {
+        // given
+        var link = aLink();
+        given(linkRepository.findByIdAndUserId(link.id(), USER_ID)).willReturn(Optional.of(link));
+
+        // expect
+        assertThatThrownBy(() -> linkManipulationService.update(USER_ID, link.id(),
+                new UpdateLinkRequest("https://www.bad-host.example/login", null, null)))
+                .isInstanceOf(BlockedContentException.class);
+        verify(linkRepository, never()).update(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldUpdateToCanonicalDestinationWhenNotBlocked() {
+        // given
+        var link = aLink();
+        given(linkRepository.findByIdAndUserId(link.id(), USER_ID)).willReturn(Optional.of(link));
+
+        // when
+        var updated = linkManipulationService.update(USER_ID, link.id(), new UpdateLinkRequest("HTTPS://Example.com/new", null, "new title"));
+
+        // then
+        var saved = ArgumentCaptor.forClass(Link.class);
+        verify(linkRepository).update(saved.capture());
+        assertThat(saved.getValue().longUrl()).isEqualTo("https://example.com/new");
+        assertThat(saved.getValue().title()).isEqualTo("new title");
+        assertThat(saved.getValue().updatedAt()).isEqualTo(NOW);
+        assertThat(updated.longUrl()).isEqualTo("https://example.com/new");
+        verify(eventPublisher).publishEvent(new LinkUpdatedApplicationEvent(saved.getValue()));
+    }
+}
@@ -0,0 +1,203 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionOperations;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+import pl.bpiatek.linkshortenerlinkservice.link.LinkOutboxRepository.OutboxMessage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LinkOutboxRelayTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+    private static final String TEST_TOPIC = "test-topic";
+
+    @Mock
+    private LinkOutboxRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, LinkLifecycleEvent>> producerRecordCaptor;
+
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldSendWholeBatchAndDeleteItAtOnce() {
+        // given
+        given(outboxRepository.tryAcquireRelayLease(any(), eq(Duration.ofSeconds(2)))).willReturn(true);
+        given(outboxRepository.findOldest(3)).willReturn(List.of(aMessage(1L, "10", 5), aMessage(2L, "11", 1)));
+        given(kafkaTemplate.send(producerRecordCaptor.capture())).willReturn(sent(), sent());
+
+        // when
+        var relayed = relay(3).relayBatch();
+
+        // then
+        assertThat(relayed).isEqualTo(2);
+        verify(outboxRepository).deleteByIds(List.of(1L, 2L));
+        assertThat(producerRecordCaptor.getAllValues())
+                .extracting(ProducerRecord::topic, ProducerRecord::key)
+                .containsExactly(tuple(TEST_TOPIC, "10"), tuple(TEST_TOPIC, "11"));
+        assertThat(new String(producerRecordCaptor.getValue().headers().lastHeader("source").value(), UTF_8)).isEqualTo("link-service");
+        assertThat(meterRegistry.get("link.outbox.lag").timeGauge().value(TimeUnit.SECONDS)).isEqualTo(5);
+        assertThat(meterRegistry.get("link.outbox.batch.size").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.outbox.relayed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStopSendingLinkAfterItsFirstFailedSend() {
+        // given
+        given(outboxRepository.tryAcquireRelayLease(any(), eq(Duration.ofSeconds(2)))).willReturn(true);
+        given(outboxRepository.findOldest(4)).willReturn(List.of(
+                aMessage(1L, "10", 4), aMessage(2L, "11", 3), aMessage(3L, "11", 2), aMessage(4L, "10", 1)));
+        given(kafkaTemplate.send(producerRecordCaptor.capture()))
+                .willReturn(sent(), CompletableFuture.failedFuture(new RuntimeException("broker down")), sent());
+
+        // when
+        var relayed = relay(4).relayBatch();
+
+        // then
+        assertThat(relayed).isEqualTo(2);
+        verify(outboxRepository).deleteByIds(List.of(1L, 4L));
+        assertThat(producerRecordCaptor.getAllValues()).extracting(ProducerRecord::key).containsExactly("10", "11", "10");
+        assertThat(meterRegistry.get("link.outbox.failed").counter().count()).isOne();
+    }
+
+    @Test
+    void shouldSkipBatchWhenAnotherRelayHoldsTheLease() {
+        // given
+        given(outboxRepository.tryAcquireRelayLease(any(), eq(Duration.ofSeconds(2)))).willReturn(false);
+
+        // when
+        var relayed = relay(3).relayBatch();
+
+        // then
+        assertThat(relayed).isZero();
+        verify(outboxRepository, never()).findOldest(3);
+    }
+
+    @Test
+    void shouldKeepDrainingWhileBatchesAreFull() {
+        // given
+        given(outboxRepository.tryAcquireRelayLease(any(), eq(Duration.ofSeconds(2)))).willReturn(true);
+        given(outboxRepository.findOldest(1)).willReturn(List.of(aMessage(1L, "10", 2)), List.of(aMessage(2L, "11", 1)), List.of());
+        given(kafkaTemplate.send(any(ProducerRecord.class))).willReturn(sent(), sent());
+
+        // when
+        relay(1).relay();
+
+        // then
+        verify(outboxRepository, times(3)).findOldest(1);
+        verify(outboxRepository).deleteByIds(List.of(1L));
+        verify(outboxRepository).deleteByIds(List.of(2L));
+        assertThat(meterRegistry.get("link.outbox.lag").timeGauge().value(TimeUnit.SECONDS)).isZero();
+    }
+
+    @Test
+    void shouldSendOnlyLatestUpdatePerLinkWhenCoalescing() {
+        // given
+        given(outboxRepository.tryAcquireRelayLease(any(), eq(Duration.ofSeconds(2)))).willReturn(true);
+        given(outboxRepository.findOldest(10)).willReturn(List.of(
+                aMessage(1L, "10", 9, LinkCreatedKafkaProducer.toEvent(LinkStubs.aLink())),
+                aMessage(2L, "10", 8, anUpdate()),
+                aMessage(3L, "11", 7, anUpdate()),
+                aMessage(4L, "10", 6, anUpdate()),
+                aMessage(5L, "11", 5, LinkDeletedKafkaProducer.toEvent(LinkStubs.aLink(), NOW)),
+                aMessage(6L, "12", 1, anUpdate())));
+        given(kafkaTemplate.send(producerRecordCaptor.capture())).willReturn(sent(), sent(), sent());
+
+        // when
+        var relayed = relay(10, Duration.ofSeconds(2)).relayBatch();
+
+        // then
+        assertThat(relayed).isEqualTo(5);
+        verify(outboxRepository).deleteByIds(List.of(1L, 2L, 3L, 4L, 5L));
+        assertThat(producerRecordCaptor.getAllValues())
+                .extracting(record -> LinkOutboxRelay.eventType(record.value()))
+                .containsExactly("LinkCreated", "LinkDeleted", "LinkUpdated");
+        assertThat(meterRegistry.get("link.events.updates.coalesced").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.outbox.relayed").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldHoldBackLinkUntilWindowAfterItsFirstUpdateHasPassed() {
+        // given
+        given(outboxRepository.tryAcquireRelayLease(any(), eq(Duration.ofSeconds(2)))).willReturn(true);
+        given(outboxRepository.findOldest(10)).willReturn(List.of(aMessage(1L, "10", 1, anUpdate()), aMessage(2L, "10", 0, anUpdate())));
+        given(kafkaTemplate.send(producerRecordCaptor.capture())).willReturn(sent());
+        var relay = relay(10, Duration.ofSeconds(2));
+
+        // when
+        var relayedWithinWindow = relay.relayBatch();
+
+        // then
+        assertThat(relayedWithinWindow).isZero();
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+
+        // when
+        clock.setInstant(NOW.plusSeconds(1));
+        var relayedAfterWindow = relay.relayBatch();
+
+        // then
+        assertThat(relayedAfterWindow).isEqualTo(2);
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        verify(outboxRepository).deleteByIds(List.of(1L, 2L));
+        assertThat(meterRegistry.get("link.events.updates.coalesced").counter().count()).isOne();
+    }
+
+    private LinkOutboxRelay relay(int batchSize) {
+        return relay(batchSize, Duration.ZERO);
+    }
+
+    private LinkOutboxRelay relay(int batchSize, Duration coalesceWindow) {
+        return new LinkOutboxRelay(outboxRepository, new KafkaSendWindow(kafkaTemplate, meterRegistry, 10, Duration.ofSeconds(1)),
+                TEST_TOPIC, TransactionOperations.withoutTransaction(), clock, meterRegistry, batchSize,
+                Duration.ofSeconds(1), coalesceWindow);
+    }
+
+    private static LinkLifecycleEvent anUpdate() {
+        return LinkUpdatedKafkaProducer.toEvent(LinkStubs.aLink());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, LinkLifecycleEvent>> sent() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+
+    private static OutboxMessage aMessage(Long id, String key, long secondsAgo) {
+        return aMessage(id, key, secondsAgo, LinkLifecycleEvent.newBuilder().build());
+    }
+
+    private static OutboxMessage aMessage(Long id, String key, long secondsAgo, LinkLifecycleEvent event) {
+        return new OutboxMessage(id, key, event.toByteArray(), NOW.minusSeconds(secondsAgo));
+    }
+}
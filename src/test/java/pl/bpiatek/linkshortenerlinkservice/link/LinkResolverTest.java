@@ -0,0 +1,154 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+import pl.bpiatek.linkshortenerlinkservice.exception.LinkNotFoundException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLinkBuilder;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLinkWithShortUrl;
+
+@ExtendWith(MockitoExtension.class)
+class LinkResolverTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        // given
+        given(linkRepository.findByShortUrl("abc123")).willReturn(Optional.of(aLinkWithShortUrl("abc123")));
+        var linkResolver = linkResolver(Runnable::run);
+
+        // when
+        var first = linkResolver.resolve("abc123");
+        var second = linkResolver.resolve("ABC123");
+
+        // then
+        assertThat(first.longUrl()).isEqualTo("https://example.com/long");
+        assertThat(second).isEqualTo(first);
+        verify(linkRepository, times(1)).findByShortUrl("abc123");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "link.resolve").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheMissingShortUrls() {
+        // given
+        given(linkRepository.findByShortUrl("nope")).willReturn(Optional.empty());
+        var linkResolver = linkResolver(Runnable::run);
+
+        // expect
+        assertThatThrownBy(() -> linkResolver.resolve("nope")).isInstanceOf(LinkNotFoundException.class);
+        assertThatThrownBy(() -> linkResolver.resolve("nope")).isInstanceOf(LinkNotFoundException.class);
+        verify(linkRepository, times(1)).findByShortUrl("nope");
+    }
+
+    @Test
+    void shouldNotResolveInactiveOrExpiredLinks() {
+        // given
+        given(linkRepository.findByShortUrl("inactive")).willReturn(Optional.of(aLinkBuilder().shortUrl("inactive").isActive(false).build()));
+        given(linkRepository.findByShortUrl("expiring")).willReturn(Optional.of(aLinkBuilder().shortUrl("expiring").expiresAt(NOW.plusSeconds(30)).build()));
+        var linkResolver = linkResolver(Runnable::run);
+
+        // when
+        var beforeExpiry = linkResolver.resolve("expiring");
+        clock.setInstant(NOW.plusSeconds(30));
+
+        // then
+        assertThat(beforeExpiry.expiresAt()).isEqualTo(NOW.plusSeconds(30));
+        assertThatThrownBy(() -> linkResolver.resolve("expiring")).isInstanceOf(LinkNotFoundException.class);
+        assertThatThrownBy(() -> linkResolver.resolve("inactive")).isInstanceOf(LinkNotFoundException.class);
+    }
+
+    @Test
+    void shouldReloadEvictedShortUrls() {
+        // given
+        given(linkRepository.findByShortUrl("abc123")).willReturn(Optional.empty(), Optional.of(aLinkWithShortUrl("abc123")));
+        given(linkRepository.findByShortUrl("def456")).willReturn(Optional.of(aLinkWithShortUrl("def456")));
+        var linkResolver = linkResolver(Runnable::run);
+        assertThatThrownBy(() -> linkResolver.resolve("abc123")).isInstanceOf(LinkNotFoundException.class);
+        linkResolver.resolve("def456");
+
+        // when
+        linkResolver.evict("ABC123");
+        var reloaded = linkResolver.resolve("abc123");
+        linkResolver.evictAll();
+        linkResolver.resolve("def456");
+
+        // then
+        assertThat(reloaded.longUrl()).isEqualTo("https://example.com/long");
+        verify(linkRepository, times(2)).findByShortUrl("abc123");
+        verify(linkRepository, times(2)).findByShortUrl("def456");
+    }
+
+    @Test
+    void shouldRejectMalformedShortUrlsWithoutQuerying() {
+        // given
+        var linkResolver = linkResolver(Runnable::run);
+
+        // expect
+        assertThatThrownBy(() -> linkResolver.resolve("../etc/passwd")).isInstanceOf(LinkNotFoundException.class);
+        assertThatThrownBy(() -> linkResolver.resolve("a".repeat(65))).isInstanceOf(LinkNotFoundException.class);
+        verify(linkRepository, never()).findByShortUrl(anyString());
+    }
+
+    @Test
+    void shouldCollapseConcurrentMissesIntoSingleQuery() throws Exception {
+        // given
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        given(linkRepository.findByShortUrl("hot")).willAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(aLinkWithShortUrl("hot"));
+        });
+        var linkResolver = linkResolver(Executors.newVirtualThreadPerTaskExecutor());
+
+        try (var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            // when
+            var first = callers.submit(() -> linkResolver.resolve("hot"));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            var others = IntStream.range(0, 10)
+                    .mapToObj(i -> callers.submit(() -> linkResolver.resolve("hot")))
+                    .toList();
+            release.countDown();
+
+            // then
+            assertThat(first.get(5, TimeUnit.SECONDS).longUrl()).isEqualTo("https://example.com/long");
+            for (Future<?> other : others) {
+                assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo(first.get());
+            }
+        }
+        verify(linkRepository, times(1)).findByShortUrl("hot");
+    }
+
+    private LinkResolver linkResolver(Executor loadExecutor) {
+        return new LinkResolver(linkRepository, clock, meterRegistry, loadExecutor, 1024 * 1024, Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+}
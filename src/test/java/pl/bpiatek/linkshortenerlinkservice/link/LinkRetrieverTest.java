@@ -0,0 +1,73 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkListRequest;
+import pl.bpiatek.linkshortenerlinkservice.api.dto.LinkSummaryDto;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LinkRetrieverTest {
+
+    private static final String USER_ID = "123";
+    private static final Instant CREATED_AT = Instant.parse("2025-11-01T12:00:00Z");
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    private LinkRetriever linkRetriever;
+
+    @BeforeEach
+    void setUp() {
+        linkRetriever = new LinkRetriever(linkRepository, new LinkMapper("http://base.url/"));
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenMoreLinksFollow() {
+        // given
+        given(linkRepository.findPage(any())).willReturn(List.of(aSummary(3), aSummary(2), aSummary(1)));
+
+        // when
+        var page = linkRetriever.listLinks(USER_ID, new LinkListRequest(null, 2, true, null, null, null));
+
+        // then
+        var query = ArgumentCaptor.forClass(LinkListQuery.class);
+        verify(linkRepository).findPage(query.capture());
+        assertThat(query.getValue()).isEqualTo(new LinkListQuery(USER_ID, true, null, null, null, null, 3));
+        assertThat(page.links()).extracting(LinkSummaryDto::id).containsExactly("3", "2");
+        assertThat(LinkCursor.decode(page.nextCursor())).isEqualTo(new LinkCursor(CREATED_AT, 2));
+    }
+
+    @Test
+    void shouldSeekPastCursorAndEndOnLastPage() {
+        // given
+        var cursor = new LinkCursor(CREATED_AT, 2);
+        given(linkRepository.findPage(any())).willReturn(List.of(aSummary(1)));
+
+        // when
+        var page = linkRetriever.listLinks(USER_ID, new LinkListRequest(cursor.encode(), null, null, null, null, null));
+
+        // then
+        var query = ArgumentCaptor.forClass(LinkListQuery.class);
+        verify(linkRepository).findPage(query.capture());
+        assertThat(query.getValue().after()).isEqualTo(cursor);
+        assertThat(query.getValue().limit()).isEqualTo(LinkListRequest.DEFAULT_LIMIT + 1);
+        assertThat(page.links()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    private static LinkSummary aSummary(long id) {
+        return new LinkSummary(id, "short" + id, "https://example.com/" + id, null, true, false, CREATED_AT, null);
+    }
+}
@@ -17,18 +17,19 @@ class LinkStubs {
     }
 
     static Link aLink() {
-        return  new Link(1L, USER_ID, SHORT_URL, LONG_URL, TITLE, null, true, false,
-                parse("2025-11-01T12:00:00Z"), parse("2025-11-02T13:00:00Z"), parse("2025-11-07T11:00:00Z"));
+        return aLinkBuilder().build();
     }
 
     static Link aLinkWithShortUrl(String shortUrl) {
-        return new Link(null, USER_ID, shortUrl, LONG_URL, TITLE, null, true, false,
-                parse("2025-11-01T12:00:00Z"), parse("2025-11-02T13:00:00Z"), parse("2025-11-07T11:00:00Z"));
+        return aLinkBuilder().id(null).shortUrl(shortUrl).build();
     }
 
     static Link aSavedLinkWithShortUrl(long id, String shortUrl) {
-        return new Link(id, USER_ID, shortUrl, LONG_URL, TITLE, null, true, false,
-                parse("2025-11-01T12:00:00Z"), parse("2025-11-02T13:00:00Z"), parse("2025-11-07T11:00:00Z"));
+        return aLinkBuilder().id(id).shortUrl(shortUrl).build();
+    }
+
+    static LinkBuilder aLinkBuilder() {
+        return new LinkBuilder();
     }
 
     static CreateLinkResponse aCreateLinkResponseWithShortUrl(String shortUrl) {
@@ -38,4 +39,77 @@ class LinkStubs {
     static CreateLinkResponse aCreateLinkResponseWithLongUrl(String longUrl) {
         return new CreateLinkResponse(SHORT_URL, longUrl);
     }
+
+    static class LinkBuilder {
+        private Long id = 1L;
+        private String userId = USER_ID;
+        private String shortUrl = SHORT_URL;
+        private String longUrl = LONG_URL;
+        private String title = TITLE;
+        private String notes;
+        private boolean isActive = true;
+        private boolean isCustom;
+        private Instant createdAt = parse("2025-11-01T12:00:00Z");
+        private Instant updatedAt = parse("2025-11-02T13:00:00Z");
+        private Instant expiresAt = parse("2025-11-07T11:00:00Z");
+
+        LinkBuilder id(Long id) {
+            this.id = id;
+            return this;
+        }
+
+        LinkBuilder userId(String userId) {
+            this.userId = userId;
+            return this;
+        }
+
+        LinkBuilder shortUrl(String shortUrl) {
+            this.shortUrl = shortUrl;
+            return this;
+        }
+
+        LinkBuilder longUrl(String longUrl) {
+            this.longUrl = longUrl;
+            return this;
+        }
+
+        LinkBuilder title(String title) {
+            this.title = title;
+            return this;
+        }
+
+        LinkBuilder notes(String notes) {
+            this.notes = notes;
+            return this;
+        }
+
+        LinkBuilder isActive(boolean isActive) {
+            this.isActive = isActive;
+            return this;
+        }
+
+        LinkBuilder isCustom(boolean isCustom) {
+            this.isCustom = isCustom;
+            return this;
+        }
+
+        LinkBuilder createdAt(Instant createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+        LinkBuilder updatedAt(Instant updatedAt) {
+            this.updatedAt = updatedAt;
+            return this;
+        }
+
+        LinkBuilder expiresAt(Instant expiresAt) {
+            this.expiresAt = expiresAt;
+            return this;
+        }
+
+        Link build() {
+            return new Link(id, userId, shortUrl, longUrl, title, notes, isActive, isCustom, createdAt, updatedAt, expiresAt);
+        }
+    }
 }
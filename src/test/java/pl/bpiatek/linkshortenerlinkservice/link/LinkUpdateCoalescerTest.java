@@ -0,0 +1,112 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLinkBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class LinkUpdateCoalescerTest {
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Captor
+    private ArgumentCaptor<Runnable> flushCaptor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> emitted = new ArrayList<>();
+
+    @Test
+    void shouldEmitOnlyLatestUpdateOnceWindowCloses() {
+        // given
+        var coalescer = coalescer(Duration.ofMillis(500));
+
+        // when
+        coalescer.submit(aLinkBuilder().id(1L).title("first").build(), this::emit);
+        coalescer.submit(aLinkBuilder().id(1L).title("second").build(), this::emit);
+        coalescer.submit(aLinkBuilder().id(2L).title("other").build(), this::emit);
+        coalescer.submit(aLinkBuilder().id(1L).title("third").build(), this::emit);
+
+        // then
+        verify(scheduler, times(2)).schedule(flushCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        assertThat(emitted).isEmpty();
+        assertThat(meterRegistry.get("link.events.updates.pending").gauge().value()).isEqualTo(2);
+
+        // when
+        flushCaptor.getAllValues().forEach(Runnable::run);
+
+        // then
+        assertThat(emitted).containsExactly("third", "other");
+        assertThat(meterRegistry.get("link.events.updates.coalesced").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.events.updates.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldDropPendingUpdateWhenLinkIsDeleted() {
+        // given
+        var coalescer = coalescer(Duration.ofMillis(500));
+        coalescer.submit(aLinkBuilder().id(1L).title("updated").build(), this::emit);
+        verify(scheduler).schedule(flushCaptor.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+
+        // when
+        coalescer.bypass(1L, () -> emitted.add("deleted"));
+        flushCaptor.getValue().run();
+
+        // then
+        assertThat(emitted).containsExactly("deleted");
+        assertThat(meterRegistry.get("link.events.updates.coalesced").counter().count()).isOne();
+    }
+
+    @Test
+    void shouldPassUpdatesStraightThroughWithZeroWindow() {
+        // given
+        var coalescer = coalescer(Duration.ZERO);
+
+        // when
+        coalescer.submit(aLinkBuilder().id(1L).title("first").build(), this::emit);
+        coalescer.submit(aLinkBuilder().id(1L).title("second").build(), this::emit);
+
+        // then
+        assertThat(emitted).containsExactly("first", "second");
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    void shouldEmitPendingUpdatesOnClose() {
+        // given
+        var coalescer = coalescer(Duration.ofSeconds(1));
+        coalescer.submit(aLinkBuilder().id(1L).title("pending").build(), this::emit);
+
+        // when
+        coalescer.close();
+
+        // then
+        assertThat(emitted).containsExactly("pending");
+        verify(scheduler).shutdownNow();
+    }
+
+    private LinkUpdateCoalescer coalescer(Duration window) {
+        return new LinkUpdateCoalescer(window, scheduler, meterRegistry);
+    }
+
+    private void emit(Link link) {
+        emitted.add(link.title());
+    }
+}
@@ -1,6 +1,6 @@
 package pl.bpiatek.linkshortenerlinkservice.link;
 
-
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,9 +8,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.dao.DataIntegrityViolationException;
 import pl.bpiatek.linkshortenerlinkservice.exception.UnableToGenerateUniqueShortUrlException;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
@@ -18,6 +21,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aCreateLinkResponseWithShortUrl;
@@ -30,6 +34,7 @@ class RandomShortUrlCreationStrategyTest {
     private static final String LONG_URL = "https://example.com/long";
     private static final String USER_ID = "123";
     private static final String TITLE = "Test title";
+    private static final int MAX_GENERATION_ATTEMPTS = 5;
 
     @Mock
     private LinkRepository linkRepository;
@@ -40,14 +45,26 @@ class RandomShortUrlCreationStrategyTest {
     @Mock
     private ShortUrlGenerator shortUrlGenerator;
 
+    @Mock
+    private ShortUrlPool shortUrlPool;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    private final ShortUrlCollisionTracker collisionTracker = new ShortUrlCollisionTracker(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LinkDeduplicator linkDeduplicator;
     private RandomShortUrlCreationStrategy strategy;
 
     @BeforeEach
     void setUp() {
-        strategy = new RandomShortUrlCreationStrategy(linkRepository, linkMapper, shortUrlGenerator);
+        linkDeduplicator = new LinkDeduplicator(linkRepository, meterRegistry);
+        strategy = new RandomShortUrlCreationStrategy(linkRepository, linkMapper, shortUrlGenerator, shortUrlPool, collisionTracker, shortUrlFilter,
+                linkDeduplicator, MAX_GENERATION_ATTEMPTS);
     }
 
     @Test
@@ -63,12 +80,28 @@ class RandomShortUrlCreationStrategyTest {
         // then
         assertThat(actualResponse.shortUrl()).contains(uniqueShortUrl);
         verify(shortUrlGenerator).generate();
-        verify(linkRepository).save(any(Link.class));
+        verify(linkRepository).tryInsert(any(Link.class));
         var eventCaptor = ArgumentCaptor.forClass(LinkCreatedApplicationEvent.class);
         verify(eventPublisher).publishEvent(eventCaptor.capture());
         assertThat(eventCaptor.getValue().link()).isEqualTo(savedLink);
     }
 
+    @Test
+    void shouldUsePooledShortUrlWhenAvailable() {
+        // given
+        var pooledShortUrl = "pool123";
+        given(shortUrlPool.poll()).willReturn(Optional.of(pooledShortUrl));
+        givenSuccessfulSave(pooledShortUrl);
+
+        // when
+        var actualResponse = strategy.createLink(USER_ID, LONG_URL, null, true, TITLE, eventPublisher);
+
+        // then
+        assertThat(actualResponse.shortUrl()).contains(pooledShortUrl);
+        verify(shortUrlGenerator, never()).generate();
+        verify(linkRepository).tryInsert(any(Link.class));
+    }
+
     @Test
     void shouldRetryAndSucceedOnCollision() {
         var collidingShortUrl = "colliding";
@@ -84,7 +117,7 @@ class RandomShortUrlCreationStrategyTest {
         // then:
         assertThat(actualResponse.shortUrl()).contains(uniqueShortUrl);
         verify(shortUrlGenerator, times(2)).generate();
-        verify(linkRepository, times(2)).save(any(Link.class));
+        verify(linkRepository, times(2)).tryInsert(any(Link.class));
     }
 
     @Test
@@ -98,7 +131,92 @@ class RandomShortUrlCreationStrategyTest {
         assertThatThrownBy(() -> strategy.createLink(USER_ID, LONG_URL, null,false, "title", eventPublisher))
                 .isInstanceOf(UnableToGenerateUniqueShortUrlException.class);
         verify(shortUrlGenerator, times(5)).generate();
-        verify(linkRepository, times(5)).save(any(Link.class));
+        verify(linkRepository, times(5)).tryInsert(any(Link.class));
+    }
+
+    @Test
+    void shouldSkipCandidatesKnownToBeTaken() {
+        // given
+        givenGeneratorReturns("known1", "fresh12");
+        given(shortUrlFilter.isKnownTaken("known1")).willReturn(true);
+        givenSuccessfulSave("fresh12");
+
+        // when
+        var actualResponse = strategy.createLink(USER_ID, LONG_URL, null, true, TITLE, eventPublisher);
+
+        // then
+        assertThat(actualResponse.shortUrl()).contains("fresh12");
+        verify(linkRepository).tryInsert(any(Link.class));
+    }
+
+    @Test
+    void shouldSendSeveralCandidatesWhenCollisionRateIsHigh() {
+        // given
+        var collisionTracker = new ShortUrlCollisionTracker(3);
+        IntStream.range(0, 100).forEach(i -> collisionTracker.record(1, 1));
+        var strategy = new RandomShortUrlCreationStrategy(linkRepository, linkMapper, shortUrlGenerator, shortUrlPool, collisionTracker, shortUrlFilter,
+                linkDeduplicator, MAX_GENERATION_ATTEMPTS);
+        givenGeneratorReturns("taken1", "taken2", "free123");
+        var linkToSave = aLinkWithShortUrl("taken1");
+        var savedLink = aSavedLinkWithShortUrl(1L, "free123");
+        given(linkMapper.toLink(anyString(), anyString(), eq("taken1"), anyBoolean(), anyBoolean(), anyString())).willReturn(linkToSave);
+        given(linkRepository.tryInsertFirstFree(linkToSave, List.of("taken1", "taken2", "free123"))).willReturn(Optional.of(savedLink));
+        given(linkMapper.toCreateLinkResponse(savedLink)).willReturn(aCreateLinkResponseWithShortUrl("free123"));
+
+        // when
+        var actualResponse = strategy.createLink(USER_ID, LONG_URL, null, true, TITLE, eventPublisher);
+
+        // then
+        assertThat(actualResponse.shortUrl()).contains("free123");
+        verify(linkRepository, never()).tryInsert(any(Link.class));
+        assertThat(collisionTracker.collisionRate()).isLessThan(1.0);
+    }
+
+    @Test
+    void shouldReturnExistingLinkWhenDeduplicating() {
+        // given
+        var existingLink = aSavedLinkWithShortUrl(7L, "exist12");
+        given(linkRepository.findActiveByUserIdAndLongUrl(USER_ID, LONG_URL)).willReturn(Optional.of(existingLink));
+        given(linkMapper.toCreateLinkResponse(existingLink)).willReturn(aCreateLinkResponseWithShortUrl("exist12"));
+
+        // when
+        var actualResponse = strategy.createLink(USER_ID, LONG_URL, null, true, TITLE, true, eventPublisher);
+
+        // then
+        assertThat(actualResponse.shortUrl()).contains("exist12");
+        verify(shortUrlGenerator, never()).generate();
+        verify(linkRepository, never()).tryInsert(any(Link.class));
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThat(meterRegistry.get("link.deduplication").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCreateLinkWhenNothingToDeduplicate() {
+        // given
+        given(linkRepository.findActiveByUserIdAndLongUrl(USER_ID, LONG_URL)).willReturn(Optional.empty());
+        givenGeneratorReturns("new1234");
+        givenSuccessfulSave("new1234");
+
+        // when
+        var actualResponse = strategy.createLink(USER_ID, LONG_URL, null, true, TITLE, true, eventPublisher);
+
+        // then
+        assertThat(actualResponse.shortUrl()).contains("new1234");
+        verify(eventPublisher).publishEvent(any(LinkCreatedApplicationEvent.class));
+        assertThat(meterRegistry.get("link.deduplication").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLookUpExistingLinkWhenDeduplicationIsOff() {
+        // given
+        givenGeneratorReturns("new1234");
+        givenSuccessfulSave("new1234");
+
+        // when
+        strategy.createLink(USER_ID, LONG_URL, null, true, TITLE, false, eventPublisher);
+
+        // then
+        verify(linkRepository, never()).findActiveByUserIdAndLongUrl(anyString(), anyString());
     }
 
     private void givenGeneratorReturns(String firstShortUrl, String... subsequentShortUrls) {
@@ -108,7 +226,7 @@ class RandomShortUrlCreationStrategyTest {
     private void givenCollisionOnSave(String collidingShortUrl) {
         var link = aLinkWithShortUrl(collidingShortUrl);
         given(linkMapper.toLink(anyString(), anyString(), eq(collidingShortUrl), anyBoolean(), anyBoolean(), anyString())).willReturn(link);
-        given(linkRepository.save(link)).willThrow(new DataIntegrityViolationException("Collision!"));
+        given(linkRepository.tryInsert(link)).willReturn(Optional.empty());
     }
 
     private Link givenSuccessfulSave(String uniqueShortUrl) {
@@ -117,7 +235,7 @@ class RandomShortUrlCreationStrategyTest {
         var response = aCreateLinkResponseWithShortUrl(uniqueShortUrl);
 
         given(linkMapper.toLink(anyString(), anyString(), eq(uniqueShortUrl), anyBoolean(), anyBoolean(), anyString())).willReturn(linkToSave);
-        given(linkRepository.save(linkToSave)).willReturn(savedLink);
+        given(linkRepository.tryInsert(linkToSave)).willReturn(Optional.of(savedLink));
         given(linkMapper.toCreateLinkResponse(savedLink)).willReturn(response);
 
         return savedLink;
@@ -0,0 +1,73 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RandomShortUrlGeneratorTest {
+
+    private static final int URL_LENGTH = 7;
+
+    @Test
+    void shouldGenerateShortUrl() {
+        // given
+        var generator = new RandomShortUrlGenerator(URL_LENGTH);
+
+        // when
+        var shortUrl = generator.generate();
+
+        // then
+        assertThat(shortUrl).hasSize(URL_LENGTH);
+        assertThat(shortUrl).doesNotContainAnyWhitespaces();
+        assertThat(shortUrl).matches("[a-zA-Z0-9&&[^0OlI]]+");
+    }
+
+    @Test
+    void shouldFollowLengthChanges() {
+        // given
+        var length = new AtomicInteger(URL_LENGTH);
+        var generator = new RandomShortUrlGenerator(length::get);
+
+        // when
+        var before = generator.generate();
+        length.incrementAndGet();
+        var after = generator.generate();
+
+        // then
+        assertThat(before).hasSize(URL_LENGTH);
+        assertThat(after).hasSize(URL_LENGTH + 1);
+    }
+
+    @Test
+    void shouldGenerateShortUrlLongerThanSingleDraw() {
+        // given
+        var generator = new RandomShortUrlGenerator(23);
+
+        // when
+        var shortUrl = generator.generate();
+
+        // then
+        assertThat(shortUrl).hasSize(23);
+        assertThat(shortUrl).matches("[a-zA-Z0-9&&[^0OlI]]+");
+    }
+
+    @Test
+    void shouldUseWholeAlphabetEvenly() {
+        // given
+        var generator = new RandomShortUrlGenerator(URL_LENGTH);
+        var alphabet = ShortUrlGenerator.ALPHANUMERIC_CHARS;
+        var counts = new int[alphabet.length()];
+
+        // when
+        IntStream.range(0, 20_000).forEach(i -> generator.generate()
+                .chars()
+                .forEach(c -> counts[alphabet.indexOf(c)]++));
+
+        // then
+        var expected = 20_000 * URL_LENGTH / alphabet.length();
+        assertThat(IntStream.of(counts)).allSatisfy(count -> assertThat(count).isBetween(expected * 8 / 10, expected * 12 / 10));
+    }
+}
@@ -0,0 +1,45 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+import pl.bpiatek.linkshortenerlinkservice.exception.ReservedShortUrlException;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReservedWordsReloaderTest {
+
+    private final ReservedWordsValidator validator = new ReservedWordsValidator(Set.of("dashboard"));
+    private final MockEnvironment environment = new MockEnvironment();
+    private final ReservedWordsReloader reloader = new ReservedWordsReloader(validator, environment);
+
+    @Test
+    void shouldReloadWhenReservedWordsChange() {
+        // given
+        environment.setProperty("link.reserved-words", "brand,shop");
+
+        // when
+        reloader.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("link.reserved-words")));
+
+        // then
+        assertThatThrownBy(() -> validator.validate("shop"))
+                .isInstanceOf(ReservedShortUrlException.class);
+        assertThatCode(() -> validator.validate("dashboard")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldIgnoreOtherChanges() {
+        // given
+        environment.setProperty("link.reserved-words", "brand");
+
+        // when
+        reloader.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("link.base.url")));
+
+        // then
+        assertThatThrownBy(() -> validator.validate("dashboard"))
+                .isInstanceOf(ReservedShortUrlException.class);
+    }
+}
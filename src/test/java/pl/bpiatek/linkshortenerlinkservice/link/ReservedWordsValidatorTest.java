@@ -0,0 +1,46 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pl.bpiatek.linkshortenerlinkservice.exception.ReservedShortUrlException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReservedWordsValidatorTest {
+
+    private final ReservedWordsValidator validator = new ReservedWordsValidator(Set.of("dashboard", "Login", "api/v1"));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dashboard", "DashBoard", "login", "LOGIN/reset", "dashboard/", "api/v1", "API/V1/links"})
+    void shouldRejectReservedWordsAndTheirPaths(String shortUrl) {
+        assertThatThrownBy(() -> validator.validate(shortUrl))
+                .isInstanceOf(ReservedShortUrlException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"dashboards", "dash", "my-login", "logins/x", "api", "api/v2", "api/v10", ""})
+    void shouldAcceptOtherShortUrls(String shortUrl) {
+        assertThatCode(() -> validator.validate(shortUrl)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldAcceptNull() {
+        assertThatCode(() -> validator.validate(null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldSwapReservedWordsOnReload() {
+        // when
+        validator.reload(List.of("brand", "BRAND", "other"));
+
+        // then
+        assertThatCode(() -> validator.validate("dashboard")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> validator.validate("Brand/sale"))
+                .isInstanceOf(ReservedShortUrlException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void shouldContainEveryAddedShortUrl() {
+        // given
+        var filter = new ScalableBloomFilter(1000, 0.01);
+
+        // when
+        IntStream.range(0, 1000).forEach(i -> filter.put("code" + i));
+
+        // then
+        assertThat(IntStream.range(0, 1000)).allMatch(i -> filter.mightContain("code" + i));
+        assertThat(filter.entries()).isBetween(980L, 1000L);
+    }
+
+    @Test
+    void shouldIgnoreCase() {
+        // given
+        var filter = new ScalableBloomFilter(100, 0.01);
+
+        // when
+        filter.put("aBcDeF");
+
+        // then
+        assertThat(filter.mightContain("ABCDEF")).isTrue();
+        assertThat(filter.mightContain("abcdef")).isTrue();
+    }
+
+    @Test
+    void shouldGrowAndKeepFalsePositiveRateBelowTarget() {
+        // given
+        var filter = new ScalableBloomFilter(1000, 0.01);
+
+        // when
+        IntStream.range(0, 10_000).forEach(i -> filter.put("taken" + i));
+
+        // then
+        var falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("free" + i))
+                .count();
+        assertThat(filter.layerCount()).isGreaterThan(1);
+        assertThat(falsePositives / 100_000.0).isLessThan(0.01);
+        assertThat(filter.estimatedFalsePositiveRate()).isLessThan(0.01);
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("taken" + i));
+    }
+}
@@ -0,0 +1,101 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceShortUrlGeneratorTest {
+
+    private static final int URL_LENGTH = 7;
+    private static final String SECRET = "test-secret";
+    private static final long ALPHABET_SIZE = SequenceShortUrlGenerator.CASE_FOLDED_CHARS.length();
+
+    @Mock
+    private ShortUrlSequenceRepository sequenceRepository;
+
+    @Test
+    void shouldGenerateShortUrlFromSequenceBlock() {
+        // given
+        given(sequenceRepository.nextValues(2)).willReturn(List.of(1L, 2L), List.of(3L, 4L));
+        var generator = new SequenceShortUrlGenerator(sequenceRepository, URL_LENGTH, 2, SECRET);
+
+        // when
+        var shortUrls = List.of(generator.generate(), generator.generate(), generator.generate());
+
+        // then
+        assertThat(shortUrls).doesNotHaveDuplicates();
+        assertThat(shortUrls).allSatisfy(shortUrl -> {
+            assertThat(shortUrl).hasSize(URL_LENGTH);
+            assertThat(shortUrl).matches("[a-z1-9&&[^l]]+");
+        });
+        verify(sequenceRepository, times(2)).nextValues(2);
+    }
+
+    @Test
+    void shouldMapWholeKeyspaceWithoutCaseInsensitiveCollisions() {
+        // given
+        var generator = new SequenceShortUrlGenerator(sequenceRepository, 2, 1, SECRET);
+        var keyspace = ALPHABET_SIZE * ALPHABET_SIZE;
+
+        // when
+        var shortUrls = new HashSet<String>();
+        LongStream.range(0, keyspace).forEach(value -> shortUrls.add(generator.encode(value).toLowerCase(Locale.ROOT)));
+
+        // then
+        assertThat(shortUrls).hasSize((int) keyspace);
+    }
+
+    @Test
+    void shouldNotProduceConsecutiveCodesForConsecutiveValues() {
+        // given
+        var generator = new SequenceShortUrlGenerator(sequenceRepository, URL_LENGTH, 1, SECRET);
+
+        // when
+        var first = generator.encode(1000);
+        var second = generator.encode(1001);
+
+        // then
+        assertThat(first.substring(0, URL_LENGTH - 1)).isNotEqualTo(second.substring(0, URL_LENGTH - 1));
+    }
+
+    @Test
+    void shouldDependOnSecret() {
+        // given
+        var generator = new SequenceShortUrlGenerator(sequenceRepository, URL_LENGTH, 1, SECRET);
+        var otherGenerator = new SequenceShortUrlGenerator(sequenceRepository, URL_LENGTH, 1, "other-secret");
+
+        // then
+        assertThat(generator.encode(42)).isNotEqualTo(otherGenerator.encode(42));
+    }
+
+    @Test
+    void shouldGrowLengthWhenKeyspaceIsExceeded() {
+        // given
+        var generator = new SequenceShortUrlGenerator(sequenceRepository, 2, 1, SECRET);
+
+        // when
+        var shortUrl = generator.encode(ALPHABET_SIZE * ALPHABET_SIZE);
+
+        // then
+        assertThat(shortUrl).hasSize(3);
+    }
+
+    @Test
+    void shouldRequireSecret() {
+        assertThatThrownBy(() -> new SequenceShortUrlGenerator(sequenceRepository, URL_LENGTH, 1, " "))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
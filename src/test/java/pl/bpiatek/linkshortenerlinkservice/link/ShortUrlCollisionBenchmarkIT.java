@@ -0,0 +1,115 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.bpiatek.linkshortenerlinkservice.IntegrationTest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares create throughput under an artificially high collision rate.
+// Run with: mvn test -Dtest=ShortUrlCollisionBenchmarkIT -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShortUrlCollisionBenchmarkIT extends IntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ShortUrlCollisionBenchmarkIT.class);
+
+    private static final int TAKEN_SHORT_URLS = 200;
+    private static final double COLLISION_RATE = 0.8;
+    private static final int WARM_UP_CREATES = 200;
+    private static final int MEASURED_CREATES = 2000;
+    private static final int MAX_ATTEMPTS = 50;
+
+    @Autowired
+    private LinkRepository linkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<String> takenShortUrls;
+
+    @BeforeEach
+    void setUp() {
+        takenShortUrls = IntStream.range(0, TAKEN_SHORT_URLS)
+                .mapToObj(i -> "taken-" + i)
+                .toList();
+        takenShortUrls.forEach(shortUrl -> linkRepository.save(aLink(shortUrl)));
+    }
+
+    @Test
+    void compareExceptionDrivenRetriesWithOnConflictDoNothing() {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Before: every colliding INSERT throws and aborts the transaction, so each attempt needs its own.
+        Function<String, Optional<Link>> exceptionDriven = shortUrl -> {
+            try {
+                return Optional.of(transactionTemplate.execute(status -> linkRepository.save(aLink(shortUrl))));
+            } catch (DataIntegrityViolationException e) {
+                return Optional.empty();
+            }
+        };
+
+        // After: a conflict is a plain result value and the retry continues in the same transaction.
+        Function<String, Optional<Link>> onConflictDoNothing = shortUrl -> linkRepository.tryInsert(aLink(shortUrl));
+
+        run("warm-up exception-driven", WARM_UP_CREATES, exceptionDriven, null);
+        run("warm-up on-conflict", WARM_UP_CREATES, onConflictDoNothing, transactionTemplate);
+
+        var exceptionDrivenOpsPerSecond = run("exception-driven", MEASURED_CREATES, exceptionDriven, null);
+        var onConflictOpsPerSecond = run("on-conflict", MEASURED_CREATES, onConflictDoNothing, transactionTemplate);
+
+        log.info("Creates/s at {}% collision rate: exception-driven={}, on-conflict={}",
+                (int) (COLLISION_RATE * 100),
+                String.format("%.1f", exceptionDrivenOpsPerSecond),
+                String.format("%.1f", onConflictOpsPerSecond));
+        assertThat(onConflictOpsPerSecond).isPositive();
+    }
+
+    private double run(String name, int creates, Function<String, Optional<Link>> insert, TransactionTemplate createTransaction) {
+        var start = System.nanoTime();
+        var collisions = 0;
+        for (int i = 0; i < creates; i++) {
+            var attempts = createTransaction == null
+                    ? attemptsUntilInserted(insert)
+                    : createTransaction.execute(status -> attemptsUntilInserted(insert));
+            collisions += attempts - 1;
+        }
+        var elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        log.info("[{}] {} creates, {} collisions in {}s", name, creates, collisions, String.format("%.3f", elapsedSeconds));
+        return creates / elapsedSeconds;
+    }
+
+    private int attemptsUntilInserted(Function<String, Optional<Link>> insert) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (insert.apply(nextCandidate()).isPresent()) {
+                return attempt;
+            }
+        }
+        throw new IllegalStateException("No free short url found in " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private String nextCandidate() {
+        var random = ThreadLocalRandom.current();
+        return random.nextDouble() < COLLISION_RATE
+                ? takenShortUrls.get(random.nextInt(takenShortUrls.size()))
+                : UUID.randomUUID().toString();
+    }
+
+    private static Link aLink(String shortUrl) {
+        return new Link("benchmark-user", shortUrl, "https://example.com/benchmark", true, false, null);
+    }
+}
@@ -0,0 +1,56 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+
+class ShortUrlCollisionTrackerTest {
+
+    @Test
+    void shouldUseSingleCandidateWithoutCollisions() {
+        // given
+        var tracker = new ShortUrlCollisionTracker(8);
+
+        // when
+        IntStream.range(0, 100).forEach(i -> tracker.record(0, 1));
+
+        // then
+        assertThat(tracker.collisionRate()).isZero();
+        assertThat(tracker.candidateCount()).isOne();
+    }
+
+    @Test
+    void shouldIncreaseCandidateCountWithCollisionRate() {
+        // given
+        var tracker = new ShortUrlCollisionTracker(8);
+
+        // when
+        IntStream.range(0, 200).forEach(i -> tracker.record(1, 2));
+
+        // then
+        assertThat(tracker.collisionRate()).isCloseTo(0.5, offset(0.01));
+        assertThat(tracker.candidateCount()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldCapCandidateCount() {
+        // given
+        var tracker = new ShortUrlCollisionTracker(3);
+
+        // when
+        IntStream.range(0, 200).forEach(i -> tracker.record(1, 1));
+
+        // then
+        assertThat(tracker.candidateCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectInvalidMaxCandidates() {
+        assertThatThrownBy(() -> new ShortUrlCollisionTracker(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,101 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aSavedLinkWithShortUrl;
+
+@ExtendWith(MockitoExtension.class)
+class ShortUrlFilterTest {
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ShortUrlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ShortUrlFilter(linkRepository, TransactionOperations.withoutTransaction(), meterRegistry,
+                true, 1000, 0.01, 100);
+    }
+
+    @Test
+    void shouldNotReportAnythingAsTakenBeforeFirstBuild() {
+        // when
+        filter.onLinkCreated(new LinkCreatedApplicationEvent(aSavedLinkWithShortUrl(1L, "abc123")));
+
+        // then
+        assertThat(filter.isKnownTaken("abc123")).isFalse();
+    }
+
+    @Test
+    void shouldReportShortUrlsFromDatabaseAsTaken() {
+        // given
+        givenShortUrlsInDatabase("abc123", "def456");
+
+        // when
+        filter.rebuild();
+
+        // then
+        assertThat(filter.isKnownTaken("abc123")).isTrue();
+        assertThat(filter.isKnownTaken("DEF456")).isTrue();
+        assertThat(meterRegistry.get("link.shorturl.filter.entries").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.shorturl.filter.memory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("link.shorturl.filter.rebuild").timer().count()).isOne();
+        assertThat(meterRegistry.get("link.shorturl.filter.skipped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldAddCreatedLinks() {
+        // given
+        givenShortUrlsInDatabase();
+        filter.rebuild();
+
+        // when
+        filter.onLinkCreated(new LinkCreatedApplicationEvent(aSavedLinkWithShortUrl(1L, "new123")));
+
+        // then
+        assertThat(filter.isKnownTaken("new123")).isTrue();
+    }
+
+    @Test
+    void shouldNotTouchDatabaseWhenDisabled() {
+        // given
+        var disabledFilter = new ShortUrlFilter(linkRepository, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(),
+                false, 1000, 0.01, 100);
+
+        // when
+        disabledFilter.rebuild();
+
+        // then
+        verify(linkRepository, never()).forEachShortUrl(anyInt(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenShortUrlsInDatabase(String... shortUrls) {
+        given(linkRepository.estimateCount()).willReturn((long) shortUrls.length);
+        willAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(1);
+            for (var shortUrl : shortUrls) {
+                action.accept(shortUrl);
+            }
+            return null;
+        }).given(linkRepository).forEachShortUrl(anyInt(), any(Consumer.class));
+    }
+}
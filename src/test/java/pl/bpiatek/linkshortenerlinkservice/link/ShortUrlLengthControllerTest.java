@@ -0,0 +1,99 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ShortUrlLengthControllerTest {
+
+    private static final double THRESHOLD = 0.05;
+    private static final long ALPHABET_SIZE = ShortUrlGenerator.ALPHANUMERIC_CHARS.length();
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    private final ShortUrlCollisionTracker collisionTracker = new ShortUrlCollisionTracker(8);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldKeepLengthWhenKeyspaceIsEmpty() {
+        // given
+        given(linkRepository.estimateCount()).willReturn(1000L);
+        var controller = aController(7, 10);
+
+        // when
+        controller.evaluate();
+
+        // then
+        assertThat(controller.currentLength()).isEqualTo(7);
+        assertThat(meterRegistry.get("link.shorturl.length").gauge().value()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldRaiseLengthUntilSaturationIsBelowThreshold() {
+        // given
+        given(linkRepository.estimateCount()).willReturn(ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE);
+        var controller = aController(2, 10);
+
+        // when
+        controller.evaluate();
+
+        // then
+        assertThat(controller.currentLength()).isEqualTo(4);
+        assertThat(controller.keyspaceSaturation()).isLessThanOrEqualTo(THRESHOLD);
+    }
+
+    @Test
+    void shouldRaiseLengthByOneWhenCollisionRateCrossesThreshold() {
+        // given
+        given(linkRepository.estimateCount()).willReturn(0L);
+        IntStream.range(0, 200).forEach(i -> collisionTracker.record(1, 1));
+        var controller = aController(7, 10);
+
+        // when
+        controller.evaluate();
+
+        // then
+        assertThat(controller.currentLength()).isEqualTo(8);
+        assertThat(collisionTracker.collisionRate()).isZero();
+    }
+
+    @Test
+    void shouldIgnoreCollisionRateWithTooFewSamples() {
+        // given
+        given(linkRepository.estimateCount()).willReturn(0L);
+        IntStream.range(0, 10).forEach(i -> collisionTracker.record(1, 1));
+        var controller = aController(7, 10);
+
+        // when
+        controller.evaluate();
+
+        // then
+        assertThat(controller.currentLength()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldNotExceedMaxLength() {
+        // given
+        given(linkRepository.estimateCount()).willReturn(Long.MAX_VALUE);
+        var controller = aController(7, 8);
+
+        // when
+        controller.evaluate();
+
+        // then
+        assertThat(controller.currentLength()).isEqualTo(8);
+    }
+
+    private ShortUrlLengthController aController(int initialLength, int maxLength) {
+        return new ShortUrlLengthController(collisionTracker, linkRepository, meterRegistry, initialLength, maxLength, THRESHOLD);
+    }
+}
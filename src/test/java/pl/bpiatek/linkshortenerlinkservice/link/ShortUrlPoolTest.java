@@ -0,0 +1,144 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ShortUrlPoolTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+    private static final int CAPACITY = 3;
+    private static final int LOW_WATER_MARK = 1;
+
+    @Mock
+    private ShortUrlClaimRepository claimRepository;
+
+    @Mock
+    private ShortUrlGenerator shortUrlGenerator;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    private final ShortUrlCollisionTracker collisionTracker = new ShortUrlCollisionTracker(8);
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ShortUrlPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ShortUrlPool(claimRepository, shortUrlGenerator, shortUrlFilter, collisionTracker, clock, meterRegistry, Runnable::run,
+                true, CAPACITY, LOW_WATER_MARK, Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldHandOutClaimedShortUrls() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("aaa", "bbb", "ccc");
+        given(claimRepository.claim(List.of("aaa", "bbb", "ccc"), NOW)).willReturn(List.of("aaa", "bbb", "ccc"));
+        pool.refill();
+
+        // when
+        var first = pool.poll();
+
+        // then
+        assertThat(first).contains("aaa");
+        assertThat(pool.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("link.shorturl.pool.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldOnlyKeepCandidatesThatWereClaimed() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("aaa", "bbb", "ccc", "ddd");
+        given(claimRepository.claim(List.of("aaa", "bbb", "ccc"), NOW)).willReturn(List.of("aaa", "ccc"));
+        given(claimRepository.claim(List.of("ddd"), NOW)).willReturn(List.of("ddd"));
+
+        // when
+        pool.refill();
+
+        // then
+        assertThat(pool.size()).isEqualTo(CAPACITY);
+        assertThat(collisionTracker.samples()).isEqualTo(4);
+        assertThat(collisionTracker.collisionRate()).isPositive();
+    }
+
+    @Test
+    void shouldNotClaimCandidatesKnownToBeTaken() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("aaa", "bbb", "ccc", "ddd");
+        given(shortUrlFilter.isKnownTaken(anyString())).willAnswer(invocation -> "bbb".equals(invocation.getArgument(0)));
+        given(claimRepository.claim(List.of("aaa", "ccc"), NOW)).willReturn(List.of("aaa", "ccc"));
+        given(claimRepository.claim(List.of("ddd"), NOW)).willReturn(List.of("ddd"));
+
+        // when
+        pool.refill();
+
+        // then
+        assertThat(pool.size()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void shouldReportExhaustionAndRefillWhenEmpty() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("aaa", "bbb", "ccc");
+        given(claimRepository.claim(anyList(), any())).willReturn(List.of("aaa", "bbb", "ccc"));
+
+        // when
+        var shortUrl = pool.poll();
+
+        // then
+        assertThat(shortUrl).isEmpty();
+        assertThat(meterRegistry.get("link.shorturl.pool.exhausted").counter().count()).isEqualTo(1);
+        assertThat(pool.size()).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void shouldDiscardEntriesOlderThanHalfOfClaimTtl() {
+        // given
+        given(shortUrlGenerator.generate()).willReturn("aaa", "bbb", "ccc");
+        given(claimRepository.claim(anyList(), any())).willReturn(List.of("aaa", "bbb", "ccc"), List.of());
+        pool.refill();
+        clock.setInstant(NOW.plus(Duration.ofMinutes(31)));
+
+        // when
+        var shortUrl = pool.poll();
+
+        // then
+        assertThat(shortUrl).isEmpty();
+    }
+
+    @Test
+    void shouldNotTouchDatabaseWhenDisabled() {
+        // given
+        var disabledPool = new ShortUrlPool(claimRepository, shortUrlGenerator, shortUrlFilter, collisionTracker, clock, meterRegistry, Runnable::run,
+                false, CAPACITY, LOW_WATER_MARK, Duration.ofHours(1));
+
+        // when
+        var shortUrl = disabledPool.poll();
+        disabledPool.purgeExpiredClaims();
+
+        // then
+        assertThat(shortUrl).isEmpty();
+        verify(claimRepository, never()).claim(anyList(), any());
+        verify(claimRepository, never()).deleteClaimedBefore(any());
+    }
+}
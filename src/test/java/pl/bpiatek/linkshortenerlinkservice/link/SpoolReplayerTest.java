@@ -0,0 +1,135 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import pl.bpiatek.contracts.link.LinkLifecycleEventProto.LinkLifecycleEvent;
+import pl.bpiatek.linkshortenerlinkservice.MutableClock;
+import pl.bpiatek.linkshortenerlinkservice.link.LifecycleEventSpool.SpooledEvent;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SpoolReplayerTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+    private static final byte[] PAYLOAD = LinkLifecycleEvent.newBuilder().build().toByteArray();
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private KafkaTemplate<String, LinkLifecycleEvent> kafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, LinkLifecycleEvent>> producerRecordCaptor;
+
+    private final MutableClock clock = new MutableClock(NOW, ZoneOffset.UTC);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LifecycleEventSpool spool;
+    private KafkaCircuitBreaker circuitBreaker;
+    private SpoolReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        spool = new LifecycleEventSpool(directory, 4096, 4, clock, meterRegistry);
+        circuitBreaker = new KafkaCircuitBreaker(1, Duration.ofSeconds(30), clock, meterRegistry);
+        replayer = new SpoolReplayer(spool, new KafkaSendWindow(kafkaTemplate, meterRegistry, 10, Duration.ofSeconds(1)),
+                circuitBreaker, "test-topic", meterRegistry, 2, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldReplayWholeSpoolInOrder() {
+        // given
+        spool.append("1", PAYLOAD);
+        spool.append("2", PAYLOAD);
+        spool.append("1", PAYLOAD);
+        given(kafkaTemplate.send(producerRecordCaptor.capture())).willReturn(sent());
+
+        // when
+        replayer.replay();
+
+        // then
+        assertThat(spool.isEmpty()).isTrue();
+        assertThat(producerRecordCaptor.getAllValues()).extracting(ProducerRecord::key).containsExactly("1", "2", "1");
+        assertThat(new String(producerRecordCaptor.getValue().headers().lastHeader("source").value(), UTF_8)).isEqualTo("link-service");
+        assertThat(meterRegistry.get("link.events.spool.replayed").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldKeepEventsFromFirstFailureAndOpenCircuit() {
+        // given
+        spool.append("1", PAYLOAD);
+        spool.append("2", PAYLOAD);
+        given(kafkaTemplate.send(any(ProducerRecord.class)))
+                .willReturn(sent(), CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // when
+        var replayed = replayer.replayBatch();
+
+        // then
+        assertThat(replayed).isOne();
+        assertThat(spool.peek(10)).extracting(SpooledEvent::key).containsExactly("2");
+        assertThat(circuitBreaker.state()).isEqualTo(KafkaCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldNotSendKeyAgainBeforeItsPreviousEventIsAcknowledged() {
+        // given
+        spool.append("1", PAYLOAD);
+        spool.append("2", PAYLOAD);
+        spool.append("1", PAYLOAD);
+        replayer = new SpoolReplayer(spool, new KafkaSendWindow(kafkaTemplate, meterRegistry, 10, Duration.ofSeconds(1)),
+                circuitBreaker, "test-topic", meterRegistry, 3, Duration.ofSeconds(1));
+        given(kafkaTemplate.send(producerRecordCaptor.capture()))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")), sent());
+
+        // when
+        var replayed = replayer.replayBatch();
+
+        // then
+        assertThat(replayed).isZero();
+        assertThat(producerRecordCaptor.getAllValues()).extracting(ProducerRecord::key).containsExactly("1", "2");
+        assertThat(spool.peek(10)).extracting(SpooledEvent::key).containsExactly("1", "2", "1");
+    }
+
+    @Test
+    void shouldWaitWhileCircuitIsOpen() {
+        // given
+        spool.append("1", PAYLOAD);
+        circuitBreaker.onFailure();
+
+        // when
+        var replayed = replayer.replayBatch();
+
+        // then
+        assertThat(replayed).isZero();
+        assertThat(spool.size()).isOne();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<SendResult<String, LinkLifecycleEvent>> sent() {
+        return CompletableFuture.completedFuture(mock(SendResult.class));
+    }
+}
@@ -0,0 +1,111 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedEventDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRunEventsForOneLinkInPublicationOrder() throws InterruptedException {
+        // given
+        var dispatcher = dispatcher(4, 100, DispatchRejectionPolicy.BLOCK);
+        var sent = new CopyOnWriteArrayList<Integer>();
+
+        // when
+        IntStream.range(0, 50).forEach(i -> dispatcher.dispatch(7L, () -> sent.add(i)));
+        dispatcher.close();
+
+        // then
+        assertThat(sent).containsExactlyElementsOf(IntStream.range(0, 50).boxed().toList());
+    }
+
+    @Test
+    void shouldSendDifferentLinksInParallel() throws InterruptedException {
+        // given
+        var dispatcher = dispatcher(2, 10, DispatchRejectionPolicy.BLOCK);
+        var bothRunning = new CountDownLatch(2);
+
+        // when
+        List.of(1L, 2L).forEach(linkId -> dispatcher.dispatch(linkId, () -> {
+            bothRunning.countDown();
+            awaitQuietly(bothRunning);
+        }));
+
+        // then
+        assertThat(bothRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.close();
+    }
+
+    @Test
+    void shouldDropAndCountEventsWhenStripeIsFull() throws InterruptedException {
+        // given
+        var dispatcher = dispatcher(1, 1, DispatchRejectionPolicy.DISCARD);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        dispatcher.dispatch(1L, () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        dispatcher.dispatch(1L, () -> {});
+
+        // when
+        dispatcher.dispatch(1L, () -> {});
+
+        // then
+        assertThat(meterRegistry.get("link.events.dispatch.queue.depth").tag("stripe", "0").gauge().value()).isOne();
+        assertThat(meterRegistry.get("link.events.dispatch.rejected").counter().count()).isOne();
+        release.countDown();
+        dispatcher.close();
+    }
+
+    @Test
+    void shouldKeepStripeAliveWhenSendFails() throws InterruptedException {
+        // given
+        var dispatcher = dispatcher(1, 10, DispatchRejectionPolicy.BLOCK);
+        var sent = new CountDownLatch(1);
+
+        // when
+        dispatcher.dispatch(1L, () -> {
+            throw new IllegalStateException("broken event");
+        });
+        dispatcher.dispatch(1L, sent::countDown);
+
+        // then
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+        dispatcher.close();
+    }
+
+    @Test
+    void shouldPickSameStripeForSameLink() {
+        // given
+        var dispatcher = dispatcher(8, 1, DispatchRejectionPolicy.BLOCK);
+
+        // expect
+        assertThat(dispatcher.stripeOf(42L)).isEqualTo(dispatcher.stripeOf(42L)).isEqualTo(2);
+        assertThat(dispatcher.stripeOf(-1L)).isBetween(0, 7);
+    }
+
+    private StripedEventDispatcher dispatcher(int stripes, int queueCapacity, DispatchRejectionPolicy rejectionPolicy) {
+        return new StripedEventDispatcher(stripes, queueCapacity, rejectionPolicy, Duration.ofMillis(100), Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedSecureRandomTest {
+
+    @Test
+    void shouldRoundStripesUpToPowerOfTwo() {
+        assertThat(new StripedSecureRandom(5).stripeCount()).isEqualTo(8);
+        assertThat(new StripedSecureRandom(16).stripeCount()).isEqualTo(16);
+    }
+
+    @Test
+    void shouldNotRepeatValuesAcrossConcurrentThreads() throws Exception {
+        // given
+        var random = new StripedSecureRandom(4);
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+
+        // when
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 100).forEach(i -> executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    values.add(random.nextLong());
+                }
+            }));
+        }
+
+        // then
+        assertThat(values).hasSize(100_000);
+    }
+}
@@ -0,0 +1,81 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static pl.bpiatek.linkshortenerlinkservice.link.LinkStubs.aLinkBuilder;
+
+@ExtendWith(MockitoExtension.class)
+class VanityLinkSweeperTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-01T12:00:00Z");
+    private static final Instant CUTOFF = Instant.parse("2025-10-02T12:00:00Z");
+
+    @Mock
+    private LinkRepository linkRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldDeleteInBatchesUntilShortBatchAndPublishEveryRelease() {
+        // given
+        var first = aLinkBuilder().id(1L).shortUrl("vanity1").isActive(false).isCustom(true).build();
+        var second = aLinkBuilder().id(2L).shortUrl("vanity2").isActive(false).isCustom(true).build();
+        var third = aLinkBuilder().id(3L).shortUrl("vanity3").isActive(false).isCustom(true).build();
+        given(linkRepository.deleteDeactivatedCustomLinksOlderThan(CUTOFF, 2))
+                .willReturn(List.of(first, second), List.of(third));
+
+        // when
+        var released = sweeper(0).sweep();
+
+        // then
+        assertThat(released).isEqualTo(3);
+        verify(linkRepository, times(2)).deleteDeactivatedCustomLinksOlderThan(CUTOFF, 2);
+        verify(eventPublisher).publishEvent(new LinkDeletedApplicationEvent(first));
+        verify(eventPublisher).publishEvent(new LinkDeletedApplicationEvent(second));
+        verify(eventPublisher).publishEvent(new LinkDeletedApplicationEvent(third));
+        assertThat(meterRegistry.get("link.cleanup.released").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldStopWhenNothingIsLeft() {
+        // given
+        given(linkRepository.deleteDeactivatedCustomLinksOlderThan(CUTOFF, 2)).willReturn(List.of());
+
+        // when
+        var released = sweeper(0).sweep();
+
+        // then
+        assertThat(released).isZero();
+    }
+
+    @Test
+    void shouldPauseToStayWithinRowsPerSecondBudget() {
+        // expect
+        assertThat(VanityLinkSweeper.pauseMillis(500, 100, 1000)).isEqualTo(400);
+        assertThat(VanityLinkSweeper.pauseMillis(500, 700, 1000)).isZero();
+        assertThat(VanityLinkSweeper.pauseMillis(500, 0, 0)).isZero();
+    }
+
+    private VanityLinkSweeper sweeper(int rowsPerSecond) {
+        return new VanityLinkSweeper(linkRepository, eventPublisher, TransactionOperations.withoutTransaction(),
+                Clock.fixed(NOW, ZoneOffset.UTC), meterRegistry, 30, 2, rowsPerSecond);
+    }
+}
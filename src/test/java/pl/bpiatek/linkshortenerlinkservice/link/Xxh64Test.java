@@ -0,0 +1,20 @@
+package pl.bpiatek.linkshortenerlinkservice.link;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Xxh64Test {
+
+    @ParameterizedTest(name = "xxh64(\"{0}\") = {1}")
+    @CsvSource(value = {
+            "'', ef46db3751d8e999",
+            "a, d24ec4f1a98c6e5b",
+            "abc, 44bc2cf5ad770999",
+            "Nobody inspects the spammish repetition, fbcea83c8a378bf1"
+    })
+    void shouldMatchReferenceImplementation(String input, String expectedHex) {
+        assertThat(Long.toHexString(Xxh64.hash(input))).isEqualTo(expectedHex);
+    }
+}